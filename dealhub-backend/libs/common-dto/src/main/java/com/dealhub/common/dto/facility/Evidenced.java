@@ -0,0 +1,44 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Extracted value with where it was found: {@code {"value", "citation", "evidence"}}. A bare value (older
+ * extracts write {@code "facilityType": "term loan"}) binds as a value without citation.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Evidenced<T>(T value, String citation, String evidence) {
+
+    private static final Evidenced<?> EMPTY = new Evidenced<>(null, null, null);
+
+    @JsonCreator
+    public Evidenced(@JsonProperty("value") T value,
+                     @JsonProperty("citation") String citation,
+                     @JsonProperty("evidence") String evidence) {
+        this.value = value;
+        this.citation = citation;
+        this.evidence = evidence;
+    }
+
+    public static <T> Evidenced<T> of(T value) {
+        return new Evidenced<>(value, null, null);
+    }
+
+    // picked up by Jackson for bare string leaves only; objects still bind through the constructor
+    @SuppressWarnings("unchecked")
+    public static <T> Evidenced<T> valueOf(String value) {
+        return new Evidenced<>((T) value, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Evidenced<T> empty() {
+        return (Evidenced<T>) EMPTY;
+    }
+
+    /** Null-safe value of a possibly missing leaf. */
+    public static <T> T valueOrNull(Evidenced<T> leaf) {
+        return leaf == null ? null : leaf.value();
+    }
+}
@@ -0,0 +1,12 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Facility(
+        Evidenced<String> facilityType,
+        Evidenced<String> currency,
+        Evidenced<String> amount
+) {}
@@ -0,0 +1,38 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Typed form of a facility agreement extraction, aligned with extraction-service's FacilityAgreementSchema.
+ * Services bind the stored JSON once (ignoring unknown keys) and work on these records; every part may be
+ * null when the extraction did not produce it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record FacilityAgreement(
+        String profile,
+        Long documentId,
+        Long agreementId,
+        Parties parties,
+        KeyDates keyDates,
+        List<Facility> facilities,
+        Pricing pricing,
+        List<InterestPeriod> interestPeriods,
+        ValidationAndGaps validationAndGaps
+) {
+
+    public static final String PROFILE = "FACILITY_AGREEMENT";
+
+    public static FacilityAgreement empty(String profile, Long documentId, Long agreementId) {
+        return new FacilityAgreement(profile, documentId, agreementId,
+                null, null, List.of(), null, List.of(), null);
+    }
+
+    /** First facility, or null. */
+    public Facility firstFacility() {
+        return facilities == null || facilities.isEmpty() ? null : facilities.get(0);
+    }
+}
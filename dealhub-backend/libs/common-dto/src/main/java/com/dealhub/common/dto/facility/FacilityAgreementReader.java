@@ -0,0 +1,64 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+
+import java.io.IOException;
+
+/**
+ * Lenient binding of extraction JSON to {@link FacilityAgreement}. The JSON comes from a model, so it is
+ * bound the way the JSON-tree code it replaces read it: unknown keys are ignored, and a field of the wrong
+ * shape (an object or array where a scalar value belongs, a string where an object belongs, an unparsable
+ * number) binds as null instead of failing the whole agreement.
+ */
+public final class FacilityAgreementReader {
+
+    private final ObjectReader reader;
+
+    public FacilityAgreementReader(ObjectMapper mapper) {
+        this.reader = mapper.readerFor(FacilityAgreement.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .withHandler(new MalformedFieldsAsNull());
+    }
+
+    public FacilityAgreement read(JsonNode json) throws IOException {
+        return reader.readValue(json);
+    }
+
+    private static final class MalformedFieldsAsNull extends DeserializationProblemHandler {
+
+        @Override
+        public Object handleUnexpectedToken(DeserializationContext ctxt, JavaType targetType, JsonToken t,
+                                            JsonParser p, String failureMsg) throws IOException {
+            p.skipChildren();
+            return null;
+        }
+
+        @Override
+        public Object handleMissingInstantiator(DeserializationContext ctxt, Class<?> instClass,
+                                                ValueInstantiator valueInsta, JsonParser p, String msg) throws IOException {
+            p.skipChildren();
+            return null;
+        }
+
+        @Override
+        public Object handleWeirdStringValue(DeserializationContext ctxt, Class<?> targetType, String valueToConvert,
+                                             String failureMsg) {
+            return null;
+        }
+
+        @Override
+        public Object handleWeirdNumberValue(DeserializationContext ctxt, Class<?> targetType, Number valueToConvert,
+                                             String failureMsg) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** Interest period option; a bare string ("3M") binds as the period value. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record InterestPeriod(Evidenced<String> period) {
+
+    @JsonCreator
+    public InterestPeriod(@JsonProperty("period") Evidenced<String> period) {
+        this.period = period;
+    }
+
+    // bare strings only, see Evidenced.valueOf
+    public static InterestPeriod valueOf(String period) {
+        return new InterestPeriod(Evidenced.of(period));
+    }
+}
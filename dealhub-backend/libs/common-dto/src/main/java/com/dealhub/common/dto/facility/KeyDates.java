@@ -0,0 +1,14 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record KeyDates(
+        Evidenced<String> agreementDate,
+        @JsonAlias("effectiveDate") Evidenced<String> effectiveOrCommencementDate,
+        Evidenced<String> expiryDate,
+        Evidenced<String> maturityDate
+) {}
@@ -0,0 +1,17 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Lender row of parties.lenders; the aliases are the field names of the first extraction prompt.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Lender(
+        @JsonAlias("name") Evidenced<String> legalName,
+        @JsonAlias("shareAmount") Evidenced<String> commitmentAmount,
+        Evidenced<String> commitmentCurrency,
+        @JsonAlias("sharePercentage") Evidenced<String> commitmentPercentage
+) {}
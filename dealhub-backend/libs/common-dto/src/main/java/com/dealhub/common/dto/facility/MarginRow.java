@@ -0,0 +1,23 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Row of the margin grid (pricing.margin[]). A single schema-style margin leaf
+ * ({@code {"value", "citation", "evidence"}}) binds as one row whose margin is the value.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record MarginRow(
+        String period,
+        TimeRange timeRange,
+        @JsonAlias({"value", "margin"}) String sterlingMargin,
+        String citation,
+        String evidence
+) {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TimeRange(String from, String to) {}
+}
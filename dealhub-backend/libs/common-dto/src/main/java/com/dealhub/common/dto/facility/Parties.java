@@ -0,0 +1,18 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The aliases are the flat names of the first extraction prompt ({@code "borrowerName": "Acme plc"}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Parties(
+        @JsonAlias("borrowerName") Party borrower,
+        @JsonAlias("administrativeAgentName") Party administrativeAgent,
+        List<Lender> lenders
+) {}
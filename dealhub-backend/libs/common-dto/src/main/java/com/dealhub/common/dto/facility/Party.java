@@ -0,0 +1,17 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Party(
+        Evidenced<String> legalName,
+        Evidenced<String> jurisdiction,
+        Evidenced<String> registeredAddress
+) {
+    // a bare name, as written by older extracts
+    public static Party valueOf(String legalName) {
+        return new Party(Evidenced.of(legalName), null, null);
+    }
+}
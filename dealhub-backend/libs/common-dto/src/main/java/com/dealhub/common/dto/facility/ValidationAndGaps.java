@@ -0,0 +1,17 @@
+package com.dealhub.common.dto.facility;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * @param missingItems free-form (strings or objects, as the model wrote them)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ValidationAndGaps(
+        List<Object> missingItems,
+        List<Integer> nonSearchablePages,
+        List<String> notes
+) {}
@@ -0,0 +1,188 @@
+package com.dealhub.common.pdf;
+
+import org.apache.pdfbox.contentstream.PDFStreamEngine;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
+import org.apache.pdfbox.contentstream.operator.state.Concatenate;
+import org.apache.pdfbox.contentstream.operator.state.Restore;
+import org.apache.pdfbox.contentstream.operator.state.Save;
+import org.apache.pdfbox.contentstream.operator.text.BeginText;
+import org.apache.pdfbox.contentstream.operator.text.EndText;
+import org.apache.pdfbox.contentstream.operator.text.SetFontAndSize;
+import org.apache.pdfbox.contentstream.operator.text.ShowText;
+import org.apache.pdfbox.contentstream.operator.text.ShowTextAdjusted;
+import org.apache.pdfbox.contentstream.operator.text.ShowTextLine;
+import org.apache.pdfbox.contentstream.operator.text.ShowTextLineAndSpace;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.apache.pdfbox.util.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classifies PDF pages before any text is stripped, from the content streams alone: glyphs shown versus
+ * the share of the page covered by images.
+ *
+ * A page with text glyphs is TEXT (an OCR'd scan has an invisible text layer and counts as TEXT); a page
+ * mostly covered by images without glyphs is SCANNED and cannot yield text without OCR; anything else is
+ * EMPTY. This costs a fraction of PDFTextStripper, which also sorts and assembles every glyph.
+ * Document-service (text layer at upload) and extraction-service (parse) classify with the same thresholds,
+ * so a document gets the same page texts either way; see {@link PdfPageText}.
+ */
+public class PdfPageScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfPageScanner.class);
+
+    public enum PageKind { TEXT, SCANNED, EMPTY }
+
+    public record Scan(List<PageKind> pages) {
+
+        public int pageCount() {
+            return pages.size();
+        }
+
+        public boolean hasText(int page) {
+            return pages.get(page - 1) == PageKind.TEXT;
+        }
+
+        /** 1-based numbers of the SCANNED pages. */
+        public List<Integer> nonSearchablePages() {
+            List<Integer> out = new ArrayList<>();
+            for (int i = 0; i < pages.size(); i++) {
+                if (pages.get(i) == PageKind.SCANNED) out.add(i + 1);
+            }
+            return out;
+        }
+
+        public boolean hasAnyText() {
+            return pages.contains(PageKind.TEXT);
+        }
+    }
+
+    private final int minGlyphs;
+    private final double minImageCoverage;
+
+    public static final int DEFAULT_MIN_GLYPHS = 20;
+    public static final double DEFAULT_MIN_IMAGE_COVERAGE = 0.5;
+
+    public PdfPageScanner(int minGlyphs, double minImageCoverage) {
+        this.minGlyphs = minGlyphs;
+        this.minImageCoverage = minImageCoverage;
+    }
+
+    public Scan scan(PDDocument doc) {
+        PageStats stats = new PageStats();
+        List<PageKind> kinds = new ArrayList<>(doc.getNumberOfPages());
+
+        for (PDPage page : doc.getPages()) {
+            stats.reset();
+            try {
+                stats.processPage(page);
+            } catch (IOException | RuntimeException e) {
+                // a content stream the scanner cannot follow is left to the text stripper
+                log.debug("Page scan failed; treating page {} as text", kinds.size() + 1, e);
+                kinds.add(PageKind.TEXT);
+                continue;
+            }
+            kinds.add(classify(stats, page));
+        }
+        return new Scan(List.copyOf(kinds));
+    }
+
+    private PageKind classify(PageStats stats, PDPage page) {
+        if (stats.glyphs >= minGlyphs) return PageKind.TEXT;
+
+        PDRectangle box = page.getCropBox();
+        double pageArea = box == null ? 0 : (double) box.getWidth() * box.getHeight();
+        double coverage = pageArea <= 0 ? 0 : stats.imageArea / pageArea;
+        if (coverage >= minImageCoverage) return PageKind.SCANNED;
+
+        // a few glyphs (a page number, a stamp) on an otherwise blank page
+        return stats.glyphs > 0 ? PageKind.TEXT : PageKind.EMPTY;
+    }
+
+    // counts glyphs and image area of one page; only the operators that affect either are registered
+    private static final class PageStats extends PDFStreamEngine {
+
+        int glyphs;
+        double imageArea;
+
+        PageStats() {
+            addOperator(new BeginText());
+            addOperator(new EndText());
+            addOperator(new SetFontAndSize());
+            addOperator(new ShowText());
+            addOperator(new ShowTextAdjusted());
+            addOperator(new ShowTextLine());
+            addOperator(new ShowTextLineAndSpace());
+            addOperator(new Save());
+            addOperator(new Restore());
+            addOperator(new Concatenate());
+            addOperator(new DrawXObject());
+            addOperator(new InlineImage());
+        }
+
+        void reset() {
+            glyphs = 0;
+            imageArea = 0;
+        }
+
+        @Override
+        protected void showGlyph(Matrix textRenderingMatrix, PDFont font, int code, Vector displacement) {
+            glyphs++;
+        }
+
+        // images are drawn into the unit square, so the CTM's scale is their size on the page
+        void addImage() {
+            Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
+            imageArea += Math.abs((double) ctm.getScalingFactorX() * ctm.getScalingFactorY());
+        }
+
+        private final class DrawXObject extends OperatorProcessor {
+            @Override
+            public void process(Operator operator, List<COSBase> operands) throws IOException {
+                if (operands.isEmpty() || !(operands.get(0) instanceof COSName name)) return;
+                PDResources resources = getResources();
+                if (resources == null) return;
+
+                if (resources.isImageXObject(name)) {
+                    addImage();
+                    return;
+                }
+                PDXObject xobject = resources.getXObject(name);
+                if (xobject instanceof PDFormXObject form) {
+                    showForm(form);
+                }
+            }
+
+            @Override
+            public String getName() {
+                return "Do";
+            }
+        }
+
+        private final class InlineImage extends OperatorProcessor {
+            @Override
+            public void process(Operator operator, List<COSBase> operands) {
+                addImage();
+            }
+
+            @Override
+            public String getName() {
+                return "BI";
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dealhub.common.pdf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page texts of a classified PDF: one entry per page (index 0 = page 1), text stripped in position order
+ * from TEXT pages only. SCANNED and EMPTY pages are "", so stray glyphs on a scan never reach a prompt and
+ * evidence offsets do not depend on where the text was extracted.
+ */
+public final class PdfPageText {
+
+    private PdfPageText() {
+    }
+
+    public static List<String> strip(PDDocument doc, PdfPageScanner.Scan scan) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSortByPosition(true);
+
+        int pageCount = doc.getNumberOfPages();
+        List<String> pages = new ArrayList<>(pageCount);
+        for (int p = 1; p <= pageCount; p++) {
+            if (!scan.hasText(p)) {
+                pages.add("");
+                continue;
+            }
+            stripper.setStartPage(p);
+            stripper.setEndPage(p);
+            String text = stripper.getText(doc);
+            pages.add(text == null ? "" : text.trim());
+        }
+        return pages;
+    }
+}
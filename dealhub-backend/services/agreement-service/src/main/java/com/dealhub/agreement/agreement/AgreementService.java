@@ -1,5 +1,7 @@
 package com.dealhub.agreement.agreement;
 
+import com.dealhub.agreement.api.dto.BulkDraftRequest;
+import com.dealhub.agreement.api.dto.BulkDraftResult;
 import com.dealhub.agreement.lenderdist.LenderDistributionService;
 import com.dealhub.agreement.version.AgreementStatus;
 import com.dealhub.agreement.version.AgreementVersion;
@@ -16,15 +18,21 @@ import org.springframework.web.client.RestClient;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class AgreementService {
 
     private static final Logger log = LoggerFactory.getLogger(AgreementService.class);
 
+    private static final List<AgreementStatus> BASE_STATUSES = List.of(AgreementStatus.VALIDATED, AgreementStatus.PUBLISHED);
+
     private final AgreementRepository agreementRepo;
     private final AgreementVersionRepository versionRepo;
     private final AgreementParticipantRepository participantRepo;
@@ -83,6 +91,86 @@ public class AgreementService {
         return versionRepo.save(v);
     }
 
+    /**
+     * Creates one draft per item in a single transaction. Items are independent: an unknown agreement or a
+     * missing body only fails that item, and a sourceKey seen before returns the draft it created.
+     */
+    @Transactional
+    public List<BulkDraftResult> createDrafts(List<BulkDraftRequest.Item> items) {
+        Map<String, AgreementVersion> existing = new HashMap<>();
+        List<String> keys = items.stream().map(BulkDraftRequest.Item::sourceKey).filter(Objects::nonNull).toList();
+        if (!keys.isEmpty()) {
+            versionRepo.findBySourceKeyIn(keys).forEach(v -> existing.put(v.getSourceKey(), v));
+        }
+
+        Set<Long> agreementIds = new HashSet<>();
+        agreementRepo.findAllById(items.stream().map(BulkDraftRequest.Item::agreementId).filter(Objects::nonNull).distinct().toList())
+                .forEach(a -> agreementIds.add(a.getId()));
+
+        Instant now = Instant.now();
+        List<AgreementVersion> created = new ArrayList<>();
+        AgreementVersion[] versions = new AgreementVersion[items.size()];
+        String[] outcomes = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            BulkDraftRequest.Item item = items.get(i);
+            AgreementVersion seen = item.sourceKey() == null ? null : existing.get(item.sourceKey());
+            if (seen != null) {
+                versions[i] = seen;
+                outcomes[i] = BulkDraftResult.EXISTING;
+            } else if (item.extractedJson() == null || item.extractedJson().isNull()) {
+                outcomes[i] = BulkDraftResult.INVALID;
+            } else if (!agreementIds.contains(item.agreementId())) {
+                outcomes[i] = BulkDraftResult.NOT_FOUND;
+            } else {
+                AgreementVersion v = new AgreementVersion(item.agreementId(), item.extractedJson());
+                v.setStatus(AgreementStatus.DRAFT);
+                v.setSourceKey(item.sourceKey());
+                v.setCreatedAt(now);
+                created.add(v);
+                versions[i] = v;
+                outcomes[i] = BulkDraftResult.CREATED;
+                // a key repeated within the request resolves to this draft
+                if (item.sourceKey() != null) existing.put(item.sourceKey(), v);
+            }
+        }
+        versionRepo.saveAll(created);
+
+        List<BulkDraftResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            String outcome = outcomes[i];
+            String error = switch (outcome) {
+                case BulkDraftResult.INVALID -> "extracted JSON is required";
+                case BulkDraftResult.NOT_FOUND -> "Agreement not found";
+                default -> null;
+            };
+            results.add(new BulkDraftResult(items.get(i).sourceKey(), outcome,
+                    versions[i] == null ? null : versions[i].getId(), error));
+        }
+        log.info("Bulk drafts: {} item(s), {} created", items.size(), created.size());
+        return results;
+    }
+
+    /**
+     * Version an amendment of the agreement is extracted against: the given one, or the most recent
+     * VALIDATED or PUBLISHED one. Drafts never serve as a base.
+     */
+    @Transactional(readOnly = true)
+    public AgreementVersion getBaseVersion(Long agreementId, Long versionId) {
+        AgreementVersion v = versionId == null
+                ? versionRepo.findFirstByAgreementIdAndStatusInOrderByCreatedAtDescIdDesc(agreementId, BASE_STATUSES)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                "Agreement " + agreementId + " has no VALIDATED or PUBLISHED version"))
+                : versionRepo.findById(versionId)
+                        .filter(found -> found.getAgreementId().equals(agreementId))
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Version not found"));
+
+        if (!BASE_STATUSES.contains(v.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Version " + v.getId() + " is " + v.getStatus() + "; only VALIDATED or PUBLISHED versions can be amended");
+        }
+        return v;
+    }
+
     @Transactional(readOnly = true)
     public AgreementVersion getVersionById(Long versionId) {
         return versionRepo.findById(versionId)
@@ -0,0 +1,74 @@
+package com.dealhub.agreement.api;
+
+import com.dealhub.agreement.agreement.AgreementService;
+import com.dealhub.agreement.api.dto.BulkDraftRequest;
+import com.dealhub.agreement.api.dto.BaseVersionResponse;
+import com.dealhub.agreement.api.dto.BulkDraftResult;
+import com.dealhub.agreement.version.AgreementVersion;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Service-to-service agreement endpoints. Reached directly, not through the gateway (which routes
+ * /internal/** to IAM), and guarded by the internal key instead of a user token.
+ */
+@RestController
+@RequestMapping("/internal/agreements")
+public class InternalAgreementController {
+
+    private static final int MAX_BULK_DRAFTS = 200;
+
+    private final AgreementService agreementService;
+    private final String internalKey;
+
+    public InternalAgreementController(
+            AgreementService agreementService,
+            @Value("${app.internal.key:dealhub-internal}") String internalKey
+    ) {
+        this.agreementService = agreementService;
+        this.internalKey = internalKey;
+    }
+
+    @Operation(
+            summary = "Create draft versions in bulk",
+            description = "Internal. One result per item, in request order; items are idempotent by sourceKey."
+    )
+    @PostMapping("/versions/drafts")
+    public List<BulkDraftResult> createDrafts(
+            @RequestHeader(value = "X-INTERNAL-KEY", required = false) String key,
+            @RequestBody BulkDraftRequest req
+    ) {
+        if (key == null || !key.equals(internalKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing/invalid X-INTERNAL-KEY");
+        }
+        if (req == null || req.drafts() == null || req.drafts().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "drafts is required");
+        }
+        if (req.drafts().size() > MAX_BULK_DRAFTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BULK_DRAFTS + " drafts per request");
+        }
+        return agreementService.createDrafts(req.drafts());
+    }
+
+    @Operation(
+            summary = "Base version for an amendment",
+            description = "Internal. The given version, or the latest VALIDATED or PUBLISHED one of the agreement."
+    )
+    @GetMapping("/{agreementId}/versions/base")
+    public BaseVersionResponse baseVersion(
+            @RequestHeader(value = "X-INTERNAL-KEY", required = false) String key,
+            @PathVariable Long agreementId,
+            @RequestParam(required = false) Long versionId
+    ) {
+        if (key == null || !key.equals(internalKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing/invalid X-INTERNAL-KEY");
+        }
+        AgreementVersion v = agreementService.getBaseVersion(agreementId, versionId);
+        return new BaseVersionResponse(v.getId(), v.getAgreementId(), v.getStatus(), v.getExtractedJson());
+    }
+}
@@ -0,0 +1,13 @@
+package com.dealhub.agreement.api.dto;
+
+import com.dealhub.agreement.version.AgreementStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "BaseVersionResponse", description = "VALIDATED or PUBLISHED version an amendment is extracted against.")
+public record BaseVersionResponse(
+        Long versionId,
+        Long agreementId,
+        AgreementStatus status,
+        JsonNode extractedJson
+) {}
@@ -0,0 +1,18 @@
+package com.dealhub.agreement.api.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "BulkDraftRequest", description = "Draft versions created by extraction-service, one per completed job.")
+public record BulkDraftRequest(
+        List<Item> drafts
+) {
+    public record Item(
+            @Schema(description = "Caller's idempotency key (extraction job key); a repeated key returns the existing draft")
+            String sourceKey,
+            Long agreementId,
+            JsonNode extractedJson
+    ) {}
+}
@@ -0,0 +1,17 @@
+package com.dealhub.agreement.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "BulkDraftResult", description = "Outcome of one item of a bulk draft request.")
+public record BulkDraftResult(
+        String sourceKey,
+        @Schema(description = "CREATED, EXISTING (sourceKey seen before), NOT_FOUND or INVALID")
+        String status,
+        Long versionId,
+        String error
+) {
+    public static final String CREATED = "CREATED";
+    public static final String EXISTING = "EXISTING";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+}
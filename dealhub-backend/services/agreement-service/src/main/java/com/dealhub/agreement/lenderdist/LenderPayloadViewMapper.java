@@ -1,22 +1,37 @@
 package com.dealhub.agreement.lenderdist;
 
+import com.dealhub.common.dto.facility.Evidenced;
+import com.dealhub.common.dto.facility.Facility;
+import com.dealhub.common.dto.facility.FacilityAgreement;
+import com.dealhub.common.dto.facility.FacilityAgreementReader;
+import com.dealhub.common.dto.facility.Lender;
+import com.dealhub.common.dto.facility.MarginRow;
+import com.dealhub.common.dto.facility.Parties;
+import com.dealhub.common.dto.facility.Party;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Locale;
 
 @Component
 public class LenderPayloadViewMapper {
 
+    private static final Logger log = LoggerFactory.getLogger(LenderPayloadViewMapper.class);
+
     private final ObjectMapper mapper;
+    private final FacilityAgreementReader agreementReader;
 
     public LenderPayloadViewMapper(ObjectMapper mapper) {
         this.mapper = mapper;
+        this.agreementReader = new FacilityAgreementReader(mapper);
     }
 
     /**
@@ -29,13 +44,15 @@ public class LenderPayloadViewMapper {
         // dealName
         out.put("dealName", StringUtils.hasText(inboxDealName) ? inboxDealName : "Facility Agreement");
 
-        JsonNode parties = fullPayload.path("parties");
-        String borrowerName = textOrNull(parties, "borrowerName");
-        String agentName = textOrNull(parties, "administrativeAgentName");
+        FacilityAgreement agreement = bind(fullPayload);
+        Parties parties = agreement.parties();
+        List<Lender> lenders = parties != null && parties.lenders() != null ? parties.lenders() : List.of();
+        String borrowerName = parties != null ? nameOf(parties.borrower()) : null;
+        String agentName = parties != null ? nameOf(parties.administrativeAgent()) : null;
 
         // lender entry matched from parties.lenders[]
-        JsonNode lenderEntry = findLenderEntry(parties.path("lenders"), lenderEmail);
-        String lenderName = lenderEntry != null ? textOrNull(lenderEntry, "name") : null;
+        Lender lenderEntry = findLenderEntry(lenders, lenderEmail);
+        String lenderName = lenderEntry != null ? text(lenderEntry.legalName()) : null;
         if (!StringUtils.hasText(lenderName)) lenderName = deriveDisplayNameFromEmail(lenderEmail);
         out.put("lender", lenderName);
 
@@ -58,8 +75,8 @@ public class LenderPayloadViewMapper {
         String sharePct = null;
 
         if (lenderEntry != null) {
-            commitmentAmount = lenderEntry.path("shareAmount").path("value").asText(null);
-            sharePct = normalizeSharePercentage(lenderEntry.path("sharePercentage").path("value").asText(null));
+            commitmentAmount = text(lenderEntry.commitmentAmount());
+            sharePct = normalizeSharePercentage(text(lenderEntry.commitmentPercentage()));
         }
 
         participation.put("commitmentAmount", commitmentAmount);
@@ -69,11 +86,12 @@ public class LenderPayloadViewMapper {
 
         // facility
         ObjectNode facility = mapper.createObjectNode();
-        String totalSize = extractTotalSize(fullPayload, parties);
+        String totalSize = extractTotalSize(agreement.firstFacility(), lenders);
         facility.put("totalSize", totalSize);
         facility.put("currency", normalizeCurrency(inferCurrencyFromAmount(totalSize)));
 
-        String facilityType = textOrNullFromFacilities(fullPayload, "facilityType");
+        Facility first = agreement.firstFacility();
+        String facilityType = first != null ? text(first.facilityType()) : null;
         facility.put("type", normalizeFacilityType(facilityType));
         out.set("facility", facility);
 
@@ -81,9 +99,7 @@ public class LenderPayloadViewMapper {
 
         // dates
         ObjectNode dates = mapper.createObjectNode();
-        JsonNode keyDates = fullPayload.path("keyDates");
-
-        String signingDate = keyDates.path("agreementDate").path("value").asText(null);
+        String signingDate = agreement.keyDates() != null ? text(agreement.keyDates().agreementDate()) : null;
         dates.put("signingDate", normalizeDateOrNull(signingDate));
 
         dates.set("closingDate", NullNode.instance);
@@ -97,18 +113,12 @@ public class LenderPayloadViewMapper {
         ObjectNode pricing = mapper.createObjectNode();
         ArrayNode marginGrid = mapper.createArrayNode();
 
-        JsonNode marginArray = fullPayload.path("pricing").path("margin");
-        if (marginArray.isArray()) {
-            for (JsonNode m : marginArray) {
-                String period = m.path("period").asText(null);
-
-                // your extraction sometimes has sterlingMargin under nested objects; keep fallback
-                String margin =
-                        m.path("sterlingMargin").asText(null);
-
-                if (!StringUtils.hasText(margin)) {
-                    margin = m.path("margin").asText(null);
-                }
+        List<MarginRow> marginRows = agreement.pricing() != null ? agreement.pricing().margin() : null;
+        if (marginRows != null) {
+            for (MarginRow m : marginRows) {
+                // "margin" is bound into sterlingMargin as well
+                String period = m.period();
+                String margin = m.sterlingMargin();
 
                 if (StringUtils.hasText(period) || StringUtils.hasText(margin)) {
                     ObjectNode row = mapper.createObjectNode();
@@ -137,19 +147,32 @@ public class LenderPayloadViewMapper {
 
     // ---------------- HELPERS ----------------
 
-    private JsonNode findLenderEntry(JsonNode lendersArray, String lenderEmail) {
-        if (lendersArray == null || !lendersArray.isArray() || !StringUtils.hasText(lenderEmail)) return null;
+    // lenient like the JsonNode paths it replaced: a malformed field reads as missing, and the view still renders
+    private FacilityAgreement bind(JsonNode fullPayload) {
+        if (fullPayload == null || !fullPayload.isObject()) {
+            return FacilityAgreement.empty(null, null, null);
+        }
+        try {
+            return agreementReader.read(fullPayload);
+        } catch (Exception e) {
+            log.warn("Extracted payload could not be bound; rendering the lender view without it: {}", e.getMessage());
+            return FacilityAgreement.empty(null, null, null);
+        }
+    }
+
+    private Lender findLenderEntry(List<Lender> lenders, String lenderEmail) {
+        if (lenders.isEmpty() || !StringUtils.hasText(lenderEmail)) return null;
 
         String local = lenderEmail.split("@")[0].toLowerCase(Locale.ROOT);
         String localNorm = normalize(local);
 
-        for (JsonNode l : lendersArray) {
-            String nameNorm = normalize(l.path("name").asText(""));
+        for (Lender l : lenders) {
+            String nameNorm = normalize(Evidenced.valueOrNull(l.legalName()));
             if (allTokensPresent(localNorm, nameNorm)) return l;
         }
 
-        for (JsonNode l : lendersArray) {
-            String nameNorm = normalize(l.path("name").asText(""));
+        for (Lender l : lenders) {
+            String nameNorm = normalize(Evidenced.valueOrNull(l.legalName()));
             if (nameNorm.contains(localNorm.replace(" ", ""))) return l;
         }
 
@@ -189,37 +212,20 @@ public class LenderPayloadViewMapper {
         return sb.toString().trim();
     }
 
-    private String textOrNull(JsonNode node, String field) {
-        if (node == null) return null;
-        JsonNode v = node.get(field);
-        if (v == null || v.isNull()) return null;
-        String s = v.asText(null);
-        return StringUtils.hasText(s) ? s : null;
+    private String nameOf(Party party) {
+        return party != null ? text(party.legalName()) : null;
     }
 
-    private String extractTotalSize(JsonNode full, JsonNode parties) {
-        JsonNode facilities = full.path("facilities");
-        if (facilities.isArray() && facilities.size() > 0) {
-            String v = facilities.get(0).path("amount").path("value").asText(null);
-            if (StringUtils.hasText(v)) return v;
-        }
-
-        JsonNode lenders = parties.path("lenders");
-        if (lenders.isArray() && lenders.size() > 0) {
-            String v = lenders.get(0).path("shareAmount").path("value").asText(null);
-            if (StringUtils.hasText(v)) return v;
-        }
-
-        return null;
+    private String text(Evidenced<String> leaf) {
+        String s = Evidenced.valueOrNull(leaf);
+        return StringUtils.hasText(s) ? s : null;
     }
 
-    private String textOrNullFromFacilities(JsonNode full, String field) {
-        JsonNode facilities = full.path("facilities");
-        if (facilities.isArray() && facilities.size() > 0) {
-            String v = facilities.get(0).path(field).asText(null);
-            return StringUtils.hasText(v) ? v : null;
-        }
-        return null;
+    private String extractTotalSize(Facility first, List<Lender> lenders) {
+        String v = first != null ? text(first.amount()) : null;
+        if (v != null) return v;
+
+        return lenders.isEmpty() ? null : text(lenders.get(0).commitmentAmount());
     }
 
     private String inferCurrencyFromAmount(String amount) {
@@ -27,6 +27,8 @@ public class SecurityConfig {
                                 "/swagger-ui.html"
                         ).permitAll()
                         .requestMatchers("/auth/login").permitAll()
+                        // service-to-service; InternalAgreementController checks X-INTERNAL-KEY
+                        .requestMatchers("/internal/**").permitAll()
                         .anyRequest().authenticated()
                 )
 
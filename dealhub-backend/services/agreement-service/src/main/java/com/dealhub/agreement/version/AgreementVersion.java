@@ -34,6 +34,10 @@ public class AgreementVersion {
     @Column(name = "extracted_json", columnDefinition = "json", nullable = false)
     private JsonNode extractedJson;
 
+    // extraction job that produced the draft (bulk draft creation); makes retried creations idempotent
+    @Column(name = "source_key", length = 64, unique = true)
+    private String sourceKey;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
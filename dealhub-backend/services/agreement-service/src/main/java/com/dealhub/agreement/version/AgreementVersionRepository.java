@@ -4,10 +4,17 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AgreementVersionRepository extends JpaRepository<AgreementVersion, Long> {
 
+    List<AgreementVersion> findBySourceKeyIn(Collection<String> sourceKeys);
+
+    Optional<AgreementVersion> findFirstByAgreementIdAndStatusInOrderByCreatedAtDescIdDesc(
+            Long agreementId, Collection<AgreementStatus> statuses);
+
     // You already have this:
     @Query("""
         select v
@@ -0,0 +1,82 @@
+package com.dealhub.agreement.lenderdist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LenderPayloadViewMapperTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LenderPayloadViewMapper viewMapper = new LenderPayloadViewMapper(mapper);
+
+    @Test
+    void rendersTheLenderView() throws Exception {
+        ObjectNode view = viewMapper.buildLenderView(payload("""
+                {"value": "Acme Holdings plc", "citation": "p.1", "evidence": "Acme Holdings plc"}
+                """), "alpha.bank@lenders.example", "Project Acme");
+
+        assertEquals("Project Acme", view.path("dealName").asText());
+        assertEquals("Alpha Bank Limited", view.path("lender").asText());
+        assertEquals("Acme Holdings plc", view.path("borrower").path("legalName").asText());
+        assertEquals("Agent Bank", view.path("roles").path("agent").asText());
+        assertEquals("£50,000,000", view.path("participation").path("commitmentAmount").asText());
+        assertEquals("50.00%", view.path("participation").path("sharePercentage").asText());
+        assertEquals("Term Loan", view.path("facility").path("type").asText());
+        assertEquals("1 March 2024", view.path("dates").path("signingDate").asText());
+        assertEquals(1, view.path("pricing").path("marginGrid").size());
+    }
+
+    @Test
+    void malformedLeafOnlyDropsThatField() throws Exception {
+        // a model answer with an object where the borrower's name value belongs
+        ObjectNode view = viewMapper.buildLenderView(payload("""
+                {"value": {"name": "Acme Holdings plc"}, "citation": "p.1"}
+                """), "alpha.bank@lenders.example", "Project Acme");
+
+        assertTrue(view.path("borrower").path("legalName").isNull());
+        assertEquals("Alpha Bank Limited", view.path("lender").asText());
+        assertEquals("Agent Bank", view.path("roles").path("agent").asText());
+        assertEquals("£50,000,000", view.path("participation").path("commitmentAmount").asText());
+        assertEquals("1 March 2024", view.path("dates").path("signingDate").asText());
+    }
+
+    @Test
+    void malformedSectionsOnlyDropThoseSections() throws Exception {
+        ObjectNode payload = (ObjectNode) payload("""
+                {"value": "Acme Holdings plc"}
+                """);
+        payload.put("keyDates", "1 March 2024");
+        ((ObjectNode) payload.path("pricing")).putArray("baseRateOrRfr").add("SONIA");
+
+        ObjectNode view = viewMapper.buildLenderView(payload, "alpha.bank@lenders.example", null);
+
+        assertTrue(view.path("dates").path("signingDate").isNull());
+        assertEquals("Acme Holdings plc", view.path("borrower").path("legalName").asText());
+        assertEquals(1, view.path("pricing").path("marginGrid").size());
+        assertEquals("Facility Agreement", view.path("dealName").asText());
+    }
+
+    private JsonNode payload(String borrowerLegalName) throws Exception {
+        return mapper.readTree("""
+                {
+                  "profile": "FACILITY_AGREEMENT",
+                  "parties": {
+                    "borrower": {"legalName": BORROWER},
+                    "administrativeAgent": {"legalName": {"value": "Agent Bank"}},
+                    "lenders": [
+                      {"legalName": {"value": "Alpha Bank Limited"},
+                       "commitmentAmount": {"value": "£50,000,000"},
+                       "commitmentPercentage": {"value": "50"}}
+                    ]
+                  },
+                  "keyDates": {"agreementDate": {"value": "1 March 2024"}},
+                  "facilities": [{"facilityType": {"value": "Term Loan"}, "amount": {"value": "£100,000,000"}}],
+                  "pricing": {"margin": [{"period": "Years 1-3", "sterlingMargin": "2.50%"}]}
+                }
+                """.replace("BORROWER", borrowerLegalName.strip()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.dealhub.document.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // PDF parsing after upload, off the request thread. A full queue rejects the parse, never the upload:
+    // extraction then parses the PDF itself.
+    @Bean(name = "textLayerExecutor")
+    public ThreadPoolTaskExecutor textLayerExecutor(
+            @Value("${app.text-layer.threads:2}") int threads,
+            @Value("${app.text-layer.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
+        exec.setCorePoolSize(threads);
+        exec.setMaxPoolSize(threads);
+        exec.setQueueCapacity(queueCapacity);
+        exec.setThreadNamePrefix("text-layer-");
+        exec.setWaitForTasksToCompleteOnShutdown(false);
+        exec.initialize();
+        return exec;
+    }
+}
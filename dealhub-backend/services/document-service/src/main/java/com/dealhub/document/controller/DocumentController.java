@@ -1,5 +1,6 @@
 package com.dealhub.document.controller;
 
+import com.dealhub.document.dto.DocumentResponse;
 import com.dealhub.document.dto.UploadDocumentResponse;
 import com.dealhub.document.model.DocumentEntity;
 import com.dealhub.document.repository.DocumentRepository;
@@ -43,6 +44,24 @@ public class DocumentController {
         return documentService.upload(file, agreementId, documentType, authorization);
     }
 
+    /**
+     * Metadata only (no content): size and sha256 let callers size work and recognise identical files.
+     */
+    @GetMapping("/{documentId}")
+    public DocumentResponse get(@PathVariable Long documentId) {
+        return documentService.get(documentId);
+    }
+
+    /**
+     * Text layer parsed at upload (see TextLayer); 404 until the background parse has finished.
+     */
+    @GetMapping(value = "/{documentId}/text-layer", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Resource> textLayer(@PathVariable Long documentId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FileSystemResource(documentService.textLayer(documentId)));
+    }
+
     @GetMapping("/{documentId}/download")
     public ResponseEntity<Resource> download(@PathVariable Long documentId) {
 
@@ -0,0 +1,134 @@
+package com.dealhub.document.controller;
+
+import com.dealhub.document.dto.DownloadGrantResponse;
+import com.dealhub.document.model.DocumentEntity;
+import com.dealhub.document.repository.DocumentRepository;
+import com.dealhub.document.service.DocumentService;
+import com.dealhub.document.service.DownloadGrantService;
+import com.dealhub.document.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Service-to-service document access. Callers go to document-service directly (the gateway does not route
+ * /internal/documents), trade the internal key for a per-document download grant, then fetch the bytes
+ * with the grant.
+ */
+@RestController
+@RequestMapping("/internal/documents")
+public class InternalDocumentController {
+
+    public static final String GRANT_HEADER = "X-DOWNLOAD-GRANT";
+
+    // Tomcat request attributes that hand the file to the connector (sendfile) instead of the servlet
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final DocumentRepository documentRepository;
+    private final FileStorageService storage;
+    private final DownloadGrantService grants;
+    private final DocumentService documentService;
+    private final String internalKey;
+
+    public InternalDocumentController(DocumentRepository documentRepository,
+                                      FileStorageService storage,
+                                      DownloadGrantService grants,
+                                      DocumentService documentService,
+                                      @Value("${app.internal.key}") String internalKey) {
+        this.documentRepository = documentRepository;
+        this.storage = storage;
+        this.grants = grants;
+        this.documentService = documentService;
+        this.internalKey = internalKey;
+    }
+
+    @PostMapping("/{documentId}/download-grant")
+    public DownloadGrantResponse grant(@PathVariable Long documentId, HttpServletRequest request) {
+        String key = request.getHeader("X-INTERNAL-KEY");
+        if (key == null || !key.equals(internalKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing/invalid X-INTERNAL-KEY");
+        }
+
+        DocumentEntity doc = find(documentId);
+        DownloadGrantService.Grant grant = grants.issue(documentId);
+        return new DownloadGrantResponse(
+                documentId,
+                grant.token(),
+                "/internal/documents/" + documentId + "/content",
+                grant.expiresAt(),
+                doc.getSizeBytes(),
+                doc.getSha256()
+        );
+    }
+
+    /**
+     * Streams the stored file. On Tomcat with sendfile support the file is written by the connector straight
+     * from the page cache to the socket; elsewhere it is copied through the response stream.
+     */
+    @GetMapping("/{documentId}/content")
+    public void content(@PathVariable Long documentId,
+                        @RequestHeader(name = GRANT_HEADER, required = false) String grant,
+                        HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        requireGrant(grant, documentId);
+
+        DocumentEntity doc = find(documentId);
+        if (!StringUtils.hasText(doc.getStoredFilename())) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "storedFilename is missing");
+        }
+        Path filePath = storage.resolve(doc.getStoredFilename());
+        if (!Files.exists(filePath)) {
+            throw new ResponseStatusException(HttpStatus.GONE, "File is missing on disk");
+        }
+
+        long size = Files.size(filePath);
+        response.setContentType(StringUtils.hasText(doc.getContentType())
+                ? doc.getContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, filePath.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        Files.copy(filePath, response.getOutputStream());
+    }
+
+    /** The text layer parsed at upload, under the same grant as the content; 404 while there is none. */
+    @GetMapping(value = "/{documentId}/text-layer", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Resource> textLayer(@PathVariable Long documentId,
+                                              @RequestHeader(name = GRANT_HEADER, required = false) String grant) {
+        requireGrant(grant, documentId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FileSystemResource(documentService.textLayer(documentId)));
+    }
+
+    private void requireGrant(String grant, Long documentId) {
+        if (!grants.verify(grant, documentId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing/invalid/expired download grant");
+        }
+    }
+
+    private DocumentEntity find(Long documentId) {
+        return documentRepository.findById(documentId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
+    }
+}
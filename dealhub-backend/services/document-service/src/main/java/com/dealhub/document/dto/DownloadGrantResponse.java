@@ -0,0 +1,16 @@
+package com.dealhub.document.dto;
+
+import java.time.Instant;
+
+/**
+ * A signed grant to fetch one document's bytes from {@code contentPath} until {@code expiresAt}.
+ * The grant goes in the X-DOWNLOAD-GRANT header.
+ */
+public record DownloadGrantResponse(
+        Long documentId,
+        String grant,
+        String contentPath,
+        Instant expiresAt,
+        Long sizeBytes,
+        String sha256
+) {}
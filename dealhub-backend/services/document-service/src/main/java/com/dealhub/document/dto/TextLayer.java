@@ -0,0 +1,25 @@
+package com.dealhub.document.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Text of a PDF as parsed at upload time.
+ *
+ * {@code text} is every page's text joined with a blank line; page n (1-based) starts at
+ * {@code pageOffsets[n - 1]}. Pages are classified by {@link com.dealhub.common.pdf.PdfPageScanner}, as in
+ * extraction-service: scanned and blank pages are "", and {@code nonSearchablePages} lists the scanned ones,
+ * which need OCR rather than text extraction. Bump FORMAT whenever the page texts would change.
+ */
+public record TextLayer(
+        String format,
+        String sha256,
+        int pageCount,
+        String text,
+        List<Integer> pageOffsets,
+        List<Integer> nonSearchablePages,
+        Instant createdAt
+) {
+    public static final String FORMAT = "tl-2";
+    public static final String PAGE_SEPARATOR = "\n\n";
+}
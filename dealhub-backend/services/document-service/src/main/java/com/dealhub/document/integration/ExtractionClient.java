@@ -27,12 +27,22 @@ public class ExtractionClient {
      * Starts an extraction job.
      */
     public Mono<ExtractionTriggerResponse> start(StartExtractionRequest req, String authorizationHeader) {
+        return start(req, authorizationHeader, null);
+    }
+
+    /**
+     * Starts an extraction job; retries carrying the same idempotency key get the original job back.
+     */
+    public Mono<ExtractionTriggerResponse> start(StartExtractionRequest req, String authorizationHeader, String idempotencyKey) {
         String auth = AuthHeaderUtil.normalizeBearer(authorizationHeader);
 
         return webClient.post()
                 .uri("/extractions/start")
                 .contentType(MediaType.APPLICATION_JSON)
                 .header(HttpHeaders.AUTHORIZATION, auth)
+                .headers(h -> {
+                    if (idempotencyKey != null && !idempotencyKey.isBlank()) h.set("Idempotency-Key", idempotencyKey);
+                })
                 .bodyValue(req)
                 .retrieve()
                 .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(),
@@ -1,6 +1,8 @@
 package com.dealhub.document.service;
 
+import com.dealhub.document.dto.DocumentResponse;
 import com.dealhub.document.dto.UploadDocumentResponse;
+import com.dealhub.document.exception.NotFoundException;
 import com.dealhub.document.integration.AgreementGatewayClient;
 import com.dealhub.document.integration.dto.CreateAgreementRequest;
 import com.dealhub.document.integration.dto.CreateAgreementResponse;
@@ -9,19 +11,56 @@ import com.dealhub.document.repository.DocumentRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
+
 @Service
 public class DocumentService {
 
     private final DocumentRepository repository;
     private final FileStorageService storage;
     private final AgreementGatewayClient agreementClient;
+    private final TextLayerService textLayers;
 
     public DocumentService(DocumentRepository repository,
                            FileStorageService storage,
-                           AgreementGatewayClient agreementClient) {
+                           AgreementGatewayClient agreementClient,
+                           TextLayerService textLayers) {
         this.repository = repository;
         this.storage = storage;
         this.agreementClient = agreementClient;
+        this.textLayers = textLayers;
+    }
+
+    public DocumentResponse get(Long documentId) {
+        DocumentEntity doc = repository.findById(documentId)
+                .orElseThrow(() -> new NotFoundException("Document not found: " + documentId));
+
+        return new DocumentResponse(
+                doc.getId(),
+                doc.getAgreementId(),
+                doc.getDocumentType(),
+                doc.getOriginalFilename(),
+                doc.getContentType(),
+                doc.getSizeBytes(),
+                doc.getSha256(),
+                doc.getCreatedAt()
+        );
+    }
+
+    /**
+     * The document's parsed text layer file, or NotFoundException while there is none. A missing layer (one of
+     * an older format, or a parse that never ran) is queued for building so that later requests find it.
+     */
+    public Path textLayer(Long documentId) {
+        DocumentEntity doc = repository.findById(documentId)
+                .orElseThrow(() -> new NotFoundException("Document not found: " + documentId));
+
+        Path layer = textLayers.find(doc.getSha256());
+        if (layer == null) {
+            textLayers.buildAsync(doc);
+            throw new NotFoundException("Text layer not available for document: " + documentId);
+        }
+        return layer;
     }
 
     public UploadDocumentResponse upload(MultipartFile file,
@@ -61,6 +100,7 @@ public class DocumentService {
 
         try {
             DocumentEntity saved = repository.save(doc);
+            textLayers.buildAsync(saved);
             return new UploadDocumentResponse(saved.getId(), agreementId, "Uploaded successfully");
         } catch (RuntimeException ex) {
             // prevent orphan file if DB insert fails
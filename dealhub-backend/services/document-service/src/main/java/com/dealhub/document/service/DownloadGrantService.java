@@ -0,0 +1,88 @@
+package com.dealhub.document.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Issues and checks download grants: "documentId.expiresEpochSecond.signature", signed with HMAC-SHA256.
+ *
+ * A grant names exactly one document and expires after a short ttl, so it can be handed to a service that
+ * has no user token of its own without giving it access to anything else.
+ */
+@Service
+public class DownloadGrantService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public DownloadGrantService(
+            @Value("${app.download-grant.secret}") String secret,
+            @Value("${app.download-grant.ttl:PT5M}") Duration ttl
+    ) {
+        if (!StringUtils.hasText(secret) || secret.length() < 16) {
+            throw new IllegalArgumentException("app.download-grant.secret must be at least 16 characters");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttl = ttl;
+        this.clock = Clock.systemUTC();
+    }
+
+    public record Grant(String token, Instant expiresAt) {}
+
+    public Grant issue(Long documentId) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String payload = documentId + "." + expiresAt.getEpochSecond();
+        return new Grant(payload + "." + sign(payload), expiresAt);
+    }
+
+    /**
+     * @return true when the token was issued by this service for {@code documentId} and has not expired
+     */
+    public boolean verify(String token, Long documentId) {
+        if (!StringUtils.hasText(token) || documentId == null) return false;
+
+        int lastDot = token.lastIndexOf('.');
+        if (lastDot <= 0) return false;
+        String payload = token.substring(0, lastDot);
+        String signature = token.substring(lastDot + 1);
+
+        // constant-time comparison, done before anything in the payload is trusted
+        if (!MessageDigest.isEqual(sign(payload).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+
+        String[] parts = payload.split("\\.");
+        if (parts.length != 2 || !parts[0].equals(String.valueOf(documentId))) return false;
+        try {
+            return clock.instant().getEpochSecond() < Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return ENCODER.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
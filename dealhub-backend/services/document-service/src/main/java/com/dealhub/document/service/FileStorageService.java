@@ -1,5 +1,6 @@
 package com.dealhub.document.service;
 
+import com.dealhub.document.dto.TextLayer;
 import com.dealhub.document.exception.BadRequestException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,8 @@ import java.util.UUID;
 @Service
 public class FileStorageService {
 
+    private static final String TEXT_LAYER_DIR = "text-layers";
+
     private final Path baseDir;
 
     public FileStorageService(@Value("${app.storage.base-dir}") String baseDir) {
@@ -68,6 +71,17 @@ public class FileStorageService {
         return resolved;
     }
 
+    /**
+     * Where the parsed text layer of a blob lives: keyed by content hash, so identical uploads share one, and by
+     * layer format, so a layer built by an older parser is never served as a current one.
+     */
+    public Path textLayerPath(String sha256) {
+        if (sha256 == null || !sha256.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("sha256 must be 64 lowercase hex characters");
+        }
+        return baseDir.resolve(TEXT_LAYER_DIR).resolve(sha256 + "." + TextLayer.FORMAT + ".json");
+    }
+
     public void deleteIfExists(String storedFilename) {
         try {
             Files.deleteIfExists(resolve(storedFilename));
@@ -0,0 +1,134 @@
+package com.dealhub.document.service;
+
+import com.dealhub.common.pdf.PdfPageScanner;
+import com.dealhub.common.pdf.PdfPageText;
+import com.dealhub.document.dto.TextLayer;
+import com.dealhub.document.model.DocumentEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses uploaded PDFs in the background and stores their text layer next to the blobs, keyed by sha256.
+ *
+ * Extraction reads the stored layer instead of downloading and parsing the PDF. Parsing is best effort: a
+ * document without a layer (not parsed yet, parse failed, not a PDF) is simply parsed by extraction. Layers of
+ * an older TextLayer.FORMAT are not served; they are rebuilt when first asked for.
+ */
+@Service
+public class TextLayerService {
+
+    private static final Logger log = LoggerFactory.getLogger(TextLayerService.class);
+
+    // PDFBox buffers beyond this go to a scratch file instead of the heap
+    private static final long MAX_MAIN_MEMORY_BYTES = 32L * 1024 * 1024;
+
+    private final FileStorageService storage;
+    private final ThreadPoolTaskExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final PdfPageScanner pageScanner;
+
+    // the scan thresholds must match extraction-service's dealhub.extraction.scan.*
+    public TextLayerService(FileStorageService storage,
+                            @Qualifier("textLayerExecutor") ThreadPoolTaskExecutor executor,
+                            ObjectMapper objectMapper,
+                            @Value("${app.text-layer.enabled:true}") boolean enabled,
+                            @Value("${app.text-layer.scan.min-glyphs:20}") int minGlyphs,
+                            @Value("${app.text-layer.scan.min-image-coverage:0.5}") double minImageCoverage) {
+        this.storage = storage;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.pageScanner = new PdfPageScanner(minGlyphs, minImageCoverage);
+    }
+
+    /** Queues the parse of a freshly stored document; returns immediately. */
+    public void buildAsync(DocumentEntity doc) {
+        if (!enabled || doc.getSha256() == null || !isPdf(doc)) return;
+
+        Path pdf = storage.resolve(doc.getStoredFilename());
+        Long documentId = doc.getId();
+        String sha256 = doc.getSha256();
+        try {
+            executor.execute(() -> build(documentId, sha256, pdf));
+        } catch (TaskRejectedException ex) {
+            log.warn("Text layer queue full; document {} will be parsed by extraction", documentId);
+        }
+    }
+
+    /** The stored layer file, or null when there is none (yet). */
+    public Path find(String sha256) {
+        if (sha256 == null) return null;
+        Path path = storage.textLayerPath(sha256);
+        return Files.exists(path) ? path : null;
+    }
+
+    void build(Long documentId, String sha256, Path pdf) {
+        Path target = storage.textLayerPath(sha256);
+        // identical bytes were uploaded before
+        if (Files.exists(target)) return;
+
+        long started = System.nanoTime();
+        try {
+            TextLayer layer = parse(sha256, pdf);
+
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), sha256, ".tmp");
+            try {
+                objectMapper.writeValue(tmp.toFile(), layer);
+                // readers only ever see a complete file
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+
+            log.info("Text layer for document {} ({} pages, {} non-searchable) built in {} ms",
+                    documentId, layer.pageCount(), layer.nonSearchablePages().size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception ex) {
+            log.warn("Text layer for document {} failed: {}", documentId, ex.getMessage());
+        }
+    }
+
+    // same page classification and text as extraction-service's PdfTextExtractor, so offsets and quotes line up
+    private TextLayer parse(String sha256, Path pdf) throws IOException {
+        try (PDDocument doc = PDDocument.load(pdf.toFile(), MemoryUsageSetting.setupMixed(MAX_MAIN_MEMORY_BYTES))) {
+            PdfPageScanner.Scan scan = pageScanner.scan(doc);
+            List<String> pages = PdfPageText.strip(doc, scan);
+
+            StringBuilder text = new StringBuilder();
+            List<Integer> offsets = new ArrayList<>(pages.size());
+            for (String page : pages) {
+                if (!offsets.isEmpty()) text.append(TextLayer.PAGE_SEPARATOR);
+                offsets.add(text.length());
+                text.append(page);
+            }
+            return new TextLayer(TextLayer.FORMAT, sha256, pages.size(), text.toString(), offsets,
+                    scan.nonSearchablePages(), Instant.now());
+        }
+    }
+
+    private static boolean isPdf(DocumentEntity doc) {
+        String type = doc.getContentType();
+        String name = doc.getOriginalFilename();
+        return (type != null && type.toLowerCase(Locale.ROOT).contains("pdf"))
+                || (name != null && name.toLowerCase(Locale.ROOT).endsWith(".pdf"));
+    }
+}
@@ -1,19 +1,40 @@
 package com.dealhub.extraction.client;
 
+import com.dealhub.extraction.dto.DocumentMetadata;
+import com.dealhub.extraction.dto.DownloadGrant;
+import com.dealhub.extraction.dto.TextLayer;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 public class DocumentClient {
 
     private final WebClient webClient;
+    // document-service itself, bypassing the gateway; used with download grants
+    private final WebClient directClient;
+    private final String internalKey;
 
-    public DocumentClient(@Qualifier("dealhubGatewayWebClient") WebClient webClient) {
+    public DocumentClient(
+            @Qualifier("dealhubGatewayWebClient") WebClient webClient,
+            WebClient.Builder webClientBuilder,
+            @Value("${dealhub.document-service.base-url:http://localhost:8083}") String documentServiceUrl,
+            @Value("${app.internal.key}") String internalKey,
+            @Value("${dealhub.http.max-in-memory-size-mb:50}") int maxInMemorySizeMb
+    ) {
         this.webClient = webClient;
+        // text layers of long agreements are several MB of JSON
+        this.directClient = webClientBuilder
+                .baseUrl(documentServiceUrl)
+                .codecs(cfg -> cfg.defaultCodecs().maxInMemorySize(maxInMemorySizeMb * 1024 * 1024))
+                .build();
+        this.internalKey = internalKey;
     }
 
     public Flux<DataBuffer> download(Long documentId, String authorizationHeader) {
@@ -23,4 +44,41 @@ public class DocumentClient {
                 .retrieve()
                 .bodyToFlux(DataBuffer.class); // ✅ streaming
     }
+
+    public Mono<DocumentMetadata> metadata(Long documentId, String authorizationHeader) {
+        return webClient.get()
+                .uri("/documents/{id}", documentId)
+                .header(HttpHeaders.AUTHORIZATION, authorizationHeader)
+                .retrieve()
+                .bodyToMono(DocumentMetadata.class);
+    }
+
+    /** Asks document-service for a single-document download grant; needs no user token. */
+    public Mono<DownloadGrant> downloadGrant(Long documentId) {
+        return directClient.post()
+                .uri("/internal/documents/{id}/download-grant", documentId)
+                .header("X-INTERNAL-KEY", internalKey)
+                .retrieve()
+                .bodyToMono(DownloadGrant.class);
+    }
+
+    public Flux<DataBuffer> download(DownloadGrant grant) {
+        return directClient.get()
+                .uri(grant.contentPath())
+                .header("X-DOWNLOAD-GRANT", grant.grant())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+    }
+
+    /** The text layer document-service parsed at upload; empty while there is none. */
+    public Mono<TextLayer> textLayer(DownloadGrant grant) {
+        return directClient.get()
+                .uri("/internal/documents/{id}/text-layer", grant.documentId())
+                .header("X-DOWNLOAD-GRANT", grant.grant())
+                .exchangeToMono(resp -> resp.statusCode().isSameCodeAs(HttpStatus.NOT_FOUND)
+                        ? resp.releaseBody().then(Mono.<TextLayer>empty())
+                        : resp.statusCode().is2xxSuccessful()
+                                ? resp.bodyToMono(TextLayer.class)
+                                : resp.createError());
+    }
 }
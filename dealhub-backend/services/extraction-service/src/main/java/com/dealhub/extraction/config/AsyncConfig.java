@@ -1,23 +1,72 @@
 package com.dealhub.extraction.config;
 
+import com.dealhub.extraction.service.StageExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @EnableAsync
 @Configuration
 public class AsyncConfig {
 
-    @Bean(name = "extractionExecutor")
-    public Executor extractionExecutor() {
+    // Pipeline stages. At most workers.max jobs are in the pipeline and each job occupies one stage at a
+    // time, so queues sized to that never block in practice; the bound is a safety net.
+
+    // blocking HTTP download to a temp file
+    @Bean(name = "downloadStage", destroyMethod = "shutdown")
+    public StageExecutor downloadStage(
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.stages.download.threads:16}") int threads,
+            @Value("${dealhub.extraction.workers.max:32}") int maxWorkers
+    ) {
+        return new StageExecutor("download", threads, maxWorkers, meterRegistry);
+    }
+
+    // PDFBox parsing and the evidence index: CPU bound, one thread per core
+    @Bean(name = "parseStage", destroyMethod = "shutdown")
+    public StageExecutor parseStage(
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.stages.parse.threads:0}") int threads,
+            @Value("${dealhub.extraction.workers.max:32}") int maxWorkers
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new StageExecutor("parse", size, maxWorkers, meterRegistry);
+    }
+
+    // drives the LLM calls of a job; mostly waiting, bounded by LlmCallGovernor rather than by this pool
+    @Bean(name = "llmStage", destroyMethod = "shutdown")
+    public StageExecutor llmStage(
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.workers.max:32}") int maxWorkers
+    ) {
+        return new StageExecutor("llm", maxWorkers, maxWorkers, meterRegistry);
+    }
+
+    // LLM calls run here so that a cancelled job can abandon a blocked call without losing its stage thread;
+    // one thread per possible job so that only LlmCallGovernor limits call concurrency. A full queue makes the
+    // submitting job wait, as in StageExecutor, instead of failing it
+    @Bean(name = "llmCallExecutor")
+    public ThreadPoolTaskExecutor llmCallExecutor(@Value("${dealhub.extraction.workers.max:32}") int maxWorkers) {
         ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
-        exec.setCorePoolSize(4);
-        exec.setMaxPoolSize(8);
-        exec.setQueueCapacity(200);
-        exec.setThreadNamePrefix("extraction-");
+        exec.setCorePoolSize(maxWorkers);
+        exec.setMaxPoolSize(maxWorkers);
+        exec.setQueueCapacity(64);
+        exec.setAllowCoreThreadTimeOut(true);
+        exec.setThreadNamePrefix("llm-call-");
+        exec.setRejectedExecutionHandler((task, executor) -> {
+            if (executor.isShutdown()) throw new RejectedExecutionException("llmCallExecutor is shut down");
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for llmCallExecutor", e);
+            }
+        });
         exec.initialize();
         return exec;
     }
@@ -0,0 +1,90 @@
+package com.dealhub.extraction.config;
+
+import com.dealhub.extraction.service.AdaptiveConcurrencyLimit;
+import com.dealhub.extraction.service.ExtractionScheduler;
+import com.dealhub.extraction.service.LlmCallGovernor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runtime view and control of worker concurrency: {@code GET /actuator/extractionConcurrency} shows the
+ * current limit and latency signal, {@code POST} with any of limit / adaptive / min / max /
+ * llmMaxConcurrentCalls resizes without a restart. Setting "limit" pins it and turns adaptation off.
+ * The worker and LLM call pools are sized from dealhub.extraction.workers.max at startup, so values above it
+ * are rejected with 400.
+ */
+@Component
+@Endpoint(id = "extractionConcurrency")
+public class ExtractionConcurrencyEndpoint {
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final LlmCallGovernor llmGovernor;
+    private final ExtractionScheduler scheduler;
+
+    public ExtractionConcurrencyEndpoint(
+            AdaptiveConcurrencyLimit concurrencyLimit,
+            LlmCallGovernor llmGovernor,
+            ExtractionScheduler scheduler
+    ) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.llmGovernor = llmGovernor;
+        this.scheduler = scheduler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> state() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("limit", concurrencyLimit.limit());
+        out.put("adaptive", concurrencyLimit.isAdaptive());
+        out.put("min", concurrencyLimit.minLimit());
+        out.put("max", concurrencyLimit.maxLimit());
+        out.put("cap", concurrencyLimit.cap());
+        out.put("poolSize", concurrencyLimit.poolSize());
+        out.put("running", scheduler.runningCount());
+        out.put("queued", scheduler.queuedCount());
+        out.put("llmMaxConcurrentCalls", llmGovernor.maxConcurrentCalls());
+        out.put("llmInFlight", llmGovernor.inFlight());
+        out.put("baselineLatencyMs", concurrencyLimit.baselineLatencyMs());
+        out.put("lastWindowLatencyMs", concurrencyLimit.lastWindowLatencyMs());
+        return out;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(
+            @Nullable Integer limit,
+            @Nullable Boolean adaptive,
+            @Nullable Integer min,
+            @Nullable Integer max,
+            @Nullable Integer llmMaxConcurrentCalls
+    ) {
+        // validated before anything is applied
+        checkWithinPool("limit", limit);
+        checkWithinPool("min", min);
+        checkWithinPool("max", max);
+        checkWithinPool("llmMaxConcurrentCalls", llmMaxConcurrentCalls);
+
+        if (llmMaxConcurrentCalls != null) llmGovernor.resize(llmMaxConcurrentCalls);
+        if (min != null || max != null) concurrencyLimit.setBounds(min, max);
+        if (adaptive != null) concurrencyLimit.setAdaptive(adaptive);
+        if (limit != null) concurrencyLimit.fix(limit);
+
+        scheduler.limitChanged();
+        return state();
+    }
+
+    private void checkWithinPool(String name, Integer value) {
+        if (value == null) return;
+        if (value < 1 || value > concurrencyLimit.poolSize()) {
+            String message = name + " must be between 1 and " + concurrencyLimit.poolSize()
+                    + " (dealhub.extraction.workers.max, fixed at startup)";
+            throw new InvalidEndpointRequestException(message, message);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dealhub.extraction.config;
+
+import com.dealhub.extraction.service.FileLlmBatchProvider;
+import com.dealhub.extraction.service.LlmBatchProvider;
+import com.dealhub.extraction.service.OpenAiLlmBatchProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class LlmBatchConfig {
+
+    @Bean
+    public LlmBatchProvider llmBatchProvider(
+            WebClient.Builder webClientBuilder,
+            @Value("${dealhub.extraction.batch.provider:file}") String provider,
+            @Value("${dealhub.extraction.batch.file.dir:${java.io.tmpdir}/dealhub-llm-batches}") Path fileDir,
+            @Value("${dealhub.extraction.batch.file.completion-window:PT24H}") Duration completionWindow,
+            @Value("${spring.ai.openai.base-url:https://api.openai.com}") String openAiBaseUrl,
+            @Value("${spring.ai.openai.api-key:}") String openAiApiKey,
+            @Value("${dealhub.http.max-in-memory-size-mb:50}") int maxInMemorySizeMb
+    ) {
+        return switch (provider.trim().toLowerCase()) {
+            case "openai" -> new OpenAiLlmBatchProvider(webClientBuilder, openAiBaseUrl, openAiApiKey, maxInMemorySizeMb);
+            case "file" -> new FileLlmBatchProvider(fileDir, completionWindow);
+            default -> throw new IllegalStateException("Unknown dealhub.extraction.batch.provider: " + provider);
+        };
+    }
+}
@@ -1,11 +1,18 @@
 package com.dealhub.extraction.controller;
 
+import com.dealhub.extraction.dto.DraftOutboxResponse;
 import com.dealhub.extraction.dto.ExtractionResponse;
+import com.dealhub.extraction.dto.ExtractionStatusResponse;
 import com.dealhub.extraction.dto.StartExtractionRequest;
 import com.dealhub.extraction.service.ExtractionService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/extractions")
@@ -20,13 +27,66 @@ public class ExtractionController {
     @PostMapping("/start")
     public ExtractionResponse start(
             @Valid @RequestBody StartExtractionRequest request,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(name = "X-User-Id", required = false) String userId,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        return extractionService.startAsync(request, authorization, userId, idempotencyKey);
+    }
+
+    @PostMapping("/{id}/retry")
+    public ExtractionResponse retry(
+            @PathVariable String id,
             @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization
     ) {
-        return extractionService.startAsync(request, authorization);
+        return extractionService.retry(id, authorization);
+    }
+
+    /** Creates the agreement draft of a DONE job (again, if an earlier attempt FAILED). */
+    @PostMapping("/{id}/draft")
+    public DraftOutboxResponse requestDraft(@PathVariable String id) {
+        return extractionService.requestDraft(id);
+    }
+
+    @GetMapping("/{id}/draft")
+    public DraftOutboxResponse getDraft(@PathVariable String id) {
+        return extractionService.getDraft(id);
     }
 
+    @DeleteMapping("/{id}")
+    public ExtractionResponse cancel(@PathVariable String id) {
+        return extractionService.cancel(id);
+    }
+
+    @DeleteMapping("/by-document/{documentId}")
+    public List<ExtractionResponse> cancelByDocument(@PathVariable Long documentId) {
+        return extractionService.cancelByDocument(documentId);
+    }
+
+    /**
+     * Polling endpoint. {@code ?fields=status} returns only the status projection; both variants carry an
+     * ETag derived from status/updatedAt, and a matching If-None-Match gets 304 without reading result_json.
+     */
     @GetMapping("/{id}")
-    public ExtractionResponse getById(@PathVariable String id) {
-        return extractionService.getByKey(id);
+    public ResponseEntity<?> getById(
+            @PathVariable String id,
+            @RequestParam(name = "fields", required = false) String fields,
+            WebRequest webRequest
+    ) {
+        ExtractionStatusResponse status = extractionService.getStatus(id);
+        String etag = status.etag();
+
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache());
+
+        if ("status".equalsIgnoreCase(fields)) {
+            return ok.body(status);
+        }
+        return ok.body(extractionService.getByKey(status));
     }
 }
@@ -0,0 +1,53 @@
+package com.dealhub.extraction.controller;
+
+import com.dealhub.extraction.service.ExtractionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Replica-to-replica calls used in cluster mode. Not routed by the gateway.
+ */
+@RestController
+@RequestMapping("/internal/extractions")
+public class InternalExtractionController {
+
+    private final ExtractionService extractionService;
+    private final String internalKey;
+
+    public InternalExtractionController(
+            ExtractionService extractionService,
+            @Value("${app.internal.key}") String internalKey
+    ) {
+        this.extractionService = extractionService;
+        this.internalKey = internalKey;
+    }
+
+    private void requireInternalKey(HttpServletRequest request) {
+        String key = request.getHeader("X-INTERNAL-KEY");
+        if (key == null || !key.equals(internalKey)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing/invalid X-INTERNAL-KEY");
+        }
+    }
+
+    @PostMapping("/{jobKey}/dispatch")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void dispatch(
+            @PathVariable String jobKey,
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            HttpServletRequest request
+    ) {
+        requireInternalKey(request);
+        extractionService.acceptDispatched(jobKey, authorization);
+    }
+
+    @PostMapping("/{jobKey}/cancel")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void cancel(@PathVariable String jobKey, HttpServletRequest request) {
+        requireInternalKey(request);
+        extractionService.signalCancel(jobKey);
+    }
+}
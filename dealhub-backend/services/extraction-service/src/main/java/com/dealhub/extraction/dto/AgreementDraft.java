@@ -0,0 +1,13 @@
+package com.dealhub.extraction.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One item of agreement-service's bulk draft request; sourceKey is the job key, which makes a resend
+ * return the draft created the first time.
+ */
+public record AgreementDraft(
+        String sourceKey,
+        Long agreementId,
+        JsonNode extractedJson
+) {}
@@ -0,0 +1,15 @@
+package com.dealhub.extraction.dto;
+
+/**
+ * @param status CREATED, EXISTING, NOT_FOUND or INVALID
+ */
+public record AgreementDraftResult(
+        String sourceKey,
+        String status,
+        Long versionId,
+        String error
+) {
+    public boolean isCreated() {
+        return "CREATED".equals(status) || "EXISTING".equals(status);
+    }
+}
@@ -0,0 +1,15 @@
+package com.dealhub.extraction.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Agreement version an AMENDMENT job is applied to, as returned by agreement-service.
+ *
+ * @param status VALIDATED or PUBLISHED
+ */
+public record BaseVersion(
+        Long versionId,
+        Long agreementId,
+        String status,
+        JsonNode extractedJson
+) {}
@@ -0,0 +1,13 @@
+package com.dealhub.extraction.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Subset of document-service's document metadata that extraction cares about.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DocumentMetadata(
+        Long id,
+        Long sizeBytes,
+        String sha256
+) {}
@@ -0,0 +1,18 @@
+package com.dealhub.extraction.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+
+/**
+ * Short-lived grant from document-service to fetch one document's bytes directly.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DownloadGrant(
+        Long documentId,
+        String grant,
+        String contentPath,
+        Instant expiresAt,
+        Long sizeBytes,
+        String sha256
+) {}
@@ -0,0 +1,16 @@
+package com.dealhub.extraction.dto;
+
+import com.dealhub.extraction.model.DraftStatus;
+
+import java.time.Instant;
+
+public record DraftOutboxResponse(
+        String jobKey,
+        Long agreementId,
+        DraftStatus status,
+        Integer attempts,
+        Long versionId,
+        String lastError,
+        Instant nextAttemptAt,
+        Instant updatedAt
+) {}
@@ -1,5 +1,6 @@
 package com.dealhub.extraction.dto;
 
+import com.dealhub.extraction.model.ExtractionPriority;
 import com.dealhub.extraction.model.ExtractionProfile;
 import com.dealhub.extraction.model.ExtractionStatus;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -10,6 +11,7 @@ public record ExtractionResponse(
         Long documentId,
         Long agreementId,
         ExtractionProfile extractionProfile,
+        ExtractionPriority priority,
         ExtractionStatus status,
         JsonNode resultJson,
         String errorMessage,
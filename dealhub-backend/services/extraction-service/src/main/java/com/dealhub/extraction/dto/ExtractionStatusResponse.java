@@ -0,0 +1,28 @@
+package com.dealhub.extraction.dto;
+
+import com.dealhub.extraction.model.ExtractionPriority;
+import com.dealhub.extraction.model.ExtractionProfile;
+import com.dealhub.extraction.model.ExtractionStatus;
+
+import java.time.Instant;
+
+/**
+ * Status-only view of a job (no result_json), used for polling.
+ */
+public record ExtractionStatusResponse(
+        String jobKey,
+        Long documentId,
+        Long agreementId,
+        ExtractionProfile extractionProfile,
+        ExtractionPriority priority,
+        ExtractionStatus status,
+        String errorMessage,
+        Instant createdAt,
+        Instant updatedAt
+) {
+    /** Weak validator: changes whenever the job changes status or renews its lease. */
+    public String etag() {
+        long version = updatedAt == null ? 0 : updatedAt.toEpochMilli();
+        return "W/\"" + status + "-" + version + "\"";
+    }
+}
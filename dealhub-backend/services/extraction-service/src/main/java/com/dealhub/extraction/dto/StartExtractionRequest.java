@@ -1,10 +1,29 @@
 package com.dealhub.extraction.dto;
 
+import com.dealhub.extraction.model.ExtractionMode;
+import com.dealhub.extraction.model.ExtractionPriority;
 import com.dealhub.extraction.model.ExtractionProfile;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
+/**
+ * @param priority       scheduling lane, NORMAL when omitted
+ * @param estimatedPages optional size hint used for shortest-job-first ordering
+ * @param force          start a new job even if one is already active for the same document and profile
+ * @param createDraft    create an agreement draft version from the result once DONE; defaults to
+ *                       dealhub.extraction.drafts.auto-create
+ * @param mode           FULL (default) or AMENDMENT, see {@link ExtractionMode}
+ * @param baseVersionId  AMENDMENT only: the version to amend; defaults to the agreement's latest VALIDATED or
+ *                       PUBLISHED version
+ */
 public record StartExtractionRequest(
         @NotNull Long documentId,
         @NotNull Long agreementId,
-        @NotNull ExtractionProfile extractionProfile
+        @NotNull ExtractionProfile extractionProfile,
+        ExtractionPriority priority,
+        @Positive Integer estimatedPages,
+        Boolean force,
+        Boolean createDraft,
+        ExtractionMode mode,
+        @Positive Long baseVersionId
 ) {}
@@ -0,0 +1,38 @@
+package com.dealhub.extraction.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text layer document-service parses at upload time: all pages' text joined with a blank line, with the
+ * start offset of each page. Pages are classified like PdfTextExtractor does (scanned and blank pages are ""),
+ * from format tl-2 on; older layers are not used.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TextLayer(
+        String format,
+        String sha256,
+        int pageCount,
+        String text,
+        List<Integer> pageOffsets,
+        List<Integer> nonSearchablePages
+) {
+    public static final String FORMAT = "tl-2";
+    private static final int SEPARATOR_LENGTH = 2;
+
+    /** One entry per page (index 0 = page 1), as PdfTextExtractor would have returned. */
+    public List<String> pages() {
+        List<String> pages = new ArrayList<>(pageOffsets.size());
+        for (int i = 0; i < pageOffsets.size(); i++) {
+            int end = i + 1 < pageOffsets.size() ? pageOffsets.get(i + 1) - SEPARATOR_LENGTH : text.length();
+            pages.add(text.substring(pageOffsets.get(i), end));
+        }
+        return pages;
+    }
+
+    public boolean isUsable() {
+        return FORMAT.equals(format) && text != null && pageOffsets != null && pageOffsets.size() == pageCount;
+    }
+}
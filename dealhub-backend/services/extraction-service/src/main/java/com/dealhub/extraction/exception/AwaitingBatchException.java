@@ -0,0 +1,11 @@
+package com.dealhub.extraction.exception;
+
+/**
+ * Thrown by the extract stage of a bulk job whose PASS 1 requests went to a provider batch: the job gives
+ * up its worker and is resumed once the batch results are in its checkpoints.
+ */
+public class AwaitingBatchException extends RuntimeException {
+    public AwaitingBatchException(String jobKey, int requests) {
+        super("Extraction job " + jobKey + " waits for " + requests + " batched PASS 1 request(s)");
+    }
+}
@@ -0,0 +1,7 @@
+package com.dealhub.extraction.exception;
+
+public class ExtractionCancelledException extends RuntimeException {
+    public ExtractionCancelledException(String jobKey) {
+        super("Extraction job cancelled: " + jobKey);
+    }
+}
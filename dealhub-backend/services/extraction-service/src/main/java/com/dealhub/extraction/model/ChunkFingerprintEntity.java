@@ -0,0 +1,52 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * SimHash of a chunk seen by PASS 1, with how often chunks with that fingerprint yielded fields.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_chunk_fingerprints",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_chunk_fingerprints_schema_fp", columnNames = {"schema_key", "fingerprint"})
+        }
+)
+public class ChunkFingerprintEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // boilerplate is relative to what the schema asks for: short hash of the schema text
+    @Column(name = "schema_key", nullable = false, length = 16)
+    private String schemaKey;
+
+    @Column(name = "fingerprint", nullable = false)
+    private Long fingerprint;
+
+    // PASS 1 returned nothing extractable
+    @Column(name = "empty_count", nullable = false)
+    private Integer emptyCount;
+
+    // PASS 1 returned at least one value
+    @Column(name = "productive_count", nullable = false)
+    private Integer productiveCount;
+
+    @Column(name = "first_document_id")
+    private Long firstDocumentId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
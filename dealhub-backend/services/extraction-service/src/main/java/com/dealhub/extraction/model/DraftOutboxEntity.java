@@ -0,0 +1,56 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Agreement draft still to be created (or already created) from a DONE job. Written in the same transaction
+ * as the job's result, delivered to agreement-service by {@code AgreementDraftOutbox}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_draft_outbox",
+        indexes = @Index(name = "idx_draft_outbox_due", columnList = "status, next_attempt_at")
+)
+public class DraftOutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_key", nullable = false, unique = true, length = 36)
+    private String jobKey;
+
+    @Column(name = "agreement_id", nullable = false)
+    private Long agreementId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private DraftStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    // agreement_versions.id once created
+    @Column(name = "version_id")
+    private Long versionId;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
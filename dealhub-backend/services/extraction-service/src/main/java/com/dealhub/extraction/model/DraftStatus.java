@@ -0,0 +1,7 @@
+package com.dealhub.extraction.model;
+
+public enum DraftStatus {
+    PENDING,
+    CREATED,
+    FAILED
+}
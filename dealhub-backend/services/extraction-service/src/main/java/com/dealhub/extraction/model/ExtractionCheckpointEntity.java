@@ -0,0 +1,52 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_checkpoints",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_extraction_checkpoints_stage",
+                        columnNames = {"job_key", "stage", "chunk_index"})
+        },
+        indexes = {
+                @Index(name = "idx_extraction_checkpoints_job_key", columnList = "job_key")
+        }
+)
+public class ExtractionCheckpointEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_key", nullable = false, length = 36)
+    private String jobKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stage", nullable = false, length = 32)
+    private PipelineStage stage;
+
+    // chunk position for PASS1_CHUNK, -1 for document-level stages
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    // sha-256 of the stage input; a checkpoint is only reused when the input is unchanged
+    @Column(name = "input_hash", nullable = false, length = 64)
+    private String inputHash;
+
+    // gzip-compressed JSON output of the stage
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "longblob")
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -17,7 +17,12 @@ import java.time.Instant;
 @Table(
         name = "extraction_jobs",
         indexes = {
-                @Index(name = "idx_extraction_jobs_job_key", columnList = "job_key")
+                @Index(name = "idx_extraction_jobs_job_key", columnList = "job_key"),
+                @Index(name = "idx_extraction_jobs_doc_status", columnList = "document_id, status")
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_extraction_jobs_idempotency_key", columnNames = "idempotency_key"),
+                @UniqueConstraint(name = "uk_extraction_jobs_active_flight_key", columnNames = "active_flight_key")
         }
 )
 public class ExtractionJobEntity {
@@ -43,6 +48,52 @@ public class ExtractionJobEntity {
     @Column(name = "status", nullable = false)
     private ExtractionStatus status;
 
+    // nullable so rows created before lanes existed keep loading; null is treated as NORMAL
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 16)
+    private ExtractionPriority priority;
+
+    // content hash from document-service; identical files share a ring position in cluster mode
+    @Column(name = "document_sha256", length = 64)
+    private String documentSha256;
+
+    // replica the job was dispatched to (cluster mode), so cancel can reach it
+    @Column(name = "assigned_node", length = 64)
+    private String assignedNode;
+
+    @Column(name = "schema_version", length = 32)
+    private String schemaVersion;
+
+    // client-supplied Idempotency-Key: a repeated start with the same key returns this job
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    // single-flight key (document, profile, schema version, mode, base version) of a non-forced job; unique, so
+    // only one job per key can be created across replicas. Left in place when the job finishes and released by
+    // the next start for the same key; only ExtractionJobRepository.releaseFlight changes it after insert.
+    @Column(name = "active_flight_key", length = 160, updatable = false)
+    private String activeFlightKey;
+
+    // nullable so rows created before amendment mode keep loading; null is treated as FULL
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mode", length = 16)
+    private ExtractionMode mode;
+
+    // AMENDMENT: agreement version the result is applied to, pinned when the job is created
+    @Column(name = "base_version_id")
+    private Long baseVersionId;
+
+    // create an agreement draft from the result once DONE (AgreementDraftOutbox)
+    @Column(name = "create_draft")
+    private Boolean createDraft;
+
+    @Column(name = "submitted_by", length = 64)
+    private String submittedBy;
+
+    // request hint, replaced by the real page count once the PDF has been parsed
+    @Column(name = "estimated_pages")
+    private Integer estimatedPages;
+
     @Type(JsonType.class)
     @Column(name = "result_json", columnDefinition = "json")
     private JsonNode resultJson;
@@ -50,6 +101,14 @@ public class ExtractionJobEntity {
     @Column(name = "error_message")
     private String errorMessage;
 
+    // times the job was taken back from a worker whose lease expired (ExtractionJobRecovery)
+    @Column(name = "recoveries")
+    private Integer recoveries;
+
+    public boolean isAmendment() {
+        return mode == ExtractionMode.AMENDMENT;
+    }
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
@@ -0,0 +1,90 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * What stays of a job once {@code ExtractionRetentionService} has moved it out of extraction_jobs: everything
+ * but the result, for audit. The result itself is in extraction_result_archive until result-ttl.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_job_summaries",
+        indexes = @Index(name = "idx_extraction_job_summaries_document", columnList = "document_id")
+)
+public class ExtractionJobSummaryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_key", nullable = false, unique = true, length = 36)
+    private String jobKey;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "agreement_id", nullable = false)
+    private Long agreementId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "extraction_profile", nullable = false)
+    private ExtractionProfile extractionProfile;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mode", length = 16)
+    private ExtractionMode mode;
+
+    @Column(name = "base_version_id")
+    private Long baseVersionId;
+
+    @Column(name = "schema_version", length = 32)
+    private String schemaVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 16)
+    private ExtractionPriority priority;
+
+    // DONE, FAILED or CANCELLED
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ExtractionStatus status;
+
+    @Column(name = "submitted_by", length = 64)
+    private String submittedBy;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    // size of result_json as stored in extraction_jobs, null when the job had none
+    @Column(name = "result_bytes")
+    private Integer resultBytes;
+
+    // SHA-256 of that result_json; still there after the archived result is purged
+    @Column(name = "result_sha256", length = 64)
+    private String resultSha256;
+
+    // agreement draft created from the result, if any
+    @Column(name = "draft_version_id")
+    private Long draftVersionId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // last change of the job itself
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+}
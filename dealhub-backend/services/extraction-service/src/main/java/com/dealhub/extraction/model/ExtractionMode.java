@@ -0,0 +1,27 @@
+package com.dealhub.extraction.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * FULL extracts the whole schema from the document. AMENDMENT treats the document as an amendment or
+ * restatement of an agreement that already has a VALIDATED or PUBLISHED version: only the schema sections
+ * the document touches are extracted, applied on top of that version, and reported as a field-level delta.
+ */
+public enum ExtractionMode {
+    FULL,
+    AMENDMENT;
+
+    @JsonCreator
+    public static ExtractionMode from(String raw) {
+        if (raw == null || raw.isBlank()) return FULL;
+        return ExtractionMode.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @JsonValue
+    public String toJson() {
+        return name();
+    }
+}
@@ -0,0 +1,43 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Heartbeat row of one extraction-service replica; live rows form the consistent-hash ring.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "extraction_nodes")
+public class ExtractionNodeEntity {
+
+    @Id
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    // where peers reach this node's /internal endpoints
+    @Column(name = "base_url", nullable = false, length = 255)
+    private String baseUrl;
+
+    @Column(name = "queued", nullable = false)
+    private Integer queued;
+
+    @Column(name = "running", nullable = false)
+    private Integer running;
+
+    // current worker limit, so peers can tell how loaded the node is
+    @Column(name = "capacity", nullable = false)
+    private Integer capacity;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private Instant heartbeatAt;
+}
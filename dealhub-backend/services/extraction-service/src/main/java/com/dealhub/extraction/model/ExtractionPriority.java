@@ -0,0 +1,27 @@
+package com.dealhub.extraction.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Scheduling lane of an extraction job. Lanes share the worker pool by weight, so BULK work still
+ * progresses but never delays an INTERACTIVE re-extraction by more than one job slot.
+ */
+public enum ExtractionPriority {
+    INTERACTIVE,
+    NORMAL,
+    BULK;
+
+    @JsonCreator
+    public static ExtractionPriority from(String raw) {
+        if (raw == null || raw.isBlank()) return NORMAL;
+        return ExtractionPriority.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @JsonValue
+    public String toJson() {
+        return name();
+    }
+}
@@ -0,0 +1,37 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Gzipped result_json of a job moved out of extraction_jobs; deleted after
+ * {@code dealhub.extraction.retention.result-ttl}, while its summary row stays.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_result_archive",
+        indexes = @Index(name = "idx_extraction_result_archive_archived_at", columnList = "archived_at")
+)
+public class ExtractionResultArchiveEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_key", nullable = false, unique = true, length = 36)
+    private String jobKey;
+
+    @Lob
+    @Column(name = "result_gzip", nullable = false, columnDefinition = "longblob")
+    private byte[] resultGzip;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+}
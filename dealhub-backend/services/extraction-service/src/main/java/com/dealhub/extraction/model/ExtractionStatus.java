@@ -4,5 +4,6 @@ public enum ExtractionStatus {
     PENDING,
     RUNNING,
     DONE,
-    FAILED
+    FAILED,
+    CANCELLED
 }
@@ -0,0 +1,62 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One provider batch submission of PASS 1 requests (bulk lane, dealhub.extraction.batch.enabled).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_llm_batches",
+        indexes = @Index(name = "idx_llm_batches_status", columnList = "status")
+)
+public class LlmBatchEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // id the provider assigned; null while PREPARING
+    @Column(name = "provider_batch_id", length = 128)
+    private String providerBatchId;
+
+    @Column(name = "provider", nullable = false, length = 16)
+    private String provider;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private LlmBatchStatus status;
+
+    @Column(name = "request_count", nullable = false)
+    private Integer requestCount;
+
+    @Column(name = "succeeded")
+    private Integer succeeded;
+
+    @Column(name = "failed")
+    private Integer failed;
+
+    @Column(name = "error", length = 512)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "submitted_at")
+    private Instant submittedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    // claimed by the replica polling it, so replicas do not fan the same results in twice
+    @Column(name = "last_polled_at")
+    private Instant lastPolledAt;
+}
@@ -0,0 +1,66 @@
+package com.dealhub.extraction.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A PASS 1 prompt of a bulk job waiting for, or sent in, a provider batch. Its answer becomes the chunk's
+ * checkpoint (same input hash as the synchronous path), which is all the resumed job needs.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "extraction_llm_batch_requests",
+        indexes = {
+                @Index(name = "idx_llm_batch_requests_status", columnList = "status, id"),
+                @Index(name = "idx_llm_batch_requests_job", columnList = "job_key"),
+                @Index(name = "idx_llm_batch_requests_batch", columnList = "batch_id")
+        }
+)
+public class LlmBatchRequestEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // jobKey:chunkIndex:inputHash prefix; the provider echoes it back with the answer
+    @Column(name = "custom_id", nullable = false, unique = true, length = 64)
+    private String customId;
+
+    @Column(name = "job_key", nullable = false, length = 36)
+    private String jobKey;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "input_hash", nullable = false, length = 64)
+    private String inputHash;
+
+    @Column(name = "prefix_hash", nullable = false, length = 32)
+    private String prefixHash;
+
+    @Column(name = "prompt", nullable = false, columnDefinition = "mediumtext")
+    private String prompt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private LlmBatchRequestStatus status;
+
+    @Column(name = "batch_id")
+    private Long batchId;
+
+    @Column(name = "error", length = 512)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.dealhub.extraction.model;
+
+public enum LlmBatchRequestStatus {
+    QUEUED,
+    SUBMITTED,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.dealhub.extraction.model;
+
+/**
+ * Lifecycle of a provider batch. PREPARING: requests claimed, not yet accepted by the provider.
+ */
+public enum LlmBatchStatus {
+    PREPARING,
+    SUBMITTED,
+    IN_PROGRESS,
+    COMPLETED,
+    FAILED,
+    EXPIRED,
+    CANCELLED;
+
+    public boolean isOpen() {
+        return this == PREPARING || this == SUBMITTED || this == IN_PROGRESS;
+    }
+}
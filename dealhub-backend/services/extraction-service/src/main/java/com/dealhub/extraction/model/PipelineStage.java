@@ -0,0 +1,12 @@
+package com.dealhub.extraction.model;
+
+/**
+ * Checkpointed stages of the LLM pipeline, in execution order.
+ */
+public enum PipelineStage {
+    PASS1_CHUNK,
+    PASS1_5_TOTALS,
+    // intermediate merge of a group of extracts when they do not fit one merge prompt
+    PASS2_GROUP,
+    PASS2_MERGE
+}
@@ -0,0 +1,28 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.ChunkFingerprintEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface ChunkFingerprintRepository extends JpaRepository<ChunkFingerprintEntity, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ChunkFingerprintEntity f
+               set f.emptyCount = f.emptyCount + :emptyDelta,
+                   f.productiveCount = f.productiveCount + :productiveDelta,
+                   f.updatedAt = :now
+             where f.schemaKey = :schemaKey and f.fingerprint = :fingerprint
+            """)
+    int increment(@Param("schemaKey") String schemaKey,
+                  @Param("fingerprint") long fingerprint,
+                  @Param("emptyDelta") int emptyDelta,
+                  @Param("productiveDelta") int productiveDelta,
+                  @Param("now") Instant now);
+}
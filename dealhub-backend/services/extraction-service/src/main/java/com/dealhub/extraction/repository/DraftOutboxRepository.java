@@ -0,0 +1,32 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.DraftOutboxEntity;
+import com.dealhub.extraction.model.DraftStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface DraftOutboxRepository extends JpaRepository<DraftOutboxEntity, Long> {
+
+    Optional<DraftOutboxEntity> findByJobKey(String jobKey);
+
+    List<DraftOutboxEntity> findByJobKeyIn(Collection<String> jobKeys);
+
+    @Query("""
+        select d from DraftOutboxEntity d
+        where d.status = :status and d.nextAttemptAt <= :now
+        order by d.nextAttemptAt
+        """)
+    List<DraftOutboxEntity> findDue(@Param("status") DraftStatus status, @Param("now") Instant now, Pageable page);
+
+    @Modifying
+    @Query("delete from DraftOutboxEntity d where d.jobKey in :jobKeys")
+    int deleteByJobKeyIn(@Param("jobKeys") Collection<String> jobKeys);
+}
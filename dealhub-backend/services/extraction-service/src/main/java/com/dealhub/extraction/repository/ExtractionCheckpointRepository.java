@@ -0,0 +1,28 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.ExtractionCheckpointEntity;
+import com.dealhub.extraction.model.PipelineStage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ExtractionCheckpointRepository extends JpaRepository<ExtractionCheckpointEntity, Long> {
+
+    Optional<ExtractionCheckpointEntity> findByJobKeyAndStageAndChunkIndex(String jobKey, PipelineStage stage, Integer chunkIndex);
+
+    long countByJobKey(String jobKey);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ExtractionCheckpointEntity c where c.jobKey = :jobKey")
+    int deleteByJobKey(@Param("jobKey") String jobKey);
+
+    @Modifying
+    @Query("delete from ExtractionCheckpointEntity c where c.jobKey in :jobKeys")
+    int deleteByJobKeyIn(@Param("jobKeys") Collection<String> jobKeys);
+}
@@ -1,10 +1,157 @@
 package com.dealhub.extraction.repository;
 
+import com.dealhub.extraction.dto.ExtractionStatusResponse;
 import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionProfile;
+import com.dealhub.extraction.model.ExtractionStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ExtractionJobRepository extends JpaRepository<ExtractionJobEntity, Long> {
     Optional<ExtractionJobEntity> findByJobKey(String jobKey);
+
+    // polling projection: never reads the result_json column
+    @Query("""
+        select new com.dealhub.extraction.dto.ExtractionStatusResponse(
+               j.jobKey, j.documentId, j.agreementId, j.extractionProfile, j.priority,
+               j.status, j.errorMessage, j.createdAt, j.updatedAt)
+          from ExtractionJobEntity j
+         where j.jobKey = :jobKey
+        """)
+    Optional<ExtractionStatusResponse> findStatusByJobKey(@Param("jobKey") String jobKey);
+
+    Optional<ExtractionJobEntity> findByIdempotencyKey(String idempotencyKey);
+
+    List<ExtractionJobEntity> findByDocumentIdAndExtractionProfileAndSchemaVersionAndStatusInOrderByCreatedAtDesc(
+            Long documentId,
+            ExtractionProfile extractionProfile,
+            String schemaVersion,
+            Collection<ExtractionStatus> statuses
+    );
+
+    Optional<ExtractionJobEntity> findByActiveFlightKey(String activeFlightKey);
+
+    // frees the flight key of a job that is no longer active, so a new job can take it; a no-op while it is active
+    @Transactional
+    @Modifying
+    @Query("""
+        update ExtractionJobEntity j
+           set j.activeFlightKey = null
+         where j.jobKey = :jobKey
+           and j.status not in :active
+        """)
+    int releaseFlight(@Param("jobKey") String jobKey, @Param("active") Collection<ExtractionStatus> active);
+
+    @Transactional
+    @Modifying
+    @Query("update ExtractionJobEntity j set j.assignedNode = :node where j.jobKey = :jobKey")
+    int assignNode(@Param("jobKey") String jobKey, @Param("node") String node);
+
+    List<ExtractionJobEntity> findByJobKeyIn(Collection<String> jobKeys);
+
+    List<ExtractionJobEntity> findByStatusAndUpdatedAtBefore(ExtractionStatus status, Instant cutoff);
+
+    List<ExtractionJobEntity> findByDocumentIdAndStatusIn(Long documentId, Collection<ExtractionStatus> statuses);
+
+    // compare-and-set on status, so a cancel and a worker picking the job up cannot both win
+    @Transactional
+    @Modifying
+    @Query("""
+        update ExtractionJobEntity j
+           set j.status = :to, j.updatedAt = :now
+         where j.jobKey = :jobKey
+           and j.status in :from
+        """)
+    int transition(@Param("jobKey") String jobKey,
+                   @Param("from") Collection<ExtractionStatus> from,
+                   @Param("to") ExtractionStatus to,
+                   @Param("now") Instant now);
+
+    // lease renewal: a running job bumps updated_at every time it checkpoints
+    @Transactional
+    @Modifying
+    @Query("update ExtractionJobEntity j set j.updatedAt = :now where j.jobKey = :jobKey")
+    int touch(@Param("jobKey") String jobKey, @Param("now") Instant now);
+
+    // lease heartbeat for the jobs running on one instance
+    @Transactional
+    @Modifying
+    @Query("update ExtractionJobEntity j set j.updatedAt = :now where j.jobKey in :jobKeys and j.status = :status")
+    int touchAll(@Param("jobKeys") Collection<String> jobKeys,
+                 @Param("status") ExtractionStatus status,
+                 @Param("now") Instant now);
+
+    // expired lease back to PENDING; compare-and-set on the lease, so only one replica reclaims a job
+    @Transactional
+    @Modifying
+    @Query("""
+        update ExtractionJobEntity j
+           set j.status = :to, j.updatedAt = :now, j.recoveries = coalesce(j.recoveries, 0) + 1
+         where j.jobKey = :jobKey
+           and j.status = :from
+           and j.updatedAt < :cutoff
+        """)
+    int reclaim(@Param("jobKey") String jobKey,
+                @Param("from") ExtractionStatus from,
+                @Param("to") ExtractionStatus to,
+                @Param("cutoff") Instant cutoff,
+                @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update ExtractionJobEntity j
+           set j.status = :to, j.errorMessage = :message, j.updatedAt = :now
+         where j.jobKey = :jobKey
+           and j.status = :from
+           and j.updatedAt < :cutoff
+        """)
+    int expireLease(@Param("jobKey") String jobKey,
+                    @Param("from") ExtractionStatus from,
+                    @Param("to") ExtractionStatus to,
+                    @Param("message") String message,
+                    @Param("cutoff") Instant cutoff,
+                    @Param("now") Instant now);
+
+    /**
+     * Finished jobs the retention policy no longer keeps in full, oldest first: beyond the newest {@code keep}
+     * of their document, or last changed before {@code expiredBefore}; never changed after {@code settledBefore},
+     * and never with an agreement draft still waiting in the outbox.
+     */
+    @Query(value = """
+        select t.id
+          from (select j.id, j.job_key, j.status, j.updated_at,
+                       row_number() over (partition by j.document_id order by j.created_at desc, j.id desc) as rn
+                  from extraction_jobs j) t
+         where t.status in ('DONE', 'FAILED', 'CANCELLED')
+           and t.updated_at < :settledBefore
+           and (t.rn > :keep or t.updated_at < :expiredBefore)
+           and not exists (select 1 from extraction_draft_outbox o where o.job_key = t.job_key and o.status = 'PENDING')
+         order by t.id
+         limit :limit
+        """, nativeQuery = true)
+    List<Long> findIdsToArchive(
+            @Param("keep") int keep,
+            @Param("settledBefore") Instant settledBefore,
+            @Param("expiredBefore") Instant expiredBefore,
+            @Param("limit") int limit
+    );
+
+    // rows another replica is archiving right now are skipped, not waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select j from ExtractionJobEntity j where j.id in :ids and j.status in :statuses")
+    List<ExtractionJobEntity> lockForArchive(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<ExtractionStatus> statuses);
 }
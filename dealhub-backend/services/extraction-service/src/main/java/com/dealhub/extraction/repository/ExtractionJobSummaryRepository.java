@@ -0,0 +1,15 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.ExtractionJobSummaryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ExtractionJobSummaryRepository extends JpaRepository<ExtractionJobSummaryEntity, Long> {
+
+    Optional<ExtractionJobSummaryEntity> findByJobKey(String jobKey);
+
+    List<ExtractionJobSummaryEntity> findByJobKeyIn(Collection<String> jobKeys);
+}
@@ -0,0 +1,21 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.ExtractionNodeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ExtractionNodeRepository extends JpaRepository<ExtractionNodeEntity, String> {
+
+    List<ExtractionNodeEntity> findByHeartbeatAtAfter(Instant cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ExtractionNodeEntity n where n.heartbeatAt < :cutoff")
+    int deleteStale(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,19 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.ExtractionResultArchiveEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface ExtractionResultArchiveRepository extends JpaRepository<ExtractionResultArchiveEntity, Long> {
+
+    Optional<ExtractionResultArchiveEntity> findByJobKey(String jobKey);
+
+    @Query("select a.id from ExtractionResultArchiveEntity a where a.archivedAt < :cutoff order by a.id")
+    List<Long> findIdsArchivedBefore(@Param("cutoff") Instant cutoff, Pageable page);
+}
@@ -0,0 +1,27 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.LlmBatchEntity;
+import com.dealhub.extraction.model.LlmBatchStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface LlmBatchRepository extends JpaRepository<LlmBatchEntity, Long> {
+
+    List<LlmBatchEntity> findByStatusIn(Collection<LlmBatchStatus> statuses);
+
+    /** Claims the batch for one poll; 0 when another replica polled it within the interval. */
+    @Transactional
+    @Modifying
+    @Query("""
+        update LlmBatchEntity b set b.lastPolledAt = :now
+        where b.id = :id and (b.lastPolledAt is null or b.lastPolledAt < :cutoff)
+        """)
+    int claimPoll(@Param("id") Long id, @Param("now") Instant now, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,64 @@
+package com.dealhub.extraction.repository;
+
+import com.dealhub.extraction.model.LlmBatchRequestEntity;
+import com.dealhub.extraction.model.LlmBatchRequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface LlmBatchRequestRepository extends JpaRepository<LlmBatchRequestEntity, Long> {
+
+    List<LlmBatchRequestEntity> findByCustomIdIn(Collection<String> customIds);
+
+    List<LlmBatchRequestEntity> findByJobKeyAndStatus(String jobKey, LlmBatchRequestStatus status);
+
+    List<LlmBatchRequestEntity> findByBatchId(Long batchId);
+
+    @Query("select r.id from LlmBatchRequestEntity r where r.status = :status order by r.id")
+    List<Long> findIdsByStatus(@Param("status") LlmBatchRequestStatus status, Pageable page);
+
+    LlmBatchRequestEntity findFirstByStatusOrderByIdAsc(LlmBatchRequestStatus status);
+
+    long countByJobKeyAndStatusIn(String jobKey, Collection<LlmBatchRequestStatus> statuses);
+
+    /** Moves still-QUEUED requests into the batch; rows another replica claimed first are left alone. */
+    @Transactional
+    @Modifying
+    @Query("""
+        update LlmBatchRequestEntity r
+        set r.status = com.dealhub.extraction.model.LlmBatchRequestStatus.SUBMITTED, r.batchId = :batchId, r.updatedAt = :now
+        where r.id in :ids and r.status = com.dealhub.extraction.model.LlmBatchRequestStatus.QUEUED
+        """)
+    int claim(@Param("batchId") Long batchId, @Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update LlmBatchRequestEntity r
+        set r.status = com.dealhub.extraction.model.LlmBatchRequestStatus.QUEUED, r.batchId = null, r.updatedAt = :now
+        where r.batchId = :batchId and r.status = com.dealhub.extraction.model.LlmBatchRequestStatus.SUBMITTED
+        """)
+    int requeue(@Param("batchId") Long batchId, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LlmBatchRequestEntity r where r.jobKey = :jobKey and r.status = :status")
+    int deleteByJobKeyAndStatus(@Param("jobKey") String jobKey, @Param("status") LlmBatchRequestStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        delete from LlmBatchRequestEntity r
+        where r.status in (com.dealhub.extraction.model.LlmBatchRequestStatus.DONE,
+                           com.dealhub.extraction.model.LlmBatchRequestStatus.FAILED)
+          and r.updatedAt < :cutoff
+        """)
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,144 @@
+package com.dealhub.extraction.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Number of extraction jobs allowed to run at once, adjusted from observed LLM latency.
+ *
+ * Gradient-style limit: the average call latency of the last window is compared with a slowly moving
+ * baseline. While latency stays within tolerance of the baseline and jobs are queued behind a saturated
+ * pool, the limit grows by about sqrt(limit) per window; when latency rises above tolerance (the provider
+ * is saturating) the limit shrinks proportionally. The limit never exceeds the LLM governor's cap, as
+ * jobs beyond it would only queue for permits.
+ *
+ * This bounds jobs, not LLM calls: a job running its group merges holds up to the governor's cap in calls
+ * at once, so the governor, not this limit, is what bounds calls in flight. Merge calls are timed like
+ * any other and feed the same latency window.
+ */
+@Component
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_ALPHA = 0.05;
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final LlmCallGovernor governor;
+    // workers.max at startup: the stage executors are sized for this many jobs and cannot run more
+    private final int poolSize;
+
+    private volatile boolean adaptive;
+    private volatile int minLimit;
+    private volatile int maxLimit;
+    private volatile double estimate;
+
+    // guarded by "this"
+    private double baselineMs;
+    private double lastWindowMs;
+    private long lastCalls;
+    private long lastNanos;
+
+    public AdaptiveConcurrencyLimit(
+            LlmCallGovernor governor,
+            @Value("${dealhub.extraction.workers.initial:4}") int initial,
+            @Value("${dealhub.extraction.workers.min:1}") int minLimit,
+            @Value("${dealhub.extraction.workers.max:32}") int maxLimit,
+            @Value("${dealhub.extraction.workers.adaptive:true}") boolean adaptive
+    ) {
+        this.governor = governor;
+        this.poolSize = Math.max(1, maxLimit);
+        this.minLimit = Math.min(Math.max(1, minLimit), poolSize);
+        this.maxLimit = Math.max(this.minLimit, poolSize);
+        this.adaptive = adaptive;
+        this.estimate = clamp(initial);
+    }
+
+    /** Current number of worker slots. */
+    public int limit() {
+        return (int) clamp(Math.floor(estimate));
+    }
+
+    /**
+     * Recomputes the limit from the LLM calls completed since the previous update.
+     *
+     * @param queued  jobs waiting for a worker
+     * @param running jobs holding a worker
+     */
+    public synchronized int update(int queued, int running) {
+        long calls = governor.completedCalls();
+        long nanos = governor.totalCallNanos();
+        long windowCalls = calls - lastCalls;
+        long windowNanos = nanos - lastNanos;
+        lastCalls = calls;
+        lastNanos = nanos;
+
+        if (!adaptive || windowCalls == 0) return limit();
+
+        double windowMs = windowNanos / 1_000_000d / windowCalls;
+        lastWindowMs = windowMs;
+        baselineMs = baselineMs == 0 ? windowMs : baselineMs * (1 - BASELINE_ALPHA) + windowMs * BASELINE_ALPHA;
+        // latency well below the baseline means the baseline is stale (e.g. the provider recovered)
+        if (baselineMs > 2 * windowMs) baselineMs *= 0.95;
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baselineMs / windowMs));
+        boolean saturated = queued > 0 && running >= limit();
+        double headroom = saturated ? Math.sqrt(estimate) : 0;
+
+        double target = estimate * gradient + headroom;
+        estimate = clamp(estimate * (1 - SMOOTHING) + target * SMOOTHING);
+        return limit();
+    }
+
+    /** Pins the limit and turns adaptation off. */
+    public synchronized void fix(int limit) {
+        adaptive = false;
+        estimate = clamp(limit);
+    }
+
+    public synchronized void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /** Bounds above {@link #poolSize()} are capped to it. */
+    public synchronized void setBounds(Integer min, Integer max) {
+        if (min != null) minLimit = Math.min(Math.max(1, min), poolSize);
+        if (max != null) maxLimit = Math.min(Math.max(minLimit, max), poolSize);
+        if (maxLimit < minLimit) maxLimit = minLimit;
+        estimate = clamp(estimate);
+    }
+
+    /** Upper bound of any limit: the worker pool size fixed at startup (dealhub.extraction.workers.max). */
+    public int poolSize() {
+        return poolSize;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public int minLimit() {
+        return minLimit;
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    /** Effective upper bound: configured max, capped by the LLM governor. */
+    public int cap() {
+        return Math.max(minLimit, Math.min(maxLimit, governor.maxConcurrentCalls()));
+    }
+
+    public synchronized double baselineLatencyMs() {
+        return baselineMs;
+    }
+
+    public synchronized double lastWindowLatencyMs() {
+        return lastWindowMs;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(cap(), value));
+    }
+}
@@ -1,21 +1,43 @@
 package com.dealhub.extraction.service;
 
+import com.dealhub.extraction.dto.AgreementDraft;
+import com.dealhub.extraction.dto.AgreementDraftResult;
+import com.dealhub.extraction.dto.BaseVersion;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class AgreementClient {
 
+    private static final Duration BULK_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration BASE_VERSION_TIMEOUT = Duration.ofSeconds(15);
+
     private final WebClient webClient;
+    // agreement-service itself, for /internal endpoints the gateway does not route
+    private final WebClient directClient;
+    private final String internalKey;
 
     public AgreementClient(
             WebClient.Builder builder,
-            @Value("${dealhub.gateway.base-url}") String gatewayBaseUrl
+            @Value("${dealhub.gateway.base-url}") String gatewayBaseUrl,
+            @Value("${dealhub.agreement-service.base-url:http://localhost:8082}") String agreementServiceBaseUrl,
+            @Value("${app.internal.key}") String internalKey
     ) {
-        this.webClient = builder.baseUrl(gatewayBaseUrl).build();
+        this.webClient = builder.clone().baseUrl(gatewayBaseUrl).build();
+        this.directClient = builder.clone().baseUrl(agreementServiceBaseUrl).build();
+        this.internalKey = internalKey;
     }
 
     public void createDraft(Long agreementId, JsonNode extractedJson, String authorizationHeader) {
@@ -27,4 +49,44 @@ public class AgreementClient {
                 .toBodilessEntity()
                 .block();
     }
+
+    /**
+     * Creates the drafts in one request; one result per draft, in order. Throws when the request as a whole
+     * fails.
+     */
+    public List<AgreementDraftResult> createDrafts(List<AgreementDraft> drafts) {
+        List<AgreementDraftResult> results = directClient.post()
+                .uri("/internal/agreements/versions/drafts")
+                .header("X-INTERNAL-KEY", internalKey)
+                .bodyValue(Map.of("drafts", drafts))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<AgreementDraftResult>>() {})
+                .block(BULK_TIMEOUT);
+        return results == null ? List.of() : results;
+    }
+
+    /**
+     * The version an amendment is applied to: {@code versionId}, or the agreement's latest VALIDATED or
+     * PUBLISHED version when null. Fails with 409 when the agreement has none (or the version is a draft).
+     */
+    public BaseVersion baseVersion(Long agreementId, Long versionId) {
+        try {
+            BaseVersion base = directClient.get()
+                    .uri(b -> b.path("/internal/agreements/{agreementId}/versions/base")
+                            .queryParamIfPresent("versionId", Optional.ofNullable(versionId))
+                            .build(agreementId))
+                    .header("X-INTERNAL-KEY", internalKey)
+                    .retrieve()
+                    .bodyToMono(BaseVersion.class)
+                    .block(BASE_VERSION_TIMEOUT);
+            if (base == null || base.extractedJson() == null || !base.extractedJson().isObject()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Base version of agreement " + agreementId + " has no extracted JSON");
+            }
+            return base;
+        } catch (WebClientResponseException.NotFound | WebClientResponseException.Conflict e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, versionId == null
+                    ? "Agreement " + agreementId + " has no VALIDATED or PUBLISHED version to amend"
+                    : "Version " + versionId + " of agreement " + agreementId + " cannot be amended");
+        }
+    }
 }
@@ -0,0 +1,239 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.dto.AgreementDraft;
+import com.dealhub.extraction.dto.AgreementDraftResult;
+import com.dealhub.extraction.dto.DraftOutboxResponse;
+import com.dealhub.extraction.model.DraftOutboxEntity;
+import com.dealhub.extraction.model.DraftStatus;
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionStatus;
+import com.dealhub.extraction.repository.DraftOutboxRepository;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns DONE results into agreement draft versions (opt-in per job, see StartExtractionRequest.createDraft).
+ *
+ * The result writer adds an outbox row in the transaction that stores the result; a relay then sends due
+ * rows to agreement-service's bulk endpoint, batch-size drafts per request. A failed send only reschedules
+ * the draft with exponential backoff: the job stays DONE, and after max-attempts the draft is FAILED until
+ * requeued. The job key is the idempotency key on the agreement side, so a resend (another replica, a
+ * timeout after commit) returns the draft already created.
+ */
+@Service
+public class AgreementDraftOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(AgreementDraftOutbox.class);
+
+    private final DraftOutboxRepository outbox;
+    private final ExtractionJobRepository jobs;
+    private final AgreementClient agreementClient;
+    private final boolean autoCreate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Counter created;
+    private final Counter rejected;
+    private final Counter retried;
+
+    public AgreementDraftOutbox(
+            DraftOutboxRepository outbox,
+            ExtractionJobRepository jobs,
+            AgreementClient agreementClient,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.drafts.auto-create:false}") boolean autoCreate,
+            @Value("${dealhub.extraction.drafts.batch-size:50}") int batchSize,
+            @Value("${dealhub.extraction.drafts.max-attempts:8}") int maxAttempts,
+            @Value("${dealhub.extraction.drafts.backoff:PT10S}") Duration backoff,
+            @Value("${dealhub.extraction.drafts.max-backoff:PT30M}") Duration maxBackoff
+    ) {
+        this.outbox = outbox;
+        this.jobs = jobs;
+        this.agreementClient = agreementClient;
+        this.autoCreate = autoCreate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.created = Counter.builder("extraction.drafts").tag("outcome", "created").register(meterRegistry);
+        this.rejected = Counter.builder("extraction.drafts").tag("outcome", "rejected").register(meterRegistry);
+        this.retried = Counter.builder("extraction.drafts").tag("outcome", "retry").register(meterRegistry);
+    }
+
+    /** Whether a job started with createDraft = {@code requested} gets a draft. */
+    public boolean wanted(Boolean requested) {
+        return requested == null ? autoCreate : requested;
+    }
+
+    /**
+     * Adds outbox rows for the DONE jobs that asked for a draft. Runs inside the result writer's transaction.
+     */
+    public void enqueue(List<ExtractionJobEntity> done, Instant now) {
+        List<ExtractionJobEntity> wanted = done.stream()
+                .filter(j -> j.getStatus() == ExtractionStatus.DONE && Boolean.TRUE.equals(j.getCreateDraft()))
+                .toList();
+        if (wanted.isEmpty()) return;
+
+        Set<String> present = outbox.findByJobKeyIn(wanted.stream().map(ExtractionJobEntity::getJobKey).toList())
+                .stream().map(DraftOutboxEntity::getJobKey).collect(Collectors.toSet());
+        List<DraftOutboxEntity> rows = new ArrayList<>();
+        for (ExtractionJobEntity job : wanted) {
+            if (present.contains(job.getJobKey())) continue;
+            rows.add(DraftOutboxEntity.builder()
+                    .jobKey(job.getJobKey())
+                    .agreementId(job.getAgreementId())
+                    .status(DraftStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        outbox.saveAll(rows);
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.drafts.relay-interval-ms:2000}")
+    public void relay() {
+        List<DraftOutboxEntity> due;
+        try {
+            due = outbox.findDue(DraftStatus.PENDING, Instant.now(), PageRequest.of(0, batchSize));
+        } catch (RuntimeException ex) {
+            log.warn("Could not read the draft outbox", ex);
+            return;
+        }
+        if (due.isEmpty()) return;
+
+        Map<String, ExtractionJobEntity> byKey = jobs.findByJobKeyIn(due.stream().map(DraftOutboxEntity::getJobKey).toList())
+                .stream()
+                .collect(Collectors.toMap(ExtractionJobEntity::getJobKey, Function.identity()));
+
+        Instant now = Instant.now();
+        List<AgreementDraft> drafts = new ArrayList<>(due.size());
+        List<DraftOutboxEntity> sent = new ArrayList<>(due.size());
+        for (DraftOutboxEntity row : due) {
+            ExtractionJobEntity job = byKey.get(row.getJobKey());
+            if (job == null || job.getStatus() != ExtractionStatus.DONE || job.getResultJson() == null) {
+                finish(row, DraftStatus.FAILED, null, "Extraction job has no result", now);
+                continue;
+            }
+            drafts.add(new AgreementDraft(row.getJobKey(), row.getAgreementId(), job.getResultJson()));
+            sent.add(row);
+        }
+
+        if (!drafts.isEmpty()) {
+            try {
+                Map<String, AgreementDraftResult> results = agreementClient.createDrafts(drafts).stream()
+                        .collect(Collectors.toMap(AgreementDraftResult::sourceKey, Function.identity(), (a, b) -> a));
+                for (DraftOutboxEntity row : sent) {
+                    AgreementDraftResult r = results.get(row.getJobKey());
+                    if (r == null) {
+                        reschedule(row, "No result from agreement-service", now);
+                    } else if (r.isCreated()) {
+                        finish(row, DraftStatus.CREATED, r.versionId(), null, now);
+                        created.increment();
+                    } else {
+                        // unknown agreement or unusable body: resending the same draft cannot succeed
+                        finish(row, DraftStatus.FAILED, null, r.status() + (r.error() == null ? "" : ": " + r.error()), now);
+                        rejected.increment();
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Bulk draft creation of {} draft(s) failed; retrying with backoff", sent.size(), ex);
+                for (DraftOutboxEntity row : sent) reschedule(row, ex.getMessage(), now);
+            }
+        }
+        outbox.saveAll(due);
+    }
+
+    /** Draft state of a job. */
+    public DraftOutboxResponse status(String jobKey) {
+        return outbox.findByJobKey(jobKey)
+                .map(AgreementDraftOutbox::toResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No draft requested for job: " + jobKey));
+    }
+
+    /**
+     * Requests (or re-requests) the draft of a DONE job, e.g. after it FAILED or when the job was started
+     * without createDraft. A draft already CREATED is returned as is.
+     */
+    public DraftOutboxResponse request(ExtractionJobEntity job) {
+        if (job.getStatus() != ExtractionStatus.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Drafts can only be created from DONE extraction jobs (status=" + job.getStatus() + ")");
+        }
+        Instant now = Instant.now();
+        DraftOutboxEntity row = outbox.findByJobKey(job.getJobKey()).orElseGet(() -> DraftOutboxEntity.builder()
+                .jobKey(job.getJobKey())
+                .agreementId(job.getAgreementId())
+                .createdAt(now)
+                .build());
+        if (row.getStatus() != DraftStatus.CREATED) {
+            row.setStatus(DraftStatus.PENDING);
+            row.setAttempts(0);
+            row.setNextAttemptAt(now);
+            row.setLastError(null);
+            row.setUpdatedAt(now);
+            row = outbox.save(row);
+        }
+        return toResponse(row);
+    }
+
+    private void reschedule(DraftOutboxEntity row, String error, Instant now) {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        row.setLastError(truncate(error));
+        row.setUpdatedAt(now);
+        if (attempts >= maxAttempts) {
+            row.setStatus(DraftStatus.FAILED);
+            log.warn("Draft for job {} failed after {} attempt(s): {}", row.getJobKey(), attempts, error);
+            return;
+        }
+        long delayMs = Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(attempts - 1, 20));
+        row.setNextAttemptAt(now.plusMillis(delayMs));
+        retried.increment();
+    }
+
+    private static void finish(DraftOutboxEntity row, DraftStatus status, Long versionId, String error, Instant now) {
+        row.setStatus(status);
+        row.setAttempts(row.getAttempts() + 1);
+        row.setVersionId(versionId);
+        row.setLastError(truncate(error));
+        row.setUpdatedAt(now);
+    }
+
+    private static String truncate(String s) {
+        return s == null || s.length() <= 512 ? s : s.substring(0, 512);
+    }
+
+    private static DraftOutboxResponse toResponse(DraftOutboxEntity row) {
+        return new DraftOutboxResponse(
+                row.getJobKey(),
+                row.getAgreementId(),
+                row.getStatus(),
+                row.getAttempts(),
+                row.getVersionId(),
+                row.getLastError(),
+                row.getNextAttemptAt(),
+                row.getUpdatedAt()
+        );
+    }
+}
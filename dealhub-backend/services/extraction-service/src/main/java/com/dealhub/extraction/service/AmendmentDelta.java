@@ -0,0 +1,159 @@
+package com.dealhub.extraction.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies what an amendment extracted to the base agreement and reports the difference field by field.
+ *
+ * A leaf is a scalar or a {@code {"value", "citation", "evidence"}} object. A leaf of the amendment replaces
+ * the base leaf only when it has a value and the value differs; a leaf the amendment leaves empty keeps the
+ * base value, since an amendment that does not mention a term does not remove it. Arrays (lenders, margin
+ * rows, interest periods) are replaced as a whole when the amendment states one, as amendments restate
+ * tables rather than patch single rows.
+ */
+public final class AmendmentDelta {
+
+    public static final String ADDED = "ADDED";
+    public static final String CHANGED = "CHANGED";
+
+    // filled from the job, not from the extraction
+    private static final Set<String> NOT_AMENDABLE = Set.of("profile", "documentId", "agreementId", "validationAndGaps", "amendment");
+
+    /**
+     * @param path JSON pointer of the leaf or array, e.g. {@code /keyDates/maturityDate}
+     * @param change {@link #ADDED} (the base had no value) or {@link #CHANGED}
+     */
+    public record FieldChange(String path, String change, JsonNode before, JsonNode after) {}
+
+    public record Result(ObjectNode merged, List<FieldChange> changes) {
+
+        public ArrayNode changesJson() {
+            ArrayNode out = JsonNodeFactory.instance.arrayNode();
+            for (FieldChange c : changes) {
+                ObjectNode row = out.addObject();
+                row.put("path", c.path());
+                row.put("change", c.change());
+                row.set("before", c.before());
+                row.set("after", c.after());
+            }
+            return out;
+        }
+    }
+
+    private AmendmentDelta() {}
+
+    /** Folds the per-chunk extracts of the amendment into one: objects merged, arrays appended, later values win. */
+    public static ObjectNode combine(List<JsonNode> extracts) {
+        ObjectNode out = JsonNodeFactory.instance.objectNode();
+        for (JsonNode extract : extracts) {
+            if (extract instanceof ObjectNode obj) combineInto(out, obj);
+        }
+        out.remove("_chunkIndex");
+        return out;
+    }
+
+    private static void combineInto(ObjectNode target, ObjectNode patch) {
+        patch.properties().forEach(e -> {
+            JsonNode existing = target.get(e.getKey());
+            JsonNode value = e.getValue();
+            if (existing instanceof ObjectNode o && value.isObject() && !isLeaf(value)) {
+                combineInto(o, (ObjectNode) value);
+            } else if (existing instanceof ArrayNode a && value.isArray()) {
+                a.addAll((ArrayNode) value);
+            } else if (existing == null || hasValue(value)) {
+                target.set(e.getKey(), value.deepCopy());
+            }
+        });
+    }
+
+    /** The base with the amendment applied (the base itself is not modified), and what changed. */
+    public static Result apply(JsonNode base, ObjectNode amendment) {
+        ObjectNode merged = base instanceof ObjectNode obj ? obj.deepCopy() : JsonNodeFactory.instance.objectNode();
+        List<FieldChange> changes = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> e : amendment.properties()) {
+            if (NOT_AMENDABLE.contains(e.getKey()) || e.getKey().startsWith("_")) continue;
+            applyField(merged, e.getKey(), e.getValue(), "/" + escape(e.getKey()), changes);
+        }
+        return new Result(merged, changes);
+    }
+
+    private static void applyField(ObjectNode target, String key, JsonNode value, String path, List<FieldChange> changes) {
+        JsonNode before = target.get(key);
+
+        if (value.isObject() && !isLeaf(value)) {
+            ObjectNode into = before instanceof ObjectNode o && !isLeaf(o) ? o : null;
+            for (Map.Entry<String, JsonNode> e : value.properties()) {
+                if (into == null) {
+                    // the base has nothing here: create the object only if the amendment states something in it
+                    if (!hasValue(e.getValue())) continue;
+                    into = target.putObject(key);
+                }
+                applyField(into, e.getKey(), e.getValue(), path + "/" + escape(e.getKey()), changes);
+            }
+            return;
+        }
+
+        if (!hasValue(value) || sameValues(before, value)) return;
+
+        changes.add(new FieldChange(path, hasValue(before) ? CHANGED : ADDED, before == null ? null : before.deepCopy(), value));
+        target.set(key, value.deepCopy());
+    }
+
+    // {"value": ..., "citation": ..., "evidence": ...}
+    private static boolean isLeaf(JsonNode node) {
+        return !node.isContainerNode() || (node.isObject() && node.has("value"));
+    }
+
+    private static boolean hasValue(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) return false;
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                if (hasValue(element)) return true;
+            }
+            return false;
+        }
+        if (node.isObject() && node.has("value")) return hasValue(node.get("value"));
+        if (node.isObject()) {
+            for (JsonNode child : node) {
+                if (hasValue(child)) return true;
+            }
+            return false;
+        }
+        return !node.isTextual() || !node.asText().isBlank();
+    }
+
+    // compares what was extracted, not where it was found: a restated term with a new citation is unchanged
+    private static boolean sameValues(JsonNode a, JsonNode b) {
+        return a != null && valuesOf(a).equals(valuesOf(b));
+    }
+
+    private static JsonNode valuesOf(JsonNode node) {
+        if (node.isObject() && node.has("value")) return valuesOf(node.get("value"));
+        if (node.isTextual()) return JsonNodeFactory.instance.textNode(node.asText().strip());
+        if (node.isArray()) {
+            ArrayNode out = JsonNodeFactory.instance.arrayNode();
+            node.forEach(element -> out.add(valuesOf(element)));
+            return out;
+        }
+        if (node.isObject()) {
+            ObjectNode out = JsonNodeFactory.instance.objectNode();
+            node.properties().forEach(e -> {
+                if (!"citation".equals(e.getKey()) && !"evidence".equals(e.getKey())) out.set(e.getKey(), valuesOf(e.getValue()));
+            });
+            return out;
+        }
+        return node;
+    }
+
+    private static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+}
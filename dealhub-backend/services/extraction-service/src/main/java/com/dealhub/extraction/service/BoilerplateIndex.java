@@ -0,0 +1,303 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ChunkFingerprintEntity;
+import com.dealhub.extraction.repository.ChunkFingerprintRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cross-document index of chunk SimHashes, used to spot boilerplate (standard LMA definitions,
+ * representations, events of default) that PASS 1 keeps extracting nothing from.
+ *
+ * Every chunk PASS 1 actually runs on is recorded with whether it yielded any value. A new chunk whose
+ * fingerprint is within hamming-threshold bits of fingerprints that were empty at least min-observations
+ * times, and never productive, is boilerplate. What happens then depends on the mode: OFF ignores the
+ * index, SHADOW only counts the hits (to tune the threshold before acting on it), SKIP drops the chunk and
+ * TRIAGE asks a short yes/no prompt first.
+ *
+ * Near neighbours are found with the pigeonhole trick: two fingerprints at most k bits apart agree exactly
+ * on at least one of k + 1 bands, so only entries sharing a band are compared. The index lives in memory,
+ * is persisted in extraction_chunk_fingerprints and reloaded periodically to pick up other replicas' work.
+ */
+@Component
+public class BoilerplateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BoilerplateIndex.class);
+
+    public enum Mode { OFF, SHADOW, SKIP, TRIAGE }
+
+    /** What PASS 1 should do with a chunk. */
+    public enum Verdict { EXTRACT, SKIP, TRIAGE }
+
+    private static final class Entry {
+        final long fingerprint;
+        int empty;
+        int productive;
+
+        Entry(long fingerprint, int empty, int productive) {
+            this.fingerprint = fingerprint;
+            this.empty = empty;
+            this.productive = productive;
+        }
+    }
+
+    // fingerprints of one schema; guarded by its own monitor
+    private final class Table {
+        final Map<Long, Entry> entries = new HashMap<>();
+        final List<Map<Long, List<Entry>>> bands = new ArrayList<>();
+        // entries across all tables of one generation of the index
+        final AtomicInteger generationSize;
+
+        Table(AtomicInteger generationSize) {
+            this.generationSize = generationSize;
+            for (int b = 0; b < bandCount; b++) bands.add(new HashMap<>());
+        }
+
+        synchronized Entry add(long fp, int empty, int productive) {
+            Entry e = entries.get(fp);
+            if (e != null) {
+                e.empty += empty;
+                e.productive += productive;
+                return e;
+            }
+            if (generationSize.incrementAndGet() > maxEntries) {
+                generationSize.decrementAndGet();
+                return null;
+            }
+
+            e = new Entry(fp, empty, productive);
+            entries.put(fp, e);
+            for (int b = 0; b < bandCount; b++) {
+                bands.get(b).computeIfAbsent(band(fp, b), k -> new ArrayList<>()).add(e);
+            }
+            return e;
+        }
+
+        /** {nearest distance, empty observations, productive observations} of entries within the threshold. */
+        synchronized int[] neighbours(long fp) {
+            int nearest = Integer.MAX_VALUE;
+            int empty = 0;
+            int productive = 0;
+            Map<Long, Boolean> seen = new HashMap<>();
+            for (int b = 0; b < bandCount; b++) {
+                List<Entry> candidates = bands.get(b).get(band(fp, b));
+                if (candidates == null) continue;
+                for (Entry e : candidates) {
+                    if (seen.putIfAbsent(e.fingerprint, Boolean.TRUE) != null) continue;
+                    int d = SimHash.distance(fp, e.fingerprint);
+                    nearest = Math.min(nearest, d);
+                    if (d <= threshold) {
+                        empty += e.empty;
+                        productive += e.productive;
+                    }
+                }
+            }
+            return new int[]{nearest, empty, productive};
+        }
+    }
+
+    private final ChunkFingerprintRepository repository;
+    private final Mode mode;
+    private final int threshold;
+    private final int minObservations;
+    private final int maxEntries;
+    private final int bandCount;
+
+    private volatile Map<String, Table> tables = new ConcurrentHashMap<>();
+    private volatile AtomicInteger size = new AtomicInteger();
+
+    private final Counter lookups;
+    private final Counter shadowHits;
+    private final Counter skipped;
+    private final Counter triaged;
+    private final Counter triageExtractable;
+    private final Counter triageEmpty;
+    private final DistributionSummary nearestDistance;
+
+    public BoilerplateIndex(
+            ChunkFingerprintRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.boilerplate.mode:shadow}") String mode,
+            @Value("${dealhub.extraction.boilerplate.hamming-threshold:3}") int threshold,
+            @Value("${dealhub.extraction.boilerplate.min-observations:2}") int minObservations,
+            @Value("${dealhub.extraction.boilerplate.max-entries:200000}") int maxEntries
+    ) {
+        this.repository = repository;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.threshold = Math.max(0, Math.min(threshold, 15));
+        this.minObservations = Math.max(1, minObservations);
+        this.maxEntries = maxEntries;
+        this.bandCount = this.threshold + 1;
+
+        this.lookups = Counter.builder("extraction.boilerplate.lookups").register(meterRegistry);
+        this.shadowHits = hits(meterRegistry, "shadow");
+        this.skipped = hits(meterRegistry, "skipped");
+        this.triaged = hits(meterRegistry, "triaged");
+        this.triageExtractable = Counter.builder("extraction.boilerplate.triage").tag("outcome", "extractable").register(meterRegistry);
+        this.triageEmpty = Counter.builder("extraction.boilerplate.triage").tag("outcome", "empty").register(meterRegistry);
+        // distance to the nearest known fingerprint sharing a band: where to put the threshold
+        this.nearestDistance = DistributionSummary.builder("extraction.boilerplate.nearest.distance")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("extraction.boilerplate.index.size", this, BoilerplateIndex::size).register(meterRegistry);
+    }
+
+    private static Counter hits(MeterRegistry registry, String action) {
+        return Counter.builder("extraction.boilerplate.hits").tag("action", action).register(registry);
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    public static String schemaKey(String schema) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(schema.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Verdict classify(String schemaKey, long fingerprint) {
+        if (mode == Mode.OFF) return Verdict.EXTRACT;
+        lookups.increment();
+
+        Table table = tables.get(schemaKey);
+        if (table == null) return Verdict.EXTRACT;
+
+        int[] n = table.neighbours(fingerprint);
+        if (n[0] != Integer.MAX_VALUE) nearestDistance.record(n[0]);
+        boolean boilerplate = n[2] == 0 && n[1] >= minObservations;
+        if (!boilerplate) return Verdict.EXTRACT;
+
+        return switch (mode) {
+            case SKIP -> {
+                skipped.increment();
+                yield Verdict.SKIP;
+            }
+            case TRIAGE -> {
+                triaged.increment();
+                yield Verdict.TRIAGE;
+            }
+            default -> {
+                shadowHits.increment();
+                yield Verdict.EXTRACT;
+            }
+        };
+    }
+
+    public void triageOutcome(boolean extractable) {
+        (extractable ? triageExtractable : triageEmpty).increment();
+    }
+
+    /** Records what a full PASS 1 call made of the chunk. */
+    public void record(String schemaKey, long fingerprint, JsonNode extraction, long documentId) {
+        if (mode == Mode.OFF) return;
+        boolean empty = !hasValues(extraction);
+        int emptyDelta = empty ? 1 : 0;
+        int productiveDelta = empty ? 0 : 1;
+
+        AtomicInteger generation = size;
+        tables.computeIfAbsent(schemaKey, k -> new Table(generation)).add(fingerprint, emptyDelta, productiveDelta);
+
+        try {
+            Instant now = Instant.now();
+            if (repository.increment(schemaKey, fingerprint, emptyDelta, productiveDelta, now) == 0) {
+                try {
+                    repository.save(ChunkFingerprintEntity.builder()
+                            .schemaKey(schemaKey)
+                            .fingerprint(fingerprint)
+                            .emptyCount(emptyDelta)
+                            .productiveCount(productiveDelta)
+                            .firstDocumentId(documentId)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build());
+                } catch (DataIntegrityViolationException race) {
+                    repository.increment(schemaKey, fingerprint, emptyDelta, productiveDelta, now);
+                }
+            }
+        } catch (RuntimeException ex) {
+            // the in-memory index still has it; losing one observation is harmless
+            log.warn("Could not persist chunk fingerprint", ex);
+        }
+    }
+
+    /** Loads the most recently updated fingerprints; also picks up other replicas' observations. */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${dealhub.extraction.boilerplate.reload-interval-ms:600000}",
+            initialDelayString = "${dealhub.extraction.boilerplate.reload-interval-ms:600000}")
+    public void reload() {
+        if (mode == Mode.OFF) return;
+        try {
+            Map<String, Table> fresh = new ConcurrentHashMap<>();
+            AtomicInteger freshSize = new AtomicInteger();
+            Iterator<ChunkFingerprintEntity> rows = repository
+                    .findAll(PageRequest.of(0, maxEntries, Sort.by(Sort.Direction.DESC, "updatedAt")))
+                    .iterator();
+            while (rows.hasNext()) {
+                ChunkFingerprintEntity f = rows.next();
+                fresh.computeIfAbsent(f.getSchemaKey(), k -> new Table(freshSize))
+                        .add(f.getFingerprint(), f.getEmptyCount(), f.getProductiveCount());
+            }
+            size = freshSize;
+            tables = fresh;
+        } catch (RuntimeException ex) {
+            log.warn("Could not load chunk fingerprints; keeping the current index", ex);
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private long band(long fp, int b) {
+        int from = b * 64 / bandCount;
+        int to = (b + 1) * 64 / bandCount;
+        long mask = to - from == 64 ? -1L : (1L << (to - from)) - 1;
+        return (fp >>> from) & mask;
+    }
+
+    // any populated leaf outside the bookkeeping fields counts as extracted
+    static boolean hasValues(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) return false;
+        if (node.isValueNode()) return !(node.isTextual() && node.asText().isBlank());
+        for (Map.Entry<String, JsonNode> f : node.properties()) {
+            if (f.getKey().startsWith("_")) continue;
+            if (hasValues(f.getValue())) return true;
+        }
+        if (node.isArray()) {
+            for (JsonNode item : node) {
+                if (hasValues(item)) return true;
+            }
+        }
+        return false;
+    }
+}
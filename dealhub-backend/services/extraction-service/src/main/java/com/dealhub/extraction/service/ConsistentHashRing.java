@@ -0,0 +1,70 @@
+package com.dealhub.extraction.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable hash ring with virtual nodes. Adding or removing a node only moves the keys of the ring
+ * segments it owns, so the other nodes keep their warm documents.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        Set<String> distinct = new LinkedHashSet<>(nodeIds);
+        for (String node : distinct) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash(node + "#" + v), node);
+            }
+        }
+        this.nodeCount = distinct.size();
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /**
+     * All nodes in preference order for the key: the owner first, then the successors clockwise.
+     * The second entry is where work goes when the owner is overloaded.
+     */
+    public List<String> preferenceList(String key) {
+        List<String> out = new ArrayList<>(nodeCount);
+        if (ring.isEmpty()) return out;
+
+        Set<String> seen = new LinkedHashSet<>();
+        long h = hash(key);
+        for (Map.Entry<Long, String> e : ring.tailMap(h, true).entrySet()) {
+            if (seen.add(e.getValue()) && seen.size() == nodeCount) break;
+        }
+        if (seen.size() < nodeCount) {
+            for (Map.Entry<Long, String> e : ring.headMap(h, false).entrySet()) {
+                if (seen.add(e.getValue()) && seen.size() == nodeCount) break;
+            }
+        }
+        out.addAll(seen);
+        return out;
+    }
+
+    private static long hash(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) h = (h << 8) | (d[i] & 0xFF);
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
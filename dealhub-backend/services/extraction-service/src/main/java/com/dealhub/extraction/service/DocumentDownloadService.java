@@ -1,48 +1,139 @@
 package com.dealhub.extraction.service;
 
+import com.dealhub.extraction.client.DocumentClient;
+import com.dealhub.extraction.dto.DownloadGrant;
+import com.dealhub.extraction.dto.TextLayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 
 @Service
 public class DocumentDownloadService {
 
+    private static final Logger log = LoggerFactory.getLogger(DocumentDownloadService.class);
+
+    private static final Duration GRANT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration TEXT_LAYER_TIMEOUT = Duration.ofSeconds(30);
+
     private final WebClient webClient;
+    private final DocumentClient documentClient;
+    private final TempFileManager tempFiles;
+    private final boolean direct;
+    private final boolean useTextLayer;
 
-    public DocumentDownloadService(WebClient webClient) {
+    public DocumentDownloadService(
+            WebClient webClient,
+            DocumentClient documentClient,
+            TempFileManager tempFiles,
+            @Value("${dealhub.extraction.download.direct:true}") boolean direct,
+            @Value("${dealhub.extraction.text-layer.enabled:true}") boolean useTextLayer
+    ) {
         this.webClient = webClient;
+        this.documentClient = documentClient;
+        this.tempFiles = tempFiles;
+        this.direct = direct;
+        this.useTextLayer = useTextLayer;
     }
 
-    public Path downloadToTempFile(Long documentId, String authorizationHeader) {
+    /**
+     * A download grant for direct fetches from document-service, asked for when the job actually runs so a
+     * user token that expired while the job was queued does not matter. Null in gateway mode, and when no
+     * grant can be had but the user's token can still be used through the gateway.
+     */
+    public DownloadGrant grant(Long documentId, String authorizationHeader) {
+        if (!direct) return null;
         try {
-            Path tmp = Files.createTempFile("dealhub-doc-" + documentId + "-", ".pdf");
+            return documentClient.downloadGrant(documentId).block(GRANT_TIMEOUT);
+        } catch (RuntimeException e) {
+            if (authorizationHeader == null) throw e;
+            log.warn("No download grant for document {}; falling back to the gateway: {}", documentId, e.getMessage());
+            return null;
+        }
+    }
 
-            webClient.get()
-                    .uri("/documents/{id}/download", documentId)
-                    .header(HttpHeaders.AUTHORIZATION, authorizationHeader)
-                    .retrieve()
-                    .bodyToFlux(DataBuffer.class)
-                    .as(data -> DataBufferUtils.write(data, tmp, StandardOpenOption.TRUNCATE_EXISTING))
-                    .then()
-                    .block();
+    /**
+     * The text layer document-service parsed at upload, or null when there is none (yet) or it cannot be
+     * used; the caller then downloads and parses the PDF.
+     */
+    public TextLayer textLayer(DownloadGrant grant) {
+        if (!useTextLayer || grant == null) return null;
+        try {
+            TextLayer layer = documentClient.textLayer(grant).block(TEXT_LAYER_TIMEOUT);
+            if (layer == null || !layer.isUsable()) return null;
+            if (grant.sha256() != null && !grant.sha256().equals(layer.sha256())) return null;
+            return layer;
+        } catch (RuntimeException e) {
+            log.warn("Text layer of document {} unavailable: {}", grant.documentId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Streams the document into the managed temp directory; waits while the temp disk quota is used up.
+     * With a grant the bytes come straight from document-service, otherwise through the gateway with the
+     * user's token.
+     */
+    public Path downloadToTempFile(Long documentId, String authorizationHeader, DownloadGrant grant)
+            throws InterruptedException {
+        // the grant knows the size up front; through the gateway it is reserved again from Content-Length
+        long expectedBytes = grant != null && grant.sizeBytes() != null ? grant.sizeBytes() : -1;
+        Path tmp = tempFiles.create("dealhub-doc-" + documentId + "-", ".pdf", expectedBytes);
+        try {
+            Flux<DataBuffer> body;
+            if (grant != null) {
+                body = documentClient.download(grant);
+            } else {
+                ResponseEntity<Flux<DataBuffer>> response = webClient.get()
+                        .uri("/documents/{id}/download", documentId)
+                        .header(HttpHeaders.AUTHORIZATION, authorizationHeader)
+                        .retrieve()
+                        .toEntityFlux(DataBuffer.class)
+                        .block();
+                if (response == null || response.getBody() == null) {
+                    throw new IllegalStateException("Empty download response for document " + documentId);
+                }
+                body = response.getBody();
+                long contentLength = response.getHeaders().getContentLength();
+                try {
+                    if (contentLength > 0) tempFiles.reserve(tmp, contentLength);
+                } catch (InterruptedException | RuntimeException e) {
+                    body.subscribe().dispose(); // frees the connection
+                    throw e;
+                }
+            }
+
+            DataBufferUtils.write(body, tmp, StandardOpenOption.TRUNCATE_EXISTING).block();
 
+            if (grant != null && grant.sizeBytes() != null && Files.size(tmp) != grant.sizeBytes()) {
+                throw new IllegalStateException("Downloaded " + Files.size(tmp) + " bytes of document " + documentId
+                        + ", expected " + grant.sizeBytes());
+            }
+            tempFiles.commit(tmp);
             return tmp;
         } catch (IOException e) {
-            throw new RuntimeException("Failed creating temp file for document " + documentId, e);
+            tempFiles.release(tmp);
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException | RuntimeException e) {
+            tempFiles.release(tmp);
+            throw e;
         }
     }
 
     public void safeDelete(Path path) {
-        if (path == null) return;
-        try {
-            Files.deleteIfExists(path);
-        } catch (Exception ignored) {}
+        tempFiles.release(path);
     }
 }
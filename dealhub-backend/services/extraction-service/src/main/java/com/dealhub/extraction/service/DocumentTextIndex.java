@@ -0,0 +1,199 @@
+package com.dealhub.extraction.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-document substring index used to check that LLM "evidence" quotes really occur in the PDF text.
+ *
+ * The text of every page is normalized (case, quotes, dashes, whitespace) and concatenated; a suffix
+ * array over the result answers "does this quote occur, and where" in O(m log n) without scanning
+ * the document, and the page-offset table turns a match offset into a 1-based page number.
+ */
+public final class DocumentTextIndex {
+
+    private final List<String> pages;
+    private final char[] text;
+    private final int[] pageStarts;
+    private final int[] suffixArray;
+
+    private DocumentTextIndex(List<String> pages, char[] text, int[] pageStarts) {
+        this.pages = pages;
+        this.text = text;
+        this.pageStarts = pageStarts;
+        this.suffixArray = buildSuffixArray(text);
+    }
+
+    public static DocumentTextIndex of(List<String> pages) {
+        List<String> safePages = pages == null ? List.of() : List.copyOf(pages);
+
+        StringBuilder sb = new StringBuilder();
+        int[] starts = new int[safePages.size()];
+        for (int i = 0; i < safePages.size(); i++) {
+            // always separate, so every page (blank ones included) starts at its own offset
+            if (i > 0) sb.append(' ');
+            starts[i] = sb.length();
+            sb.append(normalize(safePages.get(i)));
+        }
+
+        char[] chars = new char[sb.length()];
+        sb.getChars(0, sb.length(), chars, 0);
+        return new DocumentTextIndex(safePages, chars, starts);
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    /** Original (non-normalized) text of a 1-based page, or "" when out of range. */
+    public String pageText(int page) {
+        if (page < 1 || page > pages.size()) return "";
+        return pages.get(page - 1);
+    }
+
+    /**
+     * Offset of the first occurrence of the quote in the normalized text, or -1 if it does not occur.
+     * The suffixes starting with the quote are one contiguous range of the suffix array, sorted by text rather
+     * than by position, so the whole range is scanned for the smallest offset.
+     */
+    public int find(String quote) {
+        String q = normalize(quote);
+        if (q.isEmpty() || q.length() > text.length) return -1;
+
+        // lowest suffix-array index whose suffix is >= the quote
+        int lo = 0;
+        int hi = suffixArray.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(suffixArray[mid], q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+
+        int first = -1;
+        for (int i = lo; i < suffixArray.length && comparePrefix(suffixArray[i], q) == 0; i++) {
+            if (first < 0 || suffixArray[i] < first) first = suffixArray[i];
+        }
+        return first;
+    }
+
+    public boolean contains(String quote) {
+        return find(quote) >= 0;
+    }
+
+    /** 1-based page containing the given normalized-text offset, or -1. */
+    public int pageAt(int offset) {
+        if (offset < 0 || pageStarts.length == 0) return -1;
+        int idx = Arrays.binarySearch(pageStarts, offset);
+        if (idx < 0) idx = -idx - 2;
+        return Math.max(idx, 0) + 1;
+    }
+
+    /** 1-based page of the first occurrence of the quote, or -1 if it does not occur. */
+    public int pageOf(String quote) {
+        return pageAt(find(quote));
+    }
+
+    /**
+     * Lowercases and folds typographic variants so that a quote copied by the LLM matches the PDF text
+     * even when quotes, dashes, ligatures or line wrapping differ.
+     */
+    public static String normalize(String raw) {
+        if (raw == null || raw.isEmpty()) return "";
+        String s = Normalizer.normalize(raw, Normalizer.Form.NFKC);
+
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\u00AD' || c == '\u200B' || c == '\uFEFF') continue;
+
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(fold(c));
+        }
+        return sb.toString();
+    }
+
+    private static char fold(char c) {
+        return switch (c) {
+            case '\u2018', '\u2019', '\u201A', '\u2032' -> '\'';
+            case '\u201C', '\u201D', '\u201E', '\u2033' -> '"';
+            case '\u2010', '\u2011', '\u2012', '\u2013', '\u2014', '\u2212' -> '-';
+            default -> Character.toLowerCase(c);
+        };
+    }
+
+    private int comparePrefix(int suffix, String q) {
+        int n = Math.min(q.length(), text.length - suffix);
+        for (int i = 0; i < n; i++) {
+            char a = text[suffix + i];
+            char b = q.charAt(i);
+            if (a != b) return a < b ? -1 : 1;
+        }
+        return n == q.length() ? 0 : -1;
+    }
+
+    /**
+     * Prefix-doubling suffix array construction with counting sorts: O(n log n) time, four int[n] arrays.
+     */
+    private static int[] buildSuffixArray(char[] s) {
+        int n = s.length;
+        int[] sa = new int[n];
+        if (n == 0) return sa;
+
+        int[] rank = new int[n];
+        int[] tmp = new int[n];
+
+        // compact alphabet so the first counting sort stays small
+        int[] alphabet = new int[Character.MAX_VALUE + 1];
+        for (char c : s) alphabet[c] = 1;
+        int m = 0;
+        for (int c = 0; c < alphabet.length; c++) {
+            if (alphabet[c] != 0) alphabet[c] = m++;
+        }
+
+        int[] count = new int[Math.max(m, n) + 1];
+        for (int i = 0; i < n; i++) count[rank[i] = alphabet[s[i]]]++;
+        for (int i = 1; i < m; i++) count[i] += count[i - 1];
+        for (int i = n - 1; i >= 0; i--) sa[--count[rank[i]]] = i;
+
+        for (int k = 1; ; k <<= 1) {
+            // order by second key: suffixes without a second half first, then by previous order
+            int p = 0;
+            for (int i = Math.max(0, n - k); i < n; i++) tmp[p++] = i;
+            for (int i = 0; i < n; i++) if (sa[i] >= k) tmp[p++] = sa[i] - k;
+
+            // stable counting sort by first key
+            Arrays.fill(count, 0, m, 0);
+            for (int i = 0; i < n; i++) count[rank[i]]++;
+            for (int i = 1; i < m; i++) count[i] += count[i - 1];
+            for (int i = n - 1; i >= 0; i--) sa[--count[rank[tmp[i]]]] = tmp[i];
+
+            // re-rank
+            tmp[sa[0]] = 0;
+            p = 1;
+            for (int i = 1; i < n; i++) {
+                int a = sa[i - 1];
+                int b = sa[i];
+                int a2 = a + k < n ? rank[a + k] : -1;
+                int b2 = b + k < n ? rank[b + k] : -1;
+                tmp[b] = (rank[a] == rank[b] && a2 == b2) ? p - 1 : p++;
+            }
+            int[] swap = rank;
+            rank = tmp;
+            tmp = swap;
+
+            if (p >= n) break;
+            m = p;
+        }
+        return sa;
+    }
+}
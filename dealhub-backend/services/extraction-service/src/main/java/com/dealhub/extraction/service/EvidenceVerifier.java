@@ -0,0 +1,201 @@
+package com.dealhub.extraction.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Checks every {value, citation, evidence} leaf against the document text and attaches the page
+ * the evidence was found on. Leaves whose evidence is not a verbatim quote get one targeted re-ask
+ * against the pages where the value appears; if that still fails the leaf is cleared and reported
+ * under validationAndGaps.notes.
+ */
+@Component
+public class EvidenceVerifier {
+
+    // LLMs shorten long quotes with an ellipsis; each fragment must still be verbatim
+    private static final Pattern ELLIPSIS = Pattern.compile("\\s*(?:\\.\\.\\.|\u2026)\\s*");
+    private static final int MIN_FRAGMENT_CHARS = 4;
+    private static final String QUOTE_CHARS = "\"'\u201C\u201D\u2018\u2019";
+
+    private final LlmFacilityAgreementExtractor llmExtractor;
+    private final int maxReasks;
+
+    public EvidenceVerifier(
+            LlmFacilityAgreementExtractor llmExtractor,
+            @Value("${dealhub.extraction.evidence.max-reasks:8}") int maxReasks
+    ) {
+        this.llmExtractor = llmExtractor;
+        this.maxReasks = maxReasks;
+    }
+
+    public record Finding(String pointer, String evidence) {}
+
+    public record Report(int checked, int verified, List<Finding> unverified) {}
+
+    /**
+     * Verifies all evidence quotes in place: verified leaves get a "page" number, unverified ones are returned.
+     */
+    public Report verify(JsonNode root, DocumentTextIndex index) {
+        List<Finding> unverified = new ArrayList<>();
+        int[] counts = new int[2];
+        walk(root, "", index, unverified, counts);
+        return new Report(counts[0], counts[1], unverified);
+    }
+
+    /**
+     * {@link #verify} followed by a targeted re-ask for each hallucinated quote (bounded by max-reasks).
+     */
+    public Report verifyAndRepair(ExtractionJobHandle job, ObjectNode root, DocumentTextIndex index) throws Exception {
+        return repair(job, root, index, verify(root, index));
+    }
+
+    /**
+     * Re-asks the leaves {@link #verify} reported as unverified. Split from verification so the pipeline can
+     * run the CPU-bound check and the LLM-bound repair on different stages.
+     */
+    public Report repair(ExtractionJobHandle job, ObjectNode root, DocumentTextIndex index, Report first) throws Exception {
+        if (first.unverified().isEmpty()) return first;
+
+        List<Finding> stillUnverified = new ArrayList<>();
+        int reasks = 0;
+
+        for (Finding f : first.unverified()) {
+            JsonNode leaf = root.at(f.pointer());
+            int page = locate(leaf, index);
+
+            JsonNode repaired = null;
+            if (page > 0 && reasks < maxReasks) {
+                job.throwIfCancelled();
+                reasks++;
+                int last = Math.min(page + 1, index.pageCount());
+                StringBuilder context = new StringBuilder();
+                for (int p = page; p <= last; p++) {
+                    context.append(index.pageText(p)).append("\n\n");
+                }
+                repaired = llmExtractor.reaskField(job, f.pointer(), leaf, page, last, context.toString());
+            }
+
+            if (repaired != null && repaired.isObject() && verifyLeaf((ObjectNode) repaired, index)) {
+                replace(root, f.pointer(), repaired);
+            } else {
+                if (leaf.isObject()) clearLeaf((ObjectNode) leaf);
+                stillUnverified.add(f);
+                addNote(root, "Evidence for " + f.pointer() + " is not a verbatim quote of the document; value removed.");
+            }
+        }
+
+        return new Report(first.checked(), first.checked() - stillUnverified.size(), stillUnverified);
+    }
+
+    private void walk(JsonNode node, String pointer, DocumentTextIndex index, List<Finding> unverified, int[] counts) {
+        if (node == null) return;
+
+        if (node.isObject()) {
+            ObjectNode obj = (ObjectNode) node;
+            if (isEvidencedLeaf(obj)) {
+                counts[0]++;
+                if (verifyLeaf(obj, index)) counts[1]++;
+                else unverified.add(new Finding(pointer, obj.path("evidence").asText()));
+                return;
+            }
+            for (Map.Entry<String, JsonNode> e : obj.properties()) {
+                walk(e.getValue(), pointer + "/" + escape(e.getKey()), index, unverified, counts);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                walk(node.get(i), pointer + "/" + i, index, unverified, counts);
+            }
+        }
+    }
+
+    private boolean isEvidencedLeaf(ObjectNode obj) {
+        return obj.has("evidence") && obj.get("evidence").isTextual() && !obj.get("evidence").asText().isBlank();
+    }
+
+    private boolean verifyLeaf(ObjectNode leaf, DocumentTextIndex index) {
+        if (!isEvidencedLeaf(leaf)) return false;
+
+        String evidence = leaf.get("evidence").asText();
+        int firstPage = -1;
+        for (String fragment : ELLIPSIS.split(evidence)) {
+            String f = stripQuotes(fragment);
+            if (f.length() < MIN_FRAGMENT_CHARS) continue;
+
+            int page = index.pageOf(f);
+            if (page < 0) return false;
+            if (firstPage < 0) firstPage = page;
+        }
+        // a short quote ("USD", "3%", "5.0x"): no fragment was long enough to check on its own
+        if (firstPage < 0) firstPage = index.pageOf(stripQuotes(evidence));
+        if (firstPage < 0) return false;
+
+        leaf.put("page", firstPage);
+        return true;
+    }
+
+    // find the page to re-ask against: where the value (or the head of the bad quote) actually occurs
+    private int locate(JsonNode leaf, DocumentTextIndex index) {
+        String value = leaf.path("value").asText("");
+        if (value.length() >= MIN_FRAGMENT_CHARS) {
+            int page = index.pageOf(value);
+            if (page > 0) return page;
+        }
+
+        String[] words = stripQuotes(leaf.path("evidence").asText("")).split("\\s+");
+        if (words.length >= 4) {
+            return index.pageOf(String.join(" ", List.of(words).subList(0, 4)));
+        }
+        return -1;
+    }
+
+    private void replace(ObjectNode root, String pointer, JsonNode replacement) {
+        JsonPointer ptr = JsonPointer.compile(pointer);
+        JsonNode parent = root.at(ptr.head());
+        String last = ptr.last().getMatchingProperty();
+
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(last, replacement);
+        } else if (parent.isArray()) {
+            ((ArrayNode) parent).set(Integer.parseInt(last), replacement);
+        }
+    }
+
+    private void clearLeaf(ObjectNode leaf) {
+        leaf.set("value", NullNode.instance);
+        leaf.set("citation", NullNode.instance);
+        leaf.set("evidence", NullNode.instance);
+        leaf.remove("page");
+    }
+
+    private void addNote(ObjectNode root, String note) {
+        JsonNode gaps = root.get("validationAndGaps");
+        ObjectNode gapsObj = gaps != null && gaps.isObject() ? (ObjectNode) gaps : root.putObject("validationAndGaps");
+
+        JsonNode notes = gapsObj.get("notes");
+        ArrayNode notesArr = notes != null && notes.isArray() ? (ArrayNode) notes : gapsObj.putArray("notes");
+        notesArr.add(note);
+    }
+
+    private String stripQuotes(String s) {
+        String t = s == null ? "" : s.trim();
+        while (!t.isEmpty() && QUOTE_CHARS.indexOf(t.charAt(0)) >= 0) t = t.substring(1);
+        while (!t.isEmpty() && QUOTE_CHARS.indexOf(t.charAt(t.length() - 1)) >= 0) {
+            t = t.substring(0, t.length() - 1);
+        }
+        return t.trim();
+    }
+
+    private String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+}
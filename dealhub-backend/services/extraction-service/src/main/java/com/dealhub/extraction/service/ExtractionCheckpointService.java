@@ -0,0 +1,120 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionCheckpointEntity;
+import com.dealhub.extraction.model.PipelineStage;
+import com.dealhub.extraction.repository.ExtractionCheckpointRepository;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persists the output of each completed pipeline stage (per-chunk PASS 1, PASS 1.5 totals, PASS 2 merge)
+ * as gzip-compressed JSON, so a retried job resumes after the last completed stage instead of
+ * paying for every LLM call again.
+ */
+@Service
+public class ExtractionCheckpointService {
+
+    public static final int DOCUMENT_LEVEL = -1;
+
+    private final ExtractionCheckpointRepository checkpointRepository;
+    private final ExtractionJobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExtractionCheckpointService(
+            ExtractionCheckpointRepository checkpointRepository,
+            ExtractionJobRepository jobRepository,
+            ObjectMapper objectMapper
+    ) {
+        this.checkpointRepository = checkpointRepository;
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stored output of a stage, if it completed earlier for exactly the same input.
+     */
+    public Optional<JsonNode> load(String jobKey, PipelineStage stage, int chunkIndex, String inputHash) {
+        if (jobKey == null) return Optional.empty();
+
+        return checkpointRepository.findByJobKeyAndStageAndChunkIndex(jobKey, stage, chunkIndex)
+                .filter(c -> c.getInputHash().equals(inputHash))
+                .map(c -> decompress(c.getPayload()));
+    }
+
+    public void save(String jobKey, PipelineStage stage, int chunkIndex, String inputHash, JsonNode output) {
+        if (jobKey == null || output == null) return;
+
+        ExtractionCheckpointEntity checkpoint = checkpointRepository
+                .findByJobKeyAndStageAndChunkIndex(jobKey, stage, chunkIndex)
+                .orElseGet(ExtractionCheckpointEntity::new);
+
+        checkpoint.setJobKey(jobKey);
+        checkpoint.setStage(stage);
+        checkpoint.setChunkIndex(chunkIndex);
+        checkpoint.setInputHash(inputHash);
+        checkpoint.setPayload(compress(output));
+        checkpoint.setCreatedAt(Instant.now());
+
+        try {
+            checkpointRepository.save(checkpoint);
+        } catch (DataIntegrityViolationException ignored) {
+            // a concurrent attempt stored the same stage first; either copy is valid
+        }
+
+        jobRepository.touch(jobKey, Instant.now());
+    }
+
+    public void clear(String jobKey) {
+        checkpointRepository.deleteByJobKey(jobKey);
+    }
+
+    public static String hash(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String hash(List<String> inputs) {
+        return hash(String.join("\u0000", inputs));
+    }
+
+    private byte[] compress(JsonNode node) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, node);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress checkpoint: " + e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private JsonNode decompress(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readTree(in);
+        } catch (IOException e) {
+            // unreadable checkpoint: treat the stage as not done
+            return null;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionNodeEntity;
+import com.dealhub.extraction.repository.ExtractionNodeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Replica membership for cluster mode (dealhub.extraction.cluster.enabled).
+ *
+ * Every replica upserts a heartbeat row with its load into extraction_nodes; rows not refreshed within
+ * stale-after drop out of the ring, and a replica shutting down removes its own row. Joins and leaves
+ * therefore rebalance the ring within one heartbeat.
+ */
+@Component
+public class ExtractionClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionClusterMembership.class);
+
+    private final ExtractionNodeRepository nodeRepository;
+    private final ExtractionScheduler scheduler;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final boolean enabled;
+    private final String nodeId;
+    private final String baseUrl;
+    private final Duration staleAfter;
+    private final int virtualNodes;
+    private final double overloadFactor;
+    private final Instant startedAt = Instant.now();
+
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 1);
+    private volatile Map<String, ExtractionNodeEntity> members = Map.of();
+
+    public ExtractionClusterMembership(
+            ExtractionNodeRepository nodeRepository,
+            ExtractionScheduler scheduler,
+            AdaptiveConcurrencyLimit concurrencyLimit,
+            @Value("${dealhub.extraction.cluster.enabled:false}") boolean enabled,
+            @Value("${dealhub.extraction.cluster.node-id:}") String nodeId,
+            @Value("${dealhub.extraction.cluster.advertised-url:http://localhost:${server.port:8086}}") String baseUrl,
+            @Value("${dealhub.extraction.cluster.stale-after:PT20S}") Duration staleAfter,
+            @Value("${dealhub.extraction.cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${dealhub.extraction.cluster.overload-factor:2.0}") double overloadFactor
+    ) {
+        this.nodeRepository = nodeRepository;
+        this.scheduler = scheduler;
+        this.concurrencyLimit = concurrencyLimit;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.baseUrl = baseUrl;
+        this.staleAfter = staleAfter;
+        this.virtualNodes = Math.max(1, virtualNodes);
+        this.overloadFactor = overloadFactor;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public ExtractionNodeEntity member(String id) {
+        return members.get(id);
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!enabled) return;
+        Instant now = Instant.now();
+
+        try {
+            nodeRepository.save(ExtractionNodeEntity.builder()
+                    .nodeId(nodeId)
+                    .baseUrl(baseUrl)
+                    .queued(scheduler.queuedCount())
+                    .running(scheduler.runningCount())
+                    .capacity(concurrencyLimit.limit())
+                    .startedAt(startedAt)
+                    .heartbeatAt(now)
+                    .build());
+
+            Instant cutoff = now.minus(staleAfter);
+            nodeRepository.deleteStale(cutoff);
+
+            Map<String, ExtractionNodeEntity> live = new LinkedHashMap<>();
+            for (ExtractionNodeEntity n : nodeRepository.findByHeartbeatAtAfter(cutoff)) {
+                live.put(n.getNodeId(), n);
+            }
+
+            if (!live.keySet().equals(members.keySet())) {
+                log.info("Extraction ring membership: {}", live.keySet());
+                ring = new ConsistentHashRing(live.keySet(), virtualNodes);
+            }
+            members = live;
+        } catch (RuntimeException ex) {
+            // keep the last known ring; a node that cannot heartbeat simply ages out for its peers
+            log.warn("Extraction node heartbeat failed", ex);
+        }
+    }
+
+    /**
+     * Node that should run work for the routing key: the ring owner, or the next node clockwise that is not
+     * overloaded (queued jobs above overload-factor x its worker limit). Falls back to the owner when every
+     * node is overloaded, and to this node when the ring is empty.
+     */
+    public String pickNode(String routingKey, boolean excludeSelf) {
+        List<String> candidates = new ArrayList<>(ring.preferenceList(routingKey));
+        if (excludeSelf) candidates.remove(nodeId);
+        if (candidates.isEmpty()) return excludeSelf ? null : nodeId;
+
+        for (String candidate : candidates) {
+            if (!isOverloaded(candidate)) return candidate;
+        }
+        return candidates.get(0);
+    }
+
+    private boolean isOverloaded(String id) {
+        if (id.equals(nodeId)) {
+            return scheduler.queuedCount() > overloadFactor * concurrencyLimit.limit();
+        }
+        ExtractionNodeEntity n = members.get(id);
+        if (n == null) return true;
+        return n.getQueued() > overloadFactor * Math.max(1, n.getCapacity());
+    }
+
+    // runs after ExtractionRouter's shutdown hook (it depends on this bean), so queued work is handed off first
+    @PreDestroy
+    void leave() {
+        if (!enabled) return;
+        try {
+            nodeRepository.deleteById(nodeId);
+        } catch (RuntimeException ex) {
+            log.warn("Could not remove node {} from extraction_nodes", nodeId, ex);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        String id = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return id.length() > 64 ? id.substring(id.length() - 64) : id;
+    }
+}
@@ -0,0 +1,71 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.exception.ExtractionCancelledException;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Per-run state of one extraction job: the stage task currently executing it and the LLM calls it is
+ * waiting on. Cancelling the handle cancels (and interrupts) those, so the stage thread unblocks
+ * immediately and the job stops at the next stage boundary.
+ */
+public class ExtractionJobHandle {
+
+    private final String jobKey;
+    private final Set<Future<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    ExtractionJobHandle(String jobKey) {
+        this.jobKey = jobKey;
+    }
+
+    public String jobKey() {
+        return jobKey;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Stage boundary check. */
+    public void throwIfCancelled() {
+        if (cancelled) throw new ExtractionCancelledException(jobKey);
+    }
+
+    /**
+     * Waits for a call started on behalf of this job; the wait ends as soon as the job is cancelled.
+     */
+    public <T> T await(Future<T> future) throws Exception {
+        track(future);
+        try {
+            return future.get();
+        } catch (CancellationException | InterruptedException e) {
+            if (cancelled) throw new ExtractionCancelledException(jobKey);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        } finally {
+            untrack(future);
+        }
+    }
+
+    /** Registers work to be cancelled with the job; cancels it right away if the job already is. */
+    void track(Future<?> future) {
+        inFlight.add(future);
+        if (cancelled) future.cancel(true);
+    }
+
+    void untrack(Future<?> future) {
+        inFlight.remove(future);
+    }
+
+    void cancel() {
+        cancelled = true;
+        inFlight.forEach(f -> f.cancel(true));
+    }
+}
@@ -0,0 +1,81 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionStatus;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A RUNNING job holds a lease (updated_at), renewed on every checkpoint and on a heartbeat for every job this
+ * instance is running, whatever stage it is in. When the lease is not renewed for
+ * {@code dealhub.extraction.recovery.stale-after} the worker is assumed gone (pod restart, crash): the job goes
+ * back to PENDING and is dispatched again, resuming from its checkpoints. A job that has been recovered
+ * max-recoveries times is failed instead, so one that keeps killing its worker does not loop.
+ */
+@Component
+public class ExtractionJobRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionJobRecovery.class);
+
+    private final ExtractionJobRepository repository;
+    private final RunningJobRegistry runningJobs;
+    private final ExtractionRouter router;
+    private final Duration staleAfter;
+    private final int maxRecoveries;
+
+    public ExtractionJobRecovery(
+            ExtractionJobRepository repository,
+            RunningJobRegistry runningJobs,
+            ExtractionRouter router,
+            @Value("${dealhub.extraction.recovery.stale-after:PT15M}") Duration staleAfter,
+            @Value("${dealhub.extraction.recovery.max-recoveries:2}") int maxRecoveries
+    ) {
+        this.repository = repository;
+        this.runningJobs = runningJobs;
+        this.router = router;
+        this.staleAfter = staleAfter;
+        this.maxRecoveries = Math.max(0, maxRecoveries);
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.recovery.heartbeat-interval-ms:60000}")
+    public void renewLeases() {
+        Set<String> jobKeys = runningJobs.jobKeys();
+        if (!jobKeys.isEmpty()) {
+            repository.touchAll(jobKeys, ExtractionStatus.RUNNING, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.recovery.check-interval-ms:60000}")
+    public void releaseExpiredLeases() {
+        Instant cutoff = Instant.now().minus(staleAfter);
+        List<ExtractionJobEntity> stale = repository.findByStatusAndUpdatedAtBefore(ExtractionStatus.RUNNING, cutoff);
+
+        for (ExtractionJobEntity job : stale) {
+            int recoveries = job.getRecoveries() == null ? 0 : job.getRecoveries();
+            if (recoveries >= maxRecoveries) {
+                if (repository.expireLease(job.getJobKey(), ExtractionStatus.RUNNING, ExtractionStatus.FAILED,
+                        "Worker lease expired " + (recoveries + 1) + " times; retry the job to resume from its last checkpoint",
+                        cutoff, Instant.now()) > 0) {
+                    log.warn("[EXTRACTION] failed job after expired lease jobKey={} recoveries={}", job.getJobKey(), recoveries);
+                }
+                continue;
+            }
+
+            // lease renewed meanwhile, or reclaimed by another replica
+            if (repository.reclaim(job.getJobKey(), ExtractionStatus.RUNNING, ExtractionStatus.PENDING, cutoff, Instant.now()) == 0) {
+                continue;
+            }
+            log.warn("[EXTRACTION] reclaimed job after expired lease jobKey={}; resuming from its checkpoints", job.getJobKey());
+            repository.findByJobKey(job.getJobKey()).ifPresent(reclaimed -> router.dispatch(reclaimed, null));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionStatus;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persist stage of the pipeline: terminal job updates are queued and written in batches (one
+ * transaction per batch) by a single writer thread instead of one round trip per job. When a batch
+ * fails, its updates are retried one transaction each, so only the update that cannot be written fails.
+ * A job that was CANCELLED while its last stage ran is left untouched.
+ */
+@Component
+public class ExtractionResultWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionResultWriter.class);
+
+    private final ExtractionJobRepository repository;
+    private final ExtractionCheckpointService checkpoints;
+    private final AgreementDraftOutbox draftOutbox;
+    private final TransactionTemplate tx;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ExtractionResultWriter(
+            ExtractionJobRepository repository,
+            ExtractionCheckpointService checkpoints,
+            AgreementDraftOutbox draftOutbox,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.stages.persist.queue-capacity:256}") int queueCapacity,
+            @Value("${dealhub.extraction.stages.persist.batch-size:32}") int batchSize,
+            @Value("${dealhub.extraction.stages.persist.linger-ms:50}") long lingerMs
+    ) {
+        this.repository = repository;
+        this.checkpoints = checkpoints;
+        this.draftOutbox = draftOutbox;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = Math.max(0, lingerMs);
+
+        Gauge.builder("extraction.stage.queued", queue, BlockingQueue::size)
+                .tag("stage", "persist")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("extraction.stage.service")
+                .tag("stage", "persist")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("extraction.stage.persist.batch")
+                .description("Job updates written per transaction")
+                .register(meterRegistry);
+    }
+
+    private record PendingWrite(
+            String jobKey,
+            ExtractionStatus status,
+            JsonNode result,
+            String errorMessage,
+            Integer pageCount,
+            CompletableFuture<Void> done
+    ) {}
+
+    public CompletableFuture<Void> complete(String jobKey, JsonNode result, Integer pageCount) {
+        return enqueue(new PendingWrite(jobKey, ExtractionStatus.DONE, result, null, pageCount, new CompletableFuture<>()));
+    }
+
+    public CompletableFuture<Void> fail(String jobKey, String errorMessage, Integer pageCount) {
+        return enqueue(new PendingWrite(jobKey, ExtractionStatus.FAILED, null, errorMessage, pageCount, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> enqueue(PendingWrite write) {
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.done().completeExceptionally(e);
+        }
+        return write.done();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::loop, "stage-persist");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(5_000);
+    }
+
+    private void loop() {
+        while (running || !queue.isEmpty()) {
+            List<PendingWrite> batch = new ArrayList<>(batchSize);
+            try {
+                PendingWrite first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // wait briefly for more updates so bursts share one transaction
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long left = deadline - System.nanoTime();
+                    PendingWrite next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // shutting down: flush what was collected, then drain the rest
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) flush(batch);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        try {
+            write(batch);
+            batch.forEach(this::written);
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                log.error("Failed to persist extraction job update jobKey={}", batch.get(0).jobKey(), ex);
+                batch.get(0).done().completeExceptionally(ex);
+            } else {
+                // one bad update must not fail the jobs it happened to share a transaction with
+                log.warn("Failed to persist {} extraction job updates in one transaction; writing them one by one", batch.size(), ex);
+                for (PendingWrite w : batch) {
+                    try {
+                        write(List.of(w));
+                        written(w);
+                    } catch (RuntimeException single) {
+                        log.error("Failed to persist extraction job update jobKey={}", w.jobKey(), single);
+                        w.done().completeExceptionally(single);
+                    }
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        tx.executeWithoutResult(status -> {
+            Map<String, ExtractionJobEntity> jobs = repository
+                    .findByJobKeyIn(batch.stream().map(PendingWrite::jobKey).toList())
+                    .stream()
+                    .collect(Collectors.toMap(ExtractionJobEntity::getJobKey, Function.identity()));
+
+            Instant now = Instant.now();
+            List<ExtractionJobEntity> changed = new ArrayList<>(batch.size());
+            for (PendingWrite w : batch) {
+                ExtractionJobEntity job = jobs.get(w.jobKey());
+                if (job == null || job.getStatus() == ExtractionStatus.CANCELLED) continue;
+
+                job.setStatus(w.status());
+                if (w.status() == ExtractionStatus.DONE) job.setResultJson(w.result());
+                job.setErrorMessage(w.errorMessage());
+                if (w.pageCount() != null) job.setEstimatedPages(w.pageCount());
+                job.setUpdatedAt(now);
+                changed.add(job);
+            }
+            repository.saveAll(changed);
+            // same transaction: a stored result always has its draft queued when one was asked for
+            draftOutbox.enqueue(changed, now);
+        });
+    }
+
+    private void written(PendingWrite w) {
+        // checkpoints only exist to resume failed attempts; the update itself is committed either way
+        if (w.status() == ExtractionStatus.DONE) {
+            try {
+                checkpoints.clear(w.jobKey());
+            } catch (RuntimeException ex) {
+                log.warn("Could not clear checkpoints of jobKey={}", w.jobKey(), ex);
+            }
+        }
+        w.done().complete(null);
+    }
+}
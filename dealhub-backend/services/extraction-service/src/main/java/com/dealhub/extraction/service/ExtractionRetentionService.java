@@ -0,0 +1,260 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.dto.ExtractionStatusResponse;
+import com.dealhub.extraction.model.DraftOutboxEntity;
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionJobSummaryEntity;
+import com.dealhub.extraction.model.ExtractionResultArchiveEntity;
+import com.dealhub.extraction.model.ExtractionStatus;
+import com.dealhub.extraction.repository.DraftOutboxRepository;
+import com.dealhub.extraction.repository.ExtractionCheckpointRepository;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import com.dealhub.extraction.repository.ExtractionJobSummaryRepository;
+import com.dealhub.extraction.repository.ExtractionResultArchiveRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps extraction_jobs (and the checkpoint and outbox rows hanging off it) small however long the service runs.
+ *
+ * Per document the newest keep-per-document finished jobs stay in full; older ones, and any finished job
+ * unchanged for max-age, are moved out once they have been settled for min-age: their result_json goes gzipped
+ * into extraction_result_archive, a summary row into extraction_job_summaries, and the job row is deleted.
+ * Each batch of batch-size jobs is its own short transaction with the rows locked SKIP LOCKED, so replicas can
+ * compact side by side and no long lock is held on the hot table. Archived results are deleted after
+ * result-ttl (0 = kept); summaries are kept. Archived jobs still answer GET /extractions/{id}.
+ */
+@Component
+public class ExtractionRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionRetentionService.class);
+
+    private static final List<ExtractionStatus> FINISHED =
+            List.of(ExtractionStatus.DONE, ExtractionStatus.FAILED, ExtractionStatus.CANCELLED);
+
+    private final ExtractionJobRepository jobs;
+    private final ExtractionJobSummaryRepository summaries;
+    private final ExtractionResultArchiveRepository archive;
+    private final ExtractionCheckpointRepository checkpoints;
+    private final DraftOutboxRepository draftOutbox;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int keepPerDocument;
+    private final Duration minAge;
+    private final Duration maxAge;
+    private final Duration resultTtl;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter archivedJobs;
+    private final Counter purgedResults;
+    private final Counter rawBytes;
+    private final Counter gzipBytes;
+
+    public ExtractionRetentionService(
+            ExtractionJobRepository jobs,
+            ExtractionJobSummaryRepository summaries,
+            ExtractionResultArchiveRepository archive,
+            ExtractionCheckpointRepository checkpoints,
+            DraftOutboxRepository draftOutbox,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.retention.enabled:true}") boolean enabled,
+            @Value("${dealhub.extraction.retention.keep-per-document:3}") int keepPerDocument,
+            @Value("${dealhub.extraction.retention.min-age:P30D}") Duration minAge,
+            @Value("${dealhub.extraction.retention.max-age:P0D}") Duration maxAge,
+            @Value("${dealhub.extraction.retention.result-ttl:P0D}") Duration resultTtl,
+            @Value("${dealhub.extraction.retention.batch-size:100}") int batchSize,
+            @Value("${dealhub.extraction.retention.max-batches-per-run:50}") int maxBatchesPerRun
+    ) {
+        this.jobs = jobs;
+        this.summaries = summaries;
+        this.archive = archive;
+        this.checkpoints = checkpoints;
+        this.draftOutbox = draftOutbox;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.keepPerDocument = Math.max(0, keepPerDocument);
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.resultTtl = resultTtl;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.archivedJobs = Counter.builder("extraction.retention.archived").register(meterRegistry);
+        this.purgedResults = Counter.builder("extraction.retention.purged").register(meterRegistry);
+        this.rawBytes = Counter.builder("extraction.retention.bytes").tag("form", "json").register(meterRegistry);
+        this.gzipBytes = Counter.builder("extraction.retention.bytes").tag("form", "gzip").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.retention.interval-ms:600000}",
+            initialDelayString = "${dealhub.extraction.retention.initial-delay-ms:120000}")
+    public void compact() {
+        if (!enabled) return;
+
+        Instant now = Instant.now();
+        Instant settledBefore = now.minus(minAge);
+        Instant expiredBefore = maxAge.isZero() ? Instant.EPOCH : now.minus(maxAge);
+
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = jobs.findIdsToArchive(keepPerDocument, settledBefore, expiredBefore, batchSize);
+            if (ids.isEmpty()) break;
+
+            Integer moved = tx.execute(status -> archive(ids, now));
+            if (moved == null || moved == 0) break; // all locked by another replica
+            archived += moved;
+        }
+
+        int purged = purgeResults(now);
+        if (archived > 0 || purged > 0) {
+            log.info("[RETENTION] archived {} job(s), purged {} archived result(s)", archived, purged);
+        }
+    }
+
+    // one transaction per batch
+    private int archive(List<Long> ids, Instant now) {
+        List<ExtractionJobEntity> locked = jobs.lockForArchive(ids, FINISHED);
+        if (locked.isEmpty()) return 0;
+
+        List<String> keys = locked.stream().map(ExtractionJobEntity::getJobKey).toList();
+        Map<String, Long> draftVersions = new HashMap<>();
+        for (DraftOutboxEntity draft : draftOutbox.findByJobKeyIn(keys)) {
+            if (draft.getVersionId() != null) draftVersions.put(draft.getJobKey(), draft.getVersionId());
+        }
+
+        List<ExtractionJobSummaryEntity> rows = new ArrayList<>(locked.size());
+        List<ExtractionResultArchiveEntity> results = new ArrayList<>();
+        for (ExtractionJobEntity job : locked) {
+            String json = job.getResultJson() == null ? null : job.getResultJson().toString();
+            byte[] raw = json == null ? null : json.getBytes(StandardCharsets.UTF_8);
+
+            rows.add(ExtractionJobSummaryEntity.builder()
+                    .jobKey(job.getJobKey())
+                    .documentId(job.getDocumentId())
+                    .agreementId(job.getAgreementId())
+                    .extractionProfile(job.getExtractionProfile())
+                    .mode(job.getMode())
+                    .baseVersionId(job.getBaseVersionId())
+                    .schemaVersion(job.getSchemaVersion())
+                    .priority(job.getPriority())
+                    .status(job.getStatus())
+                    .submittedBy(job.getSubmittedBy())
+                    .pageCount(job.getEstimatedPages())
+                    .errorMessage(job.getErrorMessage())
+                    .resultBytes(raw == null ? null : raw.length)
+                    .resultSha256(json == null ? null : ExtractionCheckpointService.hash(json))
+                    .draftVersionId(draftVersions.get(job.getJobKey()))
+                    .createdAt(job.getCreatedAt())
+                    .updatedAt(job.getUpdatedAt())
+                    .archivedAt(now)
+                    .build());
+
+            if (raw != null) {
+                byte[] gzip = gzip(raw);
+                results.add(ExtractionResultArchiveEntity.builder()
+                        .jobKey(job.getJobKey())
+                        .resultGzip(gzip)
+                        .archivedAt(now)
+                        .build());
+                rawBytes.increment(raw.length);
+                gzipBytes.increment(gzip.length);
+            }
+        }
+
+        summaries.saveAll(rows);
+        archive.saveAll(results);
+        checkpoints.deleteByJobKeyIn(keys);
+        draftOutbox.deleteByJobKeyIn(keys);
+        jobs.deleteAllInBatch(locked);
+
+        archivedJobs.increment(locked.size());
+        return locked.size();
+    }
+
+    private int purgeResults(Instant now) {
+        if (resultTtl.isZero()) return 0;
+        Instant cutoff = now.minus(resultTtl);
+
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = archive.findIdsArchivedBefore(cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) break;
+            archive.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+        }
+        purgedResults.increment(purged);
+        return purged;
+    }
+
+    /** Status of a job that was moved out of extraction_jobs. */
+    public Optional<ExtractionStatusResponse> archivedStatus(String jobKey) {
+        return summaries.findByJobKey(jobKey).map(s -> new ExtractionStatusResponse(
+                s.getJobKey(),
+                s.getDocumentId(),
+                s.getAgreementId(),
+                s.getExtractionProfile(),
+                s.getPriority(),
+                s.getStatus(),
+                s.getErrorMessage(),
+                s.getCreatedAt(),
+                s.getUpdatedAt()
+        ));
+    }
+
+    /** Archived result_json of the job, or null when it had none or it was purged. */
+    public JsonNode archivedResult(String jobKey) {
+        return archive.findByJobKey(jobKey)
+                .map(a -> {
+                    try {
+                        return objectMapper.readTree(gunzip(a.getResultGzip()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Archived result of " + jobKey + " is unreadable", e);
+                    }
+                })
+                .orElse(null);
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.client.DocumentClient;
+import com.dealhub.extraction.dto.DocumentMetadata;
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionNodeEntity;
+import com.dealhub.extraction.model.ExtractionStatus;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which replica runs a job.
+ *
+ * With cluster mode off every job runs locally. With it on, jobs are placed by consistent hash of the
+ * document's sha256 (documentId when the hash is unknown), so repeated and identical documents land on
+ * the replica that already has them warm; an overloaded owner's work goes to the next replica on the ring.
+ * Dispatch to a peer is a call to its /internal endpoint, which carries the caller's Authorization header
+ * so the peer can download the document. Routing (the sha256 lookup and the peer call, each up to
+ * PEER_TIMEOUT) runs on a small routing pool, so a start request returns once its job is stored.
+ */
+@Service
+public class ExtractionRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionRouter.class);
+
+    private static final Duration PEER_TIMEOUT = Duration.ofSeconds(3);
+
+    private final ExtractionClusterMembership membership;
+    private final ExtractionScheduler scheduler;
+    private final ExtractionJobRepository repository;
+    private final DocumentClient documentClient;
+    private final WebClient peerClient;
+    private final String internalKey;
+    private final ThreadPoolExecutor routing;
+
+    public ExtractionRouter(
+            ExtractionClusterMembership membership,
+            ExtractionScheduler scheduler,
+            ExtractionJobRepository repository,
+            DocumentClient documentClient,
+            WebClient.Builder webClientBuilder,
+            @Value("${app.internal.key}") String internalKey,
+            @Value("${dealhub.extraction.cluster.routing-threads:4}") int routingThreads
+    ) {
+        this.membership = membership;
+        this.scheduler = scheduler;
+        this.repository = repository;
+        this.documentClient = documentClient;
+        this.peerClient = webClientBuilder.build();
+        this.internalKey = internalKey;
+        int threads = Math.max(1, routingThreads);
+        this.routing = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("extraction-routing-"));
+        this.routing.allowCoreThreadTimeOut(true);
+    }
+
+    /** Runs the job here, or (cluster mode) routes it in the background; the job stays PENDING meanwhile. */
+    public void dispatch(ExtractionJobEntity job, String authorizationHeader) {
+        if (!membership.isEnabled()) {
+            scheduler.submit(job, authorizationHeader);
+            return;
+        }
+
+        try {
+            routing.execute(new Route(job, authorizationHeader));
+        } catch (RejectedExecutionException ex) {
+            // shutting down: handOffQueued has already run, keep the job here
+            runLocally(job, authorizationHeader);
+        }
+    }
+
+    private void route(ExtractionJobEntity job, String authorizationHeader) {
+        try {
+            String target = membership.pickNode(routingKey(job, authorizationHeader), false);
+            if (target != null && !target.equals(membership.nodeId()) && forward(target, job.getJobKey(), authorizationHeader)) {
+                return;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Routing of job {} failed; running it locally", job.getJobKey(), ex);
+        }
+        runLocally(job, authorizationHeader);
+    }
+
+    // a job waiting to be routed; handOffQueued takes back the ones that never ran
+    private final class Route implements Runnable {
+        private final ExtractionJobEntity job;
+        private final String authorizationHeader;
+
+        private Route(ExtractionJobEntity job, String authorizationHeader) {
+            this.job = job;
+            this.authorizationHeader = authorizationHeader;
+        }
+
+        @Override
+        public void run() {
+            route(job, authorizationHeader);
+        }
+    }
+
+    /** Entry point for jobs forwarded by a peer: always runs here, never re-routed. */
+    public void runLocally(ExtractionJobEntity job, String authorizationHeader) {
+        if (membership.isEnabled()) {
+            repository.assignNode(job.getJobKey(), membership.nodeId());
+        }
+        scheduler.submit(job, authorizationHeader);
+    }
+
+    /**
+     * Signals cancellation to the replica running the job, when that is not this one.
+     *
+     * @return true when the job is assigned to a peer (which was told to cancel it)
+     */
+    public boolean cancelRemote(ExtractionJobEntity job) {
+        if (!membership.isEnabled()) return false;
+        String node = job.getAssignedNode();
+        if (node == null || node.equals(membership.nodeId())) return false;
+
+        ExtractionNodeEntity peer = membership.member(node);
+        if (peer == null) return false;
+
+        try {
+            peerClient.post()
+                    .uri(peer.getBaseUrl() + "/internal/extractions/{jobKey}/cancel", job.getJobKey())
+                    .header("X-INTERNAL-KEY", internalKey)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block(PEER_TIMEOUT);
+        } catch (RuntimeException ex) {
+            // the DB status is CANCELLED regardless; the peer's writer will not overwrite it
+            log.warn("Could not signal cancel of job {} to node {}", job.getJobKey(), node, ex);
+        }
+        return true;
+    }
+
+    /**
+     * Graceful leave: jobs that have not started here, or not been routed yet, are handed to the node that owns
+     * them once this one is gone. A job no peer accepts is failed so that it can be retried.
+     */
+    @PreDestroy
+    void handOffQueued() throws InterruptedException {
+        routing.shutdown();
+        if (!membership.isEnabled()) return;
+
+        List<ExtractionScheduler.QueuedWork> work = new ArrayList<>();
+        List<Runnable> unrouted = new ArrayList<>();
+        routing.getQueue().drainTo(unrouted);
+        for (Runnable r : unrouted) {
+            Route route = (Route) r;
+            work.add(new ExtractionScheduler.QueuedWork(route.job.getJobKey(), route.authorizationHeader));
+        }
+        // routes in progress end up forwarded or in the local queue drained below
+        routing.awaitTermination(2 * PEER_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        work.addAll(scheduler.drainQueued());
+
+        for (ExtractionScheduler.QueuedWork w : work) {
+            ExtractionJobEntity job = repository.findByJobKey(w.jobKey()).orElse(null);
+            if (job == null || job.getStatus() != ExtractionStatus.PENDING) continue;
+
+            String target = membership.pickNode(routingKey(job, w.authorizationHeader()), true);
+            if (target != null && forward(target, job.getJobKey(), w.authorizationHeader())) continue;
+
+            job.setStatus(ExtractionStatus.FAILED);
+            job.setErrorMessage("Extraction node shut down before the job started; retry the job.");
+            job.setUpdatedAt(Instant.now());
+            repository.save(job);
+        }
+    }
+
+    private boolean forward(String node, String jobKey, String authorizationHeader) {
+        ExtractionNodeEntity peer = membership.member(node);
+        if (peer == null) return false;
+
+        repository.assignNode(jobKey, node);
+        try {
+            peerClient.post()
+                    .uri(peer.getBaseUrl() + "/internal/extractions/{jobKey}/dispatch", jobKey)
+                    .header("X-INTERNAL-KEY", internalKey)
+                    .headers(h -> {
+                        if (authorizationHeader != null) h.set(HttpHeaders.AUTHORIZATION, authorizationHeader);
+                    })
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block(PEER_TIMEOUT);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Dispatch of job {} to node {} failed; running it locally", jobKey, node, ex);
+            return false;
+        }
+    }
+
+    private String routingKey(ExtractionJobEntity job, String authorizationHeader) {
+        if (job.getDocumentSha256() == null) {
+            try {
+                DocumentMetadata meta = documentClient.metadata(job.getDocumentId(), authorizationHeader).block(PEER_TIMEOUT);
+                if (meta != null && meta.sha256() != null) {
+                    job.setDocumentSha256(meta.sha256());
+                    repository.save(job);
+                }
+            } catch (RuntimeException ex) {
+                log.debug("No sha256 for document {}; routing by id", job.getDocumentId(), ex);
+            }
+        }
+        return job.getDocumentSha256() != null ? job.getDocumentSha256() : "document:" + job.getDocumentId();
+    }
+}
@@ -0,0 +1,267 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Admission in front of the extraction pipeline.
+ *
+ * Every (lane, submitter) pair is a flow with its own queue. Flows are served by start-time fair
+ * queuing: a flow's next job starts at max(virtual time, the flow's last finish tag) and finishes
+ * cost/weight later, and the flow with the smallest start tag gets the next free slot. A user who
+ * queues 500 BULK documents therefore only delays another user's INTERACTIVE job by at most the
+ * jobs already running. Ties go to the higher-priority lane.
+ *
+ * With shortest-job-first enabled, cost is the page estimate and each flow runs its smallest job first.
+ * The number of jobs in the pipeline at once comes from {@link AdaptiveConcurrencyLimit}.
+ */
+@Component
+public class ExtractionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionScheduler.class);
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final ExtractionWorker worker;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final boolean shortestJobFirst;
+    private final int defaultPages;
+    private final Map<ExtractionPriority, Integer> weights = new EnumMap<>(ExtractionPriority.class);
+
+    // all state below is guarded by "this"
+    private final Map<String, Flow> flows = new LinkedHashMap<>();
+    private final Map<String, Double> lastFinish = new HashMap<>();
+    private final Map<ExtractionPriority, Integer> queued = new EnumMap<>(ExtractionPriority.class);
+    private final Map<ExtractionPriority, Integer> running = new EnumMap<>(ExtractionPriority.class);
+    private final Map<ExtractionPriority, Timer> waitTimers = new EnumMap<>(ExtractionPriority.class);
+    private double virtualTime;
+    private long sequence;
+    private int runningTotal;
+
+    public ExtractionScheduler(
+            ExtractionWorker worker,
+            MeterRegistry meterRegistry,
+            AdaptiveConcurrencyLimit concurrencyLimit,
+            @Value("${dealhub.extraction.scheduler.shortest-job-first:false}") boolean shortestJobFirst,
+            @Value("${dealhub.extraction.scheduler.default-pages:60}") int defaultPages,
+            @Value("${dealhub.extraction.scheduler.weight.interactive:8}") int interactiveWeight,
+            @Value("${dealhub.extraction.scheduler.weight.normal:4}") int normalWeight,
+            @Value("${dealhub.extraction.scheduler.weight.bulk:1}") int bulkWeight
+    ) {
+        this.worker = worker;
+        this.concurrencyLimit = concurrencyLimit;
+        this.shortestJobFirst = shortestJobFirst;
+        this.defaultPages = Math.max(1, defaultPages);
+
+        weights.put(ExtractionPriority.INTERACTIVE, Math.max(1, interactiveWeight));
+        weights.put(ExtractionPriority.NORMAL, Math.max(1, normalWeight));
+        weights.put(ExtractionPriority.BULK, Math.max(1, bulkWeight));
+
+        for (ExtractionPriority lane : ExtractionPriority.values()) {
+            queued.put(lane, 0);
+            running.put(lane, 0);
+            String tag = lane.name().toLowerCase();
+
+            Gauge.builder("extraction.scheduler.queued", this, s -> s.count(s.queued, lane))
+                    .tag("lane", tag)
+                    .description("Extraction jobs waiting for a worker")
+                    .register(meterRegistry);
+            Gauge.builder("extraction.scheduler.running", this, s -> s.count(s.running, lane))
+                    .tag("lane", tag)
+                    .description("Extraction jobs holding a worker")
+                    .register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("extraction.scheduler.wait")
+                    .tag("lane", tag)
+                    .description("Time from submission to worker start")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("extraction.scheduler.flows", this, s -> s.flowCount())
+                .description("Distinct (lane, submitter) queues with waiting jobs")
+                .register(meterRegistry);
+        Gauge.builder("extraction.scheduler.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                .description("Worker slots currently allowed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a PENDING job; its pipeline starts as soon as its flow is next in line.
+     */
+    public void submit(ExtractionJobEntity job, String authorizationHeader) {
+        ExtractionPriority lane = job.getPriority() == null ? ExtractionPriority.NORMAL : job.getPriority();
+        String submitter = job.getSubmittedBy() == null || job.getSubmittedBy().isBlank() ? ANONYMOUS : job.getSubmittedBy();
+        int pages = job.getEstimatedPages() == null || job.getEstimatedPages() < 1 ? defaultPages : job.getEstimatedPages();
+
+        synchronized (this) {
+            String flowKey = lane.name() + ":" + submitter;
+            Flow flow = flows.computeIfAbsent(flowKey, k -> new Flow(k, lane, newJobQueue()));
+            flow.jobs().add(new QueuedJob(job.getJobKey(), authorizationHeader, pages, sequence++, System.nanoTime()));
+            queued.merge(lane, 1, Integer::sum);
+        }
+        dispatch();
+    }
+
+    /**
+     * Drops a job that has not reached a worker yet.
+     *
+     * @return true when the job was still queued here
+     */
+    public synchronized boolean remove(String jobKey) {
+        for (Iterator<Flow> it = flows.values().iterator(); it.hasNext(); ) {
+            Flow flow = it.next();
+            if (flow.jobs().removeIf(q -> q.jobKey().equals(jobKey))) {
+                queued.merge(flow.lane(), -1, Integer::sum);
+                if (flow.jobs().isEmpty()) it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record QueuedWork(String jobKey, String authorizationHeader) {}
+
+    /**
+     * Removes and returns every job that has not started yet, e.g. to hand it to another replica on shutdown.
+     */
+    public synchronized List<QueuedWork> drainQueued() {
+        List<QueuedWork> out = new ArrayList<>();
+        for (Flow flow : flows.values()) {
+            for (QueuedJob q : flow.jobs()) {
+                out.add(new QueuedWork(q.jobKey(), q.authorizationHeader()));
+            }
+            queued.merge(flow.lane(), -flow.jobs().size(), Integer::sum);
+        }
+        flows.clear();
+        return out;
+    }
+
+    /**
+     * Feeds queue depth into the adaptive limit and starts queued jobs if it grew.
+     */
+    @Scheduled(fixedDelayString = "${dealhub.extraction.workers.adjust-interval-ms:5000}")
+    public void adjustConcurrency() {
+        int queuedTotal;
+        int runningNow;
+        synchronized (this) {
+            queuedTotal = queuedCount();
+            runningNow = runningTotal;
+        }
+        concurrencyLimit.update(queuedTotal, runningNow);
+        dispatch();
+    }
+
+    /** Starts queued jobs after the limit was raised by hand. */
+    public void limitChanged() {
+        dispatch();
+    }
+
+    public synchronized int queuedCount() {
+        return queued.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public synchronized int runningCount() {
+        return runningTotal;
+    }
+
+    private void dispatch() {
+        while (true) {
+            QueuedJob next;
+            ExtractionPriority lane;
+
+            synchronized (this) {
+                if (runningTotal >= concurrencyLimit.limit()) return;
+
+                Flow flow = pickFlow();
+                if (flow == null) return;
+
+                next = flow.jobs().poll();
+                lane = flow.lane();
+
+                double start = startTag(flow);
+                double finish = start + cost(next) / weights.get(lane);
+                virtualTime = start;
+                lastFinish.put(flow.key(), finish);
+                if (flow.jobs().isEmpty()) flows.remove(flow.key());
+                // flows that fell behind virtual time get no credit for having been idle
+                lastFinish.values().removeIf(f -> f <= virtualTime);
+
+                queued.merge(lane, -1, Integer::sum);
+                running.merge(lane, 1, Integer::sum);
+                runningTotal++;
+            }
+
+            waitTimers.get(lane).record(Duration.ofNanos(System.nanoTime() - next.enqueuedAt()));
+            worker.start(next.jobKey(), next.authorizationHeader())
+                    .whenComplete((v, ex) -> {
+                        if (ex != null) log.error("Extraction job {} ended with an unhandled error", next.jobKey(), ex);
+                        finished(lane);
+                        dispatch();
+                    });
+        }
+    }
+
+    private synchronized void finished(ExtractionPriority lane) {
+        running.merge(lane, -1, Integer::sum);
+        runningTotal--;
+    }
+
+    private Flow pickFlow() {
+        Flow best = null;
+        double bestStart = 0;
+        for (Flow flow : flows.values()) {
+            double start = startTag(flow);
+            if (best == null
+                    || start < bestStart
+                    || (start == bestStart && flow.lane().ordinal() < best.lane().ordinal())) {
+                best = flow;
+                bestStart = start;
+            }
+        }
+        return best;
+    }
+
+    private double startTag(Flow flow) {
+        return Math.max(virtualTime, lastFinish.getOrDefault(flow.key(), 0d));
+    }
+
+    private double cost(QueuedJob job) {
+        return shortestJobFirst ? job.pages() : 1;
+    }
+
+    private Queue<QueuedJob> newJobQueue() {
+        if (!shortestJobFirst) return new ArrayDeque<>();
+        return new PriorityQueue<>(Comparator.comparingInt(QueuedJob::pages).thenComparingLong(QueuedJob::sequence));
+    }
+
+    private synchronized int count(Map<ExtractionPriority, Integer> counters, ExtractionPriority lane) {
+        return counters.get(lane);
+    }
+
+    private synchronized int flowCount() {
+        return flows.size();
+    }
+
+    private record QueuedJob(String jobKey, String authorizationHeader, int pages, long sequence, long enqueuedAt) {}
+
+    private record Flow(String key, ExtractionPriority lane, Queue<QueuedJob> jobs) {}
+}
@@ -12,4 +12,8 @@ public class ExtractionSchemaResolver {
         }
         return FacilityAgreementSchema.jsonSchema();
     }
+
+    public String versionFor(ExtractionProfile profile) {
+        return FacilityAgreementSchema.VERSION;
+    }
 }
@@ -1,232 +1,328 @@
 package com.dealhub.extraction.service;
 
 import com.dealhub.extraction.dto.ExtractionResponse;
+import com.dealhub.extraction.dto.ExtractionStatusResponse;
+import com.dealhub.extraction.dto.DraftOutboxResponse;
 import com.dealhub.extraction.dto.StartExtractionRequest;
 import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionMode;
+import com.dealhub.extraction.model.ExtractionPriority;
 import com.dealhub.extraction.model.ExtractionStatus;
 import com.dealhub.extraction.repository.ExtractionJobRepository;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.HttpHeaders;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Flux;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.IOException;
-import java.nio.channels.AsynchronousFileChannel;
-import java.nio.file.*;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ExtractionService {
 
-    private final ExtractionJobRepository repository;
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private static final List<ExtractionStatus> CANCELLABLE =
+            List.of(ExtractionStatus.PENDING, ExtractionStatus.RUNNING, ExtractionStatus.FAILED);
+
+    private static final List<ExtractionStatus> ACTIVE = List.of(ExtractionStatus.PENDING, ExtractionStatus.RUNNING);
 
-    private final PdfTextExtractor pdfTextExtractor;
-    private final LlmFacilityAgreementExtractor llmFacilityAgreementExtractor;
+    // inserts tried per start: a flight key still held by a finished job is released and the insert repeated
+    private static final int START_ATTEMPTS = 3;
+
+    private final ExtractionJobRepository repository;
+    private final ExtractionSchemaResolver schemaResolver;
+    private final ExtractionScheduler scheduler;
+    private final ExtractionRouter router;
+    private final RunningJobRegistry runningJobs;
+    private final ExtractionCheckpointService checkpoints;
+    private final AgreementDraftOutbox draftOutbox;
+    private final LlmBatchQueue batchQueue;
+    private final AgreementClient agreementClient;
+    private final ExtractionRetentionService retention;
 
     public ExtractionService(
             ExtractionJobRepository repository,
-            WebClient webClient,
-            ObjectMapper objectMapper,
-            PdfTextExtractor pdfTextExtractor,
-            LlmFacilityAgreementExtractor llmFacilityAgreementExtractor
+            ExtractionSchemaResolver schemaResolver,
+            ExtractionScheduler scheduler,
+            ExtractionRouter router,
+            RunningJobRegistry runningJobs,
+            ExtractionCheckpointService checkpoints,
+            AgreementDraftOutbox draftOutbox,
+            LlmBatchQueue batchQueue,
+            AgreementClient agreementClient,
+            ExtractionRetentionService retention
     ) {
         this.repository = repository;
-        this.webClient = webClient;
-        this.objectMapper = objectMapper;
-        this.pdfTextExtractor = pdfTextExtractor;
-        this.llmFacilityAgreementExtractor = llmFacilityAgreementExtractor;
+        this.schemaResolver = schemaResolver;
+        this.scheduler = scheduler;
+        this.router = router;
+        this.runningJobs = runningJobs;
+        this.checkpoints = checkpoints;
+        this.draftOutbox = draftOutbox;
+        this.batchQueue = batchQueue;
+        this.agreementClient = agreementClient;
+        this.retention = retention;
     }
 
-    @Transactional
-    public ExtractionResponse startAsync(StartExtractionRequest req, String authorizationHeader) {
-        String jobKey = UUID.randomUUID().toString();
-        Instant now = Instant.now();
+    /**
+     * Starts a job, or returns an existing one instead:
+     * <ul>
+     *   <li>a job created with the same Idempotency-Key (any status), provided it was for the same document,
+     *   agreement, profile and mode; reusing a key for a different request is refused (422);</li>
+     *   <li>unless {@code force} is set, the active (PENDING/RUNNING) job for the same document, profile and
+     *   schema version, so double-clicks and client retries share one LLM run. The unique active_flight_key
+     *   column makes this hold across replicas: a concurrent start that loses the insert returns the winner's job.</li>
+     * </ul>
+     * An AMENDMENT job pins its base version here and is refused (409) when the agreement has none.
+     * Not @Transactional: the job row must be committed before the async worker looks it up.
+     */
+    public ExtractionResponse startAsync(
+            StartExtractionRequest req,
+            String authorizationHeader,
+            String submittedBy,
+            String idempotencyKey
+    ) {
+        String idemKey = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.trim();
+        if (idemKey != null && idemKey.length() > 128) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must be at most 128 characters");
+        }
+        if (idemKey != null) {
+            Optional<ExtractionJobEntity> previous = repository.findByIdempotencyKey(idemKey);
+            if (previous.isPresent()) return toResponse(sameRequest(previous.get(), req));
+        }
 
+        ExtractionMode mode = req.mode() == null ? ExtractionMode.FULL : req.mode();
+        if (mode != ExtractionMode.AMENDMENT && req.baseVersionId() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "baseVersionId is only allowed with mode AMENDMENT");
+        }
+        Long baseVersionId = mode == ExtractionMode.AMENDMENT
+                ? agreementClient.baseVersion(req.agreementId(), req.baseVersionId()).versionId()
+                : null;
+
+        String schemaVersion = schemaResolver.versionFor(req.extractionProfile());
+        boolean force = Boolean.TRUE.equals(req.force());
+        // forced jobs neither join nor hold a flight
+        String flightKey = force ? null
+                : req.documentId() + ":" + req.extractionProfile() + ":" + schemaVersion + ":" + mode
+                        + (baseVersionId == null ? "" : ":" + baseVersionId);
+
+        if (!force) {
+            Optional<ExtractionJobEntity> active = repository
+                    .findByDocumentIdAndExtractionProfileAndSchemaVersionAndStatusInOrderByCreatedAtDesc(
+                            req.documentId(), req.extractionProfile(), schemaVersion, ACTIVE)
+                    .stream()
+                    .filter(j -> j.isAmendment() == (mode == ExtractionMode.AMENDMENT)
+                            && Objects.equals(j.getBaseVersionId(), baseVersionId))
+                    .findFirst();
+            if (active.isPresent()) return toResponse(active.get());
+        }
+
+        ExtractionJobEntity job = null;
+        for (int attempt = 1; job == null; attempt++) {
+            ExtractionJobEntity candidate = newJob(req, mode, baseVersionId, schemaVersion, flightKey, idemKey, submittedBy);
+            try {
+                repository.save(candidate);
+                job = candidate;
+            } catch (DataIntegrityViolationException e) {
+                // the same Idempotency-Key was used by a concurrent request, possibly for another document
+                if (idemKey != null) {
+                    Optional<ExtractionJobEntity> previous = repository.findByIdempotencyKey(idemKey);
+                    if (previous.isPresent()) return toResponse(sameRequest(previous.get(), req));
+                }
+                if (flightKey == null || attempt >= START_ATTEMPTS) throw e;
+
+                // another request (on any replica) holds the flight: join its job, or take the key over once it finished
+                Optional<ExtractionJobEntity> holder = repository.findByActiveFlightKey(flightKey);
+                if (holder.isPresent()) {
+                    if (ACTIVE.contains(holder.get().getStatus())) return toResponse(holder.get());
+                    repository.releaseFlight(holder.get().getJobKey(), ACTIVE);
+                }
+            }
+        }
+
+        router.dispatch(job, authorizationHeader);
+        return toResponse(job);
+    }
+
+    private ExtractionJobEntity newJob(
+            StartExtractionRequest req,
+            ExtractionMode mode,
+            Long baseVersionId,
+            String schemaVersion,
+            String flightKey,
+            String idemKey,
+            String submittedBy
+    ) {
+        Instant now = Instant.now();
         ExtractionJobEntity job = new ExtractionJobEntity();
-        job.setJobKey(jobKey);
+        job.setJobKey(UUID.randomUUID().toString());
         job.setDocumentId(req.documentId());
         job.setAgreementId(req.agreementId());
         job.setExtractionProfile(req.extractionProfile());
+        job.setSchemaVersion(schemaVersion);
+        job.setActiveFlightKey(flightKey);
+        job.setIdempotencyKey(idemKey);
+        job.setPriority(req.priority() == null ? ExtractionPriority.NORMAL : req.priority());
+        job.setSubmittedBy(submittedBy);
+        job.setEstimatedPages(req.estimatedPages());
+        job.setCreateDraft(draftOutbox.wanted(req.createDraft()));
+        job.setMode(mode);
+        job.setBaseVersionId(baseVersionId);
         job.setStatus(ExtractionStatus.PENDING);
         job.setCreatedAt(now);
         job.setUpdatedAt(now);
-
-        repository.save(job);
-
-        processJobAsync(jobKey, authorizationHeader);
-        return toResponse(job);
+        return job;
     }
 
-    @Async("extractionExecutor")
-    public CompletableFuture<Void> processJobAsync(String jobKey, String authorizationHeader) {
-        Path pdfPath = null;
-
-        try {
-            markRunning(jobKey);
+    // an Idempotency-Key names one request: replaying it returns its job, reusing it for another is an error
+    private static ExtractionJobEntity sameRequest(ExtractionJobEntity previous, StartExtractionRequest req) {
+        ExtractionMode mode = req.mode() == null ? ExtractionMode.FULL : req.mode();
+        ExtractionMode previousMode = previous.getMode() == null ? ExtractionMode.FULL : previous.getMode();
+        boolean same = Objects.equals(previous.getDocumentId(), req.documentId())
+                && Objects.equals(previous.getAgreementId(), req.agreementId())
+                && previous.getExtractionProfile() == req.extractionProfile()
+                && previousMode == mode
+                && (req.baseVersionId() == null || Objects.equals(previous.getBaseVersionId(), req.baseVersionId()));
+        if (!same) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different extraction request (job " + previous.getJobKey() + ")");
+        }
+        return previous;
+    }
 
-            // 1) download PDF
-            pdfPath = downloadPdfToTempFile(jobKey, authorizationHeader);
+    /**
+     * Re-runs a FAILED job under the same job key. Stages checkpointed by the previous attempt are
+     * not recomputed, so the retry resumes after the last completed LLM call.
+     */
+    public ExtractionResponse retry(String jobKey, String authorizationHeader) {
+        ExtractionJobEntity job = getJobByKey(jobKey);
 
-            // 2) extract PDF text
-            String fullText = pdfTextExtractor.extractText(pdfPath);
-            if (fullText == null || fullText.isBlank()) {
-                throw new IllegalStateException("PDF text extraction is empty. If this is a scanned PDF, OCR is required.");
-            }
+        if (job.getStatus() != ExtractionStatus.FAILED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Only FAILED extraction jobs can be retried (status=" + job.getStatus() + ")");
+        }
 
-            // 3) chunk it (simple char-based chunking)
-            List<String> chunks = chunkText(fullText, 12000); // ~12k chars per chunk
+        job.setStatus(ExtractionStatus.PENDING);
+        job.setErrorMessage(null);
+        job.setRecoveries(0);
+        job.setUpdatedAt(Instant.now());
+        repository.save(job);
 
-            // 4) build schema (the EXACT shape you want)
-            ExtractionJobEntity job = getJobByKey(jobKey);
-            String schema = facilityAgreementSchema(job.getExtractionProfile().name());
+        router.dispatch(job, authorizationHeader);
+        return toResponse(job);
+    }
 
-            // 5) LLM extraction -> JsonNode
-            JsonNode extracted = llmFacilityAgreementExtractor.extract(
-                    schema,
-                    job.getDocumentId(),
-                    job.getAgreementId(),
-                    chunks
-            );
+    /**
+     * Marks the job CANCELLED. A queued job is dropped from the scheduler; if it is running on this instance
+     * its in-flight LLM calls are cancelled and the worker thread is released.
+     */
+    public ExtractionResponse cancel(String jobKey) {
+        ExtractionJobEntity job = getJobByKey(jobKey);
 
-            // 6) store result
-            markDone(jobKey, objectMapper.writeValueAsString(extracted));
+        if (job.getStatus() == ExtractionStatus.DONE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Extraction job already completed: " + jobKey);
+        }
 
-        } catch (Exception ex) {
-            markFailed(jobKey, ex);
-        } finally {
-            if (pdfPath != null) safeDelete(pdfPath);
+        // signal first: the worker checks the flag before writing its own terminal status
+        if (!router.cancelRemote(job)) {
+            signalCancel(jobKey);
         }
+        repository.transition(jobKey, CANCELLABLE, ExtractionStatus.CANCELLED, Instant.now());
+        checkpoints.clear(jobKey);
+        batchQueue.discard(jobKey);
 
-        return CompletableFuture.completedFuture(null);
+        return toResponse(getJobByKey(jobKey));
     }
 
-    private List<String> chunkText(String text, int maxChars) {
-        List<String> chunks = new ArrayList<>();
-        if (text == null || text.isBlank()) return chunks;
-
-        int start = 0;
-        while (start < text.length()) {
-            int end = Math.min(start + maxChars, text.length());
-            chunks.add(text.substring(start, end));
-            start = end;
-        }
-        return chunks;
-    }
-
-    private String facilityAgreementSchema(String profile) {
-        return """
-        {
-          "profile": "%s",
-          "documentId": 0,
-          "agreementId": 0,
-          "parties": {
-            "borrowerName": null,
-            "administrativeAgentName": null,
-            "lenders": [
-              {"name": null, "shareAmount": null, "sharePercentage": null}
-            ]
-          },
-          "keyDates": {
-            "agreementDate": null,
-            "effectiveDate": null,
-            "expiryDate": null,
-            "maturityDate": null
-          },
-          "facilities": [
-            {"facilityType": null, "currency": null, "amount": null}
-          ],
-          "pricing": {
-            "baseRate": null,
-            "margin": null
-          },
-          "interestPeriods": []
+    /**
+     * Stops the job if it is queued or running on this replica; the status change is the caller's business.
+     */
+    public void signalCancel(String jobKey) {
+        if (!scheduler.remove(jobKey)) {
+            runningJobs.cancel(jobKey);
         }
-        """.formatted(profile);
     }
 
-    private Path downloadPdfToTempFile(String jobKey, String authorizationHeader) throws IOException {
+    /**
+     * Accepts a job a peer replica routed here (cluster mode).
+     */
+    public void acceptDispatched(String jobKey, String authorizationHeader) {
         ExtractionJobEntity job = getJobByKey(jobKey);
-        Long documentId = job.getDocumentId();
-
-        Path tmp = Files.createTempFile("dealhub-doc-" + jobKey + "-", ".pdf");
-
-        Flux<DataBuffer> body = webClient.get()
-                .uri("/documents/{id}/download", documentId)
-                .header(HttpHeaders.AUTHORIZATION, authorizationHeader == null ? "" : authorizationHeader)
-                .retrieve()
-                .bodyToFlux(DataBuffer.class);
-
-        try (AsynchronousFileChannel ch = AsynchronousFileChannel.open(tmp, StandardOpenOption.WRITE)) {
-            DataBufferUtils.write(body, ch, 0).then().block();
+        if (job.getStatus() != ExtractionStatus.PENDING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Only PENDING extraction jobs can be dispatched (status=" + job.getStatus() + ")");
         }
-
-        return tmp;
+        router.runLocally(job, authorizationHeader);
     }
 
-    @Transactional(readOnly = true)
-    public ExtractionResponse getByKey(String jobKey) {
-        return toResponse(getJobByKey(jobKey));
+    /**
+     * Cancels every active job of a document, e.g. when it was uploaded by mistake or superseded.
+     */
+    public List<ExtractionResponse> cancelByDocument(Long documentId) {
+        return repository.findByDocumentIdAndStatusIn(documentId, ACTIVE)
+                .stream()
+                .map(job -> cancel(job.getJobKey()))
+                .toList();
     }
 
-    private ExtractionJobEntity getJobByKey(String jobKey) {
-        return repository.findByJobKey(jobKey)
-                .orElseThrow(() -> new RuntimeException("Extraction job not found: " + jobKey));
+    /** Queues (or requeues) the agreement draft of a DONE job. */
+    public DraftOutboxResponse requestDraft(String jobKey) {
+        return draftOutbox.request(getJobByKey(jobKey));
     }
 
-    @Transactional
-    protected void markRunning(String jobKey) {
-        ExtractionJobEntity job = getJobByKey(jobKey);
-        job.setStatus(ExtractionStatus.RUNNING);
-        job.setUpdatedAt(Instant.now());
-        repository.save(job);
+    public DraftOutboxResponse getDraft(String jobKey) {
+        getJobByKey(jobKey);
+        return draftOutbox.status(jobKey);
     }
 
-    @Transactional
-    protected void markDone(String jobKey, String resultJsonText) {
-        ExtractionJobEntity job = getJobByKey(jobKey);
+    @Transactional(readOnly = true)
+    public ExtractionStatusResponse getStatus(String jobKey) {
+        return repository.findStatusByJobKey(jobKey)
+                .or(() -> retention.archivedStatus(jobKey))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Extraction job not found: " + jobKey));
+    }
 
-        JsonNode node;
-        try {
-            node = objectMapper.readTree(resultJsonText);
-        } catch (Exception e) {
-            node = objectMapper.createObjectNode()
-                    .put("error", "Invalid JSON produced by extractor")
-                    .put("details", e.getMessage())
-                    .put("raw", resultJsonText);
-
-            job.setStatus(ExtractionStatus.FAILED);
-            job.setErrorMessage("Extractor produced invalid JSON: " + e.getMessage());
-        }
+    @Transactional(readOnly = true)
+    public ExtractionResponse getByKey(String jobKey) {
+        return getByKey(getStatus(jobKey));
+    }
 
-        if (job.getStatus() != ExtractionStatus.FAILED) {
-            job.setStatus(ExtractionStatus.DONE);
-            job.setErrorMessage(null);
+    /**
+     * Full response for an already-loaded status; result_json is only read once the job is DONE, from the
+     * archive if the job was compacted.
+     */
+    @Transactional(readOnly = true)
+    public ExtractionResponse getByKey(ExtractionStatusResponse status) {
+        if (status.status() == ExtractionStatus.DONE) {
+            Optional<ExtractionJobEntity> job = repository.findByJobKey(status.jobKey());
+            if (job.isPresent()) return toResponse(job.get());
+            return toResponse(status, retention.archivedResult(status.jobKey()));
         }
+        return toResponse(status, null);
+    }
 
-        job.setResultJson(node);
-        job.setUpdatedAt(Instant.now());
-        repository.save(job);
+    private ExtractionResponse toResponse(ExtractionStatusResponse status, JsonNode resultJson) {
+        return new ExtractionResponse(
+                status.jobKey(),
+                status.documentId(),
+                status.agreementId(),
+                status.extractionProfile(),
+                status.priority(),
+                status.status(),
+                resultJson,
+                status.errorMessage(),
+                status.createdAt(),
+                status.updatedAt()
+        );
     }
 
-    @Transactional
-    protected void markFailed(String jobKey, Exception ex) {
-        ExtractionJobEntity job = getJobByKey(jobKey);
-        job.setStatus(ExtractionStatus.FAILED);
-        job.setErrorMessage(ex.getMessage());
-        job.setUpdatedAt(Instant.now());
-        repository.save(job);
+    private ExtractionJobEntity getJobByKey(String jobKey) {
+        return repository.findByJobKey(jobKey)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Extraction job not found: " + jobKey));
     }
 
     private ExtractionResponse toResponse(ExtractionJobEntity job) {
@@ -235,6 +331,7 @@ public class ExtractionService {
                 job.getDocumentId(),
                 job.getAgreementId(),
                 job.getExtractionProfile(),
+                job.getPriority(),
                 job.getStatus(),
                 job.getResultJson(),
                 job.getErrorMessage(),
@@ -242,8 +339,4 @@ public class ExtractionService {
                 job.getUpdatedAt()
         );
     }
-
-    private void safeDelete(Path p) {
-        try { Files.deleteIfExists(p); } catch (Exception ignored) {}
-    }
 }
@@ -1,16 +1,36 @@
 package com.dealhub.extraction.service;
 
+import com.dealhub.extraction.dto.BaseVersion;
+import com.dealhub.extraction.dto.DownloadGrant;
+import com.dealhub.extraction.dto.TextLayer;
+import com.dealhub.extraction.exception.AwaitingBatchException;
 import com.dealhub.extraction.model.ExtractionJobEntity;
 import com.dealhub.extraction.model.ExtractionStatus;
 import com.dealhub.extraction.repository.ExtractionJobRepository;
 import com.fasterxml.jackson.databind.JsonNode;
-import org.springframework.scheduling.annotation.Async;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
+/**
+ * Runs a job as a chain of stages, each on its own pool:
+ * download (I/O) -> parse (CPU) -> extract (LLM) -> verify (CPU) -> repair (LLM) -> persist (batched writer).
+ * When document-service already parsed the PDF at upload, the download stage fetches that text layer
+ * instead and parse only chunks it. Bulk jobs in batch mode leave the extract stage early, back in PENDING,
+ * and are started again once their batched PASS 1 answers are checkpointed. AMENDMENT jobs extract and verify
+ * only what the document changes, then apply it to their base version before persisting.
+ * A job holds a thread only while one of its stages is executing, so a slow LLM call no longer
+ * occupies a slot that PDF parsing could use and vice versa.
+ */
 @Service
 public class ExtractionWorker {
 
@@ -21,6 +41,16 @@ public class ExtractionWorker {
     private final ExtractionSchemaResolver schemaResolver;
     private final LlmFacilityAgreementExtractor llmExtractor;
     private final FacilityAgreementValidator facilityAgreementValidator;
+    private final EvidenceVerifier evidenceVerifier;
+    private final ExtractionCheckpointService checkpoints;
+    private final RunningJobRegistry runningJobs;
+    private final ExtractionResultWriter resultWriter;
+    private final StageExecutor downloadStage;
+    private final StageExecutor parseStage;
+    private final StageExecutor llmStage;
+    private final MemoryBudgetGovernor memoryGovernor;
+    private final LlmBatchQueue batchQueue;
+    private final AgreementClient agreementClient;
 
     public ExtractionWorker(
             ExtractionJobRepository repository,
@@ -29,7 +59,17 @@ public class ExtractionWorker {
             TextChunker textChunker,
             ExtractionSchemaResolver schemaResolver,
             LlmFacilityAgreementExtractor llmExtractor,
-            FacilityAgreementValidator facilityAgreementValidator
+            FacilityAgreementValidator facilityAgreementValidator,
+            EvidenceVerifier evidenceVerifier,
+            ExtractionCheckpointService checkpoints,
+            RunningJobRegistry runningJobs,
+            ExtractionResultWriter resultWriter,
+            @Qualifier("downloadStage") StageExecutor downloadStage,
+            @Qualifier("parseStage") StageExecutor parseStage,
+            @Qualifier("llmStage") StageExecutor llmStage,
+            MemoryBudgetGovernor memoryGovernor,
+            LlmBatchQueue batchQueue,
+            AgreementClient agreementClient
     ) {
         this.repository = repository;
         this.documentDownloadService = documentDownloadService;
@@ -38,56 +78,216 @@ public class ExtractionWorker {
         this.schemaResolver = schemaResolver;
         this.llmExtractor = llmExtractor;
         this.facilityAgreementValidator = facilityAgreementValidator;
+        this.evidenceVerifier = evidenceVerifier;
+        this.checkpoints = checkpoints;
+        this.runningJobs = runningJobs;
+        this.resultWriter = resultWriter;
+        this.downloadStage = downloadStage;
+        this.parseStage = parseStage;
+        this.llmStage = llmStage;
+        this.memoryGovernor = memoryGovernor;
+        this.batchQueue = batchQueue;
+        this.agreementClient = agreementClient;
     }
 
-    @Async("extractionExecutor")
-    public void runJob(String jobKey, String authorizationHeader) {
-        ExtractionJobEntity job = repository.findByJobKey(jobKey)
-                .orElseThrow(() -> new RuntimeException("Extraction job not found: " + jobKey));
+    // state handed from stage to stage; each stage completes before the next starts
+    private static final class JobRun {
+        final String jobKey;
+        final String authorizationHeader;
+        final ExtractionJobHandle handle;
+        ExtractionJobEntity job;
+        Path tmpPdf;
+        MemoryBudgetGovernor.Reservation memory;
+        List<String> pages;
+        List<Integer> nonSearchablePages;
+        List<String> chunks;
+        String schema;
+        BaseVersion base;
+        // FULL: the extraction; AMENDMENT: what the document changes, until it is applied to base
+        JsonNode extracted;
+        DocumentTextIndex index;
+        EvidenceVerifier.Report report;
 
-        job.setStatus(ExtractionStatus.RUNNING);
-        job.setUpdatedAt(Instant.now());
-        repository.save(job);
+        JobRun(String jobKey, String authorizationHeader, ExtractionJobHandle handle) {
+            this.jobKey = jobKey;
+            this.authorizationHeader = authorizationHeader;
+            this.handle = handle;
+        }
 
-        Path tmpPdf = null;
+        // real size for shortest-job-first ordering if this job is retried
+        Integer pageCount() {
+            return pages == null ? null : pages.size();
+        }
+    }
 
-        try {
-            tmpPdf = documentDownloadService.downloadToTempFile(job.getDocumentId(), authorizationHeader);
+    /**
+     * Starts the job's pipeline; {@link ExtractionScheduler} decides when. The future completes once the
+     * terminal state is persisted, or right away if the job was cancelled before it started.
+     */
+    public CompletableFuture<Void> start(String jobKey, String authorizationHeader) {
+        ExtractionJobHandle handle = runningJobs.register(jobKey);
+        JobRun run = new JobRun(jobKey, authorizationHeader, handle);
+
+        return downloadStage.submit(handle, () -> download(run))
+                .thenCompose(started -> started ? process(run) : CompletableFuture.<Void>completedFuture(null))
+                .exceptionallyCompose(ex -> failed(run, ex))
+                .whenComplete((v, ex) -> {
+                    runningJobs.unregister(handle);
+                    if (run.memory != null) {
+                        run.memory.release();
+                    }
+                    if (run.tmpPdf != null) {
+                        documentDownloadService.safeDelete(run.tmpPdf);
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> process(JobRun run) {
+        ExtractionJobHandle handle = run.handle;
+        return parseStage.submit(handle, () -> parse(run))
+                .thenCompose(v -> llmStage.submit(handle, () -> extract(run)))
+                .thenCompose(v -> parseStage.submit(handle, () -> verify(run)))
+                .thenCompose(v -> run.report.unverified().isEmpty()
+                        ? CompletableFuture.completedFuture(run.report)
+                        : llmStage.submit(handle, () -> evidenceVerifier.repair(handle, (ObjectNode) run.extracted, run.index, run.report)))
+                .thenCompose(v -> {
+                    handle.throwIfCancelled();
+                    return resultWriter.complete(run.jobKey, run.job.isAmendment() ? amended(run) : run.extracted, run.pageCount());
+                });
+    }
+
+    private boolean download(JobRun run) throws Exception {
+        // cancelled while waiting in the queue: nothing to do
+        if (repository.transition(run.jobKey, List.of(ExtractionStatus.PENDING), ExtractionStatus.RUNNING, Instant.now()) == 0) {
+            return false;
+        }
 
-            String fullText = pdfTextExtractor.extractText(tmpPdf);
-            if (fullText == null || fullText.isBlank()) {
-                throw new IllegalStateException("PDF text extraction is empty (maybe scanned PDF).");
+        run.job = repository.findByJobKey(run.jobKey)
+                .orElseThrow(() -> new RuntimeException("Extraction job not found: " + run.jobKey));
+
+        if (run.job.isAmendment()) {
+            run.base = agreementClient.baseVersion(run.job.getAgreementId(), run.job.getBaseVersionId());
+        }
+
+        Long documentId = run.job.getDocumentId();
+        DownloadGrant grant = documentDownloadService.grant(documentId, run.authorizationHeader);
+
+        // parsed at upload: neither the PDF nor PDFBox is needed
+        TextLayer layer = documentDownloadService.textLayer(grant);
+        if (layer != null) {
+            run.pages = layer.pages();
+            run.nonSearchablePages = layer.nonSearchablePages() == null ? List.of() : layer.nonSearchablePages();
+            if (run.pages.stream().allMatch(String::isBlank)) {
+                throw PdfTextExtractor.noTextLayer(run.pages.size(), run.nonSearchablePages.size());
             }
+            run.memory = memoryGovernor.reserve(memoryGovernor.estimateText(run.pages.size()));
+            return true;
+        }
 
-            List<String> chunks = textChunker.chunk(fullText, 12_000);
+        run.tmpPdf = documentDownloadService.downloadToTempFile(documentId, run.authorizationHeader, grant);
 
-            String schema = schemaResolver.schemaFor(job.getExtractionProfile());
+        // admission against the heap budget happens here, on the I/O pool, so waiting never blocks a CPU thread
+        long fileBytes = Files.size(run.tmpPdf);
+        run.memory = memoryGovernor.reserve(memoryGovernor.estimateParse(fileBytes, run.job.getEstimatedPages()));
+        return true;
+    }
 
-            JsonNode extracted = llmExtractor.extract(
-                    schema,
-                    job.getDocumentId(),
-                    job.getAgreementId(),
-                    chunks
-            );
+    private Void parse(JobRun run) throws Exception {
+        if (run.pages == null) {
+            // fails before stripping any text when no page has a text layer
+            PdfTextExtractor.PdfText text = pdfTextExtractor.extract(run.tmpPdf);
+            run.pages = text.pages();
+            run.nonSearchablePages = text.nonSearchablePages();
+            // the PDF is closed; only the text and what is derived from it stay in memory
+            run.memory.shrinkTo(memoryGovernor.estimateText(run.pages.size()));
+        }
 
-            facilityAgreementValidator.validate(extracted);
+        // scanned and blank pages are "" and contribute nothing to the prompt
+        String fullText = run.pages.stream()
+                .filter(p -> !p.isBlank())
+                .collect(Collectors.joining("\n\n"))
+                .trim();
+        if (fullText.isBlank()) {
+            throw PdfTextExtractor.noTextLayer(run.pages.size(), run.nonSearchablePages.size());
+        }
 
-            job.setStatus(ExtractionStatus.DONE);
-            job.setResultJson(extracted);
-            job.setErrorMessage(null);
-            job.setUpdatedAt(Instant.now());
-            repository.save(job);
+        run.chunks = textChunker.chunk(fullText, 12_000);
+        run.schema = schemaResolver.schemaFor(run.job.getExtractionProfile());
+        return null;
+    }
 
-        } catch (Exception ex) {
-            job.setStatus(ExtractionStatus.FAILED);
-            job.setErrorMessage(ex.getMessage());
-            job.setUpdatedAt(Instant.now());
-            repository.save(job);
+    private Void extract(JobRun run) throws Exception {
+        if (run.job.isAmendment()) {
+            // checked once it is applied to the base version
+            run.extracted = llmExtractor.extractAmendment(run.handle, run.chunks);
+            return null;
+        }
+        run.extracted = llmExtractor.extract(
+                run.handle,
+                run.schema,
+                run.job.getDocumentId(),
+                run.job.getAgreementId(),
+                run.chunks,
+                batchQueue.appliesTo(run.job.getPriority())
+        );
+        recordNonSearchablePages(run);
+        facilityAgreementValidator.validate(run.extracted);
+        return null;
+    }
 
-        } finally {
-            if (tmpPdf != null) {
-                documentDownloadService.safeDelete(tmpPdf);
-            }
+    // the verified amendment applied to the base version, with the field-level delta under "amendment"
+    private JsonNode amended(JobRun run) {
+        ObjectNode amendment = (ObjectNode) run.extracted;
+        AmendmentDelta.Result delta = AmendmentDelta.apply(run.base.extractedJson(), amendment);
+
+        ObjectNode result = delta.merged();
+        result.put("documentId", run.job.getDocumentId());
+        result.put("agreementId", run.job.getAgreementId());
+        ObjectNode block = result.putObject("amendment");
+        block.put("baseVersionId", run.base.versionId());
+        block.set("changes", delta.changesJson());
+        if (amendment.has(LlmFacilityAgreementExtractor.TRUNCATED)) {
+            result.withObjectProperty("validationAndGaps").withArrayProperty("notes")
+                    .add("Amendment output was cut off by the model's output limit; changes after the cut may be missing.");
+        }
+
+        run.extracted = result;
+        recordNonSearchablePages(run);
+        facilityAgreementValidator.validate(result);
+        return result;
+    }
+
+    // the page scan is authoritative; the model cannot see pages that had no text
+    private void recordNonSearchablePages(JobRun run) {
+        if (!(run.extracted instanceof ObjectNode root) || run.nonSearchablePages == null) return;
+        ArrayNode pages = root.withObjectProperty("validationAndGaps").putArray("nonSearchablePages");
+        run.nonSearchablePages.forEach(pages::add);
+    }
+
+    // every evidence quote must be verbatim; the ones that are not are re-asked on the LLM stage
+    private Void verify(JobRun run) {
+        if (run.extracted instanceof ObjectNode) {
+            run.index = DocumentTextIndex.of(run.pages);
+            run.report = evidenceVerifier.verify(run.extracted, run.index);
+        } else {
+            run.report = new EvidenceVerifier.Report(0, 0, List.of());
+        }
+        return null;
+    }
+
+    private CompletableFuture<Void> failed(JobRun run, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+
+        if (cause instanceof AwaitingBatchException) {
+            // not a failure: the job waits, without a worker, for LlmBatchCoordinator to resume it
+            repository.transition(run.jobKey, List.of(ExtractionStatus.RUNNING), ExtractionStatus.PENDING, Instant.now());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (run.handle.isCancelled()) {
+            // status was already set to CANCELLED by the cancel request; a cancelled job is never resumed
+            checkpoints.clear(run.jobKey);
+            return CompletableFuture.completedFuture(null);
         }
+        return resultWriter.fail(run.jobKey, cause.getMessage(), run.pageCount());
     }
 }
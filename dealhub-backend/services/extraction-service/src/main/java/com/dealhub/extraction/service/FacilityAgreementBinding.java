@@ -0,0 +1,30 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.common.dto.facility.FacilityAgreement;
+import com.dealhub.common.dto.facility.FacilityAgreementReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds extraction JSON to {@link FacilityAgreement}. Keys the records do not know (model chatter,
+ * fields of newer schema versions) are ignored and malformed fields bind as null, rather than failing the job;
+ * see {@link FacilityAgreementReader}.
+ */
+@Component
+public class FacilityAgreementBinding {
+
+    private final FacilityAgreementReader reader;
+
+    public FacilityAgreementBinding(ObjectMapper objectMapper) {
+        this.reader = new FacilityAgreementReader(objectMapper);
+    }
+
+    public FacilityAgreement bind(JsonNode root) {
+        try {
+            return reader.read(root);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Extraction does not match the facility agreement model: " + e.getMessage(), e);
+        }
+    }
+}
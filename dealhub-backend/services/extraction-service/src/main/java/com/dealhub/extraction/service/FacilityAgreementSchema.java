@@ -1,9 +1,104 @@
 package com.dealhub.extraction.service;
 
+import java.util.List;
+
 public final class FacilityAgreementSchema {
 
+    // bump whenever the schema below changes; jobs are only coalesced with jobs of the same version
+    public static final String VERSION = "fa-1";
+
     private FacilityAgreementSchema() {}
 
+    /**
+     * Independently extractable parts of the schema: the top-level key, the PASS 1 rule that applies to it
+     * (null when none) and the terms that suggest a chunk has something for it. Identifiers and
+     * validationAndGaps are not sections; they are filled outside PASS 1.
+     */
+    public enum Section {
+        PARTIES("parties",
+                List.of("borrower", "lender", "original lender", "agent", "arranger", "obligor", "guarantor",
+                        "the parties", "between", "registered office", "registered number", "incorporated in",
+                        "company number"),
+                """
+                LENDERS
+                If lender commitment AND total commitments exist in this chunk:
+                - sharePercentage MUST be calculated
+                - value format: "Calculated: XX.XX percent"
+                - evidence MUST include lender commitment quote AND total commitments quote in a single evidence string
+                """),
+        KEY_DATES("keyDates",
+                List.of("dated", "date of this agreement", "effective date", "commencement date", "signing date",
+                        "termination date", "maturity date", "final maturity", "expiry date", "final repayment date",
+                        "repayment date", "availability period"),
+                """
+                PLACEHOLDER OVERRIDE
+                If a date appears as "__ July 2024" or "[●]" AND an explicit date exists later in THIS chunk,
+                extract the explicit date and IGNORE the placeholder.
+                """),
+        FACILITIES("facilities",
+                List.of("total commitments", "the facility", "term loan facility", "revolving credit facility",
+                        "revolving facility", "facility amount", "aggregate amount", "multicurrency", "sterling",
+                        "dollars", "euro", "£", "$", "€"),
+                """
+                FACILITY (REQUIRED IF "Total Commitments" EXISTS)
+                If "Total Commitments" appears in this chunk, you MUST extract:
+                - facilities[0].amount
+                - facilities[0].currency (example: "Sterling" only if explicitly present)
+                - facilities[0].facilityType (example: "multicurrency term loan facility" only if explicitly present)
+                """),
+        PRICING("pricing",
+                List.of("margin", "per cent. per annum", "percent per annum", "% per annum", "sonia", "sofr",
+                        "euribor", "libor", "base rate", "reference rate", "compounded", "rfr", "interest rate"),
+                """
+                PRICING MARGIN TABLE (MANDATORY)
+                If the word "Margin" appears with a table, you MUST extract EVERY row into pricing.margin[].
+                Do NOT summarize. Do NOT omit rows.
+
+                For EACH margin row extract:
+                - period (1,2,3,...)
+                - timeRange.from
+                - timeRange.to
+                - sterlingMargin (exact text as written)
+
+                TIME RANGE NORMALIZATION (MANDATORY):
+                - First row: from = "0 months"
+                - Next rows: from = ">3 months", ">6 months", ">9 months", etc
+                - "to" is the upper bound in months, written like "3 months", "6 months", "9 months", "12 months"
+                """),
+        INTEREST_PERIODS("interestPeriods",
+                List.of("interest period", "interest periods", "selection of interest periods", "interest payment date"),
+                null);
+
+        private final String key;
+        private final List<String> keywords;
+        private final String rule;
+
+        Section(String key, List<String> keywords, String rule) {
+            this.key = key;
+            this.keywords = keywords;
+            this.rule = rule;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public List<String> keywords() {
+            return keywords;
+        }
+
+        public String rule() {
+            return rule;
+        }
+    }
+
+    // applies whatever the sections
+    public static final String GENERAL_RULE = """
+            NULL IS NOT ALLOWED FOR SUPPORTED FIELDS
+            If a schema field is supported by this chunk, you MUST populate it.
+            Only use null if the concept is completely absent in this chunk.
+            """;
+
     public static String jsonSchema() {
         return """
         {
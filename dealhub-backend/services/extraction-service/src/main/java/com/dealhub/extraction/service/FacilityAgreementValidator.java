@@ -1,29 +1,39 @@
 package com.dealhub.extraction.service;
 
+import com.dealhub.common.dto.facility.FacilityAgreement;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FacilityAgreementValidator {
 
-    public void validate(JsonNode root) {
+    private final FacilityAgreementBinding binding;
+
+    public FacilityAgreementValidator(FacilityAgreementBinding binding) {
+        this.binding = binding;
+    }
+
+    /** Binds the extraction once and checks the typed result; returns it for callers that need fields. */
+    public FacilityAgreement validate(JsonNode root) {
         if (root == null || !root.isObject()) {
             throw new IllegalArgumentException("Extractor returned empty/invalid JSON");
         }
-        require(root, "profile");
-        require(root, "parties");
-        require(root, "keyDates");
-        require(root, "facilities");
-        require(root, "pricing");
-
-        String profile = root.path("profile").asText("");
-        if (!"FACILITY_AGREEMENT".equals(profile)) {
-            throw new IllegalArgumentException("Invalid profile: " + profile);
+        FacilityAgreement agreement = binding.bind(root);
+
+        require(agreement.profile(), "profile");
+        require(agreement.parties(), "parties");
+        require(agreement.keyDates(), "keyDates");
+        require(agreement.facilities(), "facilities");
+        require(agreement.pricing(), "pricing");
+
+        if (!FacilityAgreement.PROFILE.equals(agreement.profile())) {
+            throw new IllegalArgumentException("Invalid profile: " + agreement.profile());
         }
+        return agreement;
     }
 
-    private void require(JsonNode node, String field) {
-        if (!node.has(field)) {
+    private void require(Object part, String field) {
+        if (part == null) {
             throw new IllegalArgumentException("Missing required field: " + field);
         }
     }
@@ -0,0 +1,68 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.LlmBatchStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Local stand-in for a provider batch API, for tests and development. A batch is a directory under the
+ * base dir: submit writes {@code input.jsonl}; whoever plays the provider (a test, a script) writes
+ * {@code output.jsonl} to complete it or {@code error.txt} to fail it. Batches left unanswered longer than
+ * the completion window expire.
+ */
+public class FileLlmBatchProvider implements LlmBatchProvider {
+
+    static final String INPUT = "input.jsonl";
+    static final String OUTPUT = "output.jsonl";
+    static final String ERROR = "error.txt";
+
+    private final Path baseDir;
+    private final Duration completionWindow;
+
+    public FileLlmBatchProvider(Path baseDir, Duration completionWindow) {
+        this.baseDir = baseDir;
+        this.completionWindow = completionWindow;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public String submit(List<String> jsonlLines) throws IOException {
+        String id = "file-batch-" + UUID.randomUUID();
+        Path dir = Files.createDirectories(baseDir.resolve(id));
+        Path tmp = dir.resolve(INPUT + ".tmp");
+        Files.write(tmp, jsonlLines, StandardCharsets.UTF_8);
+        Files.move(tmp, dir.resolve(INPUT));
+        return id;
+    }
+
+    @Override
+    public Poll poll(String providerBatchId) throws IOException {
+        Path dir = baseDir.resolve(providerBatchId);
+        Path input = dir.resolve(INPUT);
+        if (!Files.exists(input)) {
+            return new Poll(LlmBatchStatus.FAILED, List.of(), "Batch directory not found: " + dir);
+        }
+        if (Files.exists(dir.resolve(OUTPUT))) {
+            return new Poll(LlmBatchStatus.COMPLETED, Files.readAllLines(dir.resolve(OUTPUT), StandardCharsets.UTF_8), null);
+        }
+        if (Files.exists(dir.resolve(ERROR))) {
+            return new Poll(LlmBatchStatus.FAILED, List.of(), Files.readString(dir.resolve(ERROR), StandardCharsets.UTF_8).strip());
+        }
+        Instant submitted = Files.getLastModifiedTime(input).toInstant();
+        if (submitted.plus(completionWindow).isBefore(Instant.now())) {
+            return new Poll(LlmBatchStatus.EXPIRED, List.of(), "No output within " + completionWindow);
+        }
+        return new Poll(LlmBatchStatus.IN_PROGRESS, List.of(), null);
+    }
+}
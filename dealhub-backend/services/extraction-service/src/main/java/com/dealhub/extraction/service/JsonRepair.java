@@ -0,0 +1,97 @@
+package com.dealhub.extraction.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+
+/**
+ * Makes truncated LLM JSON parseable.
+ *
+ * One pass over the text tracks string/escape state and the stack of open objects and arrays, and
+ * remembers the last point where everything before it is complete: just after an opening bracket,
+ * just before a comma, or just after a nested closing bracket. A truncated text is cut there and the
+ * brackets still open are closed, so only the element that was being written when the output stopped
+ * is lost. A complete document is returned as is.
+ */
+public final class JsonRepair {
+
+    /**
+     * @param json parseable JSON, or null when no complete element was found
+     * @param truncated true when the input stopped before the outermost value was closed
+     */
+    public record Result(String json, boolean truncated) {}
+
+    private JsonRepair() {}
+
+    public static Result repair(String text) {
+        if (text == null) return new Result(null, false);
+        int objStart = text.indexOf('{');
+        int arrStart = text.indexOf('[');
+        int start = objStart < 0 ? arrStart : arrStart < 0 ? objStart : Math.min(objStart, arrStart);
+        if (start < 0) return new Result(null, false);
+
+        StringBuilder stack = new StringBuilder();
+        boolean inString = false;
+        boolean escaped = false;
+        int safeCut = -1;
+        String safeStack = "";
+
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == '"') inString = false;
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{', '[' -> {
+                    stack.append(c);
+                    safeCut = i + 1;
+                    safeStack = stack.toString();
+                }
+                case '}', ']' -> {
+                    if (stack.isEmpty()) return new Result(text.substring(start, i), false);
+                    stack.setLength(stack.length() - 1);
+                    if (stack.isEmpty()) return new Result(text.substring(start, i + 1), false);
+                    safeCut = i + 1;
+                    safeStack = stack.toString();
+                }
+                case ',' -> {
+                    safeCut = i;
+                    safeStack = stack.toString();
+                }
+                default -> {
+                    // keys, colons, literals and whitespace are never a safe end on their own
+                }
+            }
+        }
+
+        if (safeCut < 0) return new Result(null, true);
+
+        StringBuilder out = new StringBuilder(text.substring(start, safeCut));
+        for (int i = safeStack.length() - 1; i >= 0; i--) {
+            out.append(safeStack.charAt(i) == '{' ? '}' : ']');
+        }
+        return new Result(out.toString(), true);
+    }
+
+    /**
+     * Drops the empty objects and arrays a cut leaves behind as array elements (an element whose first
+     * field was being written when the output stopped).
+     */
+    public static void pruneEmptyElements(JsonNode node) {
+        if (node == null) return;
+        if (node.isArray()) {
+            Iterator<JsonNode> items = node.elements();
+            while (items.hasNext()) {
+                JsonNode item = items.next();
+                pruneEmptyElements(item);
+                if (item.isContainerNode() && item.isEmpty()) items.remove();
+            }
+        } else if (node.isObject()) {
+            node.elements().forEachRemaining(JsonRepair::pruneEmptyElements);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionJobEntity;
+import com.dealhub.extraction.model.ExtractionStatus;
+import com.dealhub.extraction.model.LlmBatchEntity;
+import com.dealhub.extraction.model.LlmBatchRequestEntity;
+import com.dealhub.extraction.model.LlmBatchRequestStatus;
+import com.dealhub.extraction.model.LlmBatchStatus;
+import com.dealhub.extraction.model.PipelineStage;
+import com.dealhub.extraction.repository.ExtractionJobRepository;
+import com.dealhub.extraction.repository.LlmBatchRepository;
+import com.dealhub.extraction.repository.LlmBatchRequestRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of provider batches for {@link LlmBatchQueue}:
+ * <ol>
+ *   <li>submit: queued prompts are sent once min-requests are waiting or the oldest has waited max-wait,
+ *   up to max-requests per batch;</li>
+ *   <li>poll: open batches are polled every poll interval (claimed per poll, so one replica handles each);</li>
+ *   <li>fan-in: each answer is parsed like a synchronous PASS 1 answer and stored as that chunk's checkpoint;
+ *   failed answers are marked so the job makes those calls itself;</li>
+ *   <li>resume: a waiting (PENDING) job with nothing left in flight is dispatched again and runs from its
+ *   checkpoints.</li>
+ * </ol>
+ * Resumed jobs run without the submitter's token, so batch mode relies on direct document downloads.
+ */
+@Component
+public class LlmBatchCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmBatchCoordinator.class);
+
+    // a batch stuck PREPARING this long was never accepted by the provider (replica died mid-submit)
+    private static final Duration PREPARE_TIMEOUT = Duration.ofMinutes(10);
+    private static final Set<LlmBatchStatus> OPEN =
+            EnumSet.of(LlmBatchStatus.PREPARING, LlmBatchStatus.SUBMITTED, LlmBatchStatus.IN_PROGRESS);
+    private static final Set<LlmBatchRequestStatus> IN_FLIGHT =
+            EnumSet.of(LlmBatchRequestStatus.QUEUED, LlmBatchRequestStatus.SUBMITTED);
+
+    private final LlmBatchProvider provider;
+    private final LlmBatchRepository batches;
+    private final LlmBatchRequestRepository requests;
+    private final ExtractionJobRepository jobs;
+    private final ExtractionCheckpointService checkpoints;
+    private final LlmFacilityAgreementExtractor extractor;
+    private final ExtractionRouter router;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int minRequests;
+    private final int maxRequests;
+    private final Duration maxWait;
+    private final Duration pollInterval;
+    private final Duration retainFinished;
+    private final String model;
+    private final double temperature;
+    private final int maxTokens;
+    private final Counter answered;
+    private final Counter unanswered;
+
+    public LlmBatchCoordinator(
+            LlmBatchProvider provider,
+            LlmBatchRepository batches,
+            LlmBatchRequestRepository requests,
+            ExtractionJobRepository jobs,
+            ExtractionCheckpointService checkpoints,
+            LlmFacilityAgreementExtractor extractor,
+            ExtractionRouter router,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.batch.enabled:false}") boolean enabled,
+            @Value("${dealhub.extraction.batch.min-requests:500}") int minRequests,
+            @Value("${dealhub.extraction.batch.max-requests:20000}") int maxRequests,
+            @Value("${dealhub.extraction.batch.max-wait:PT30M}") Duration maxWait,
+            @Value("${dealhub.extraction.batch.poll-interval-ms:60000}") long pollIntervalMs,
+            @Value("${dealhub.extraction.batch.retain-finished:P2D}") Duration retainFinished,
+            @Value("${spring.ai.openai.chat.options.model:gpt-4o-mini}") String model,
+            @Value("${spring.ai.openai.chat.options.temperature:0}") double temperature,
+            @Value("${spring.ai.openai.chat.options.max-tokens:3000}") int maxTokens
+    ) {
+        this.provider = provider;
+        this.batches = batches;
+        this.requests = requests;
+        this.jobs = jobs;
+        this.checkpoints = checkpoints;
+        this.extractor = extractor;
+        this.router = router;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.minRequests = Math.max(1, minRequests);
+        this.maxRequests = Math.max(1, maxRequests);
+        this.maxWait = maxWait;
+        this.pollInterval = Duration.ofMillis(pollIntervalMs);
+        this.retainFinished = retainFinished;
+        this.model = model;
+        this.temperature = temperature;
+        this.maxTokens = maxTokens;
+        this.answered = Counter.builder("extraction.llm.batch.requests").tag("outcome", "answered").register(meterRegistry);
+        this.unanswered = Counter.builder("extraction.llm.batch.requests").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.batch.submit-interval-ms:60000}")
+    public void submitQueued() {
+        if (!enabled) return;
+        try {
+            LlmBatchRequestEntity oldest = requests.findFirstByStatusOrderByIdAsc(LlmBatchRequestStatus.QUEUED);
+            if (oldest == null) return;
+
+            List<Long> ids = requests.findIdsByStatus(LlmBatchRequestStatus.QUEUED, PageRequest.of(0, maxRequests));
+            boolean waitedLongEnough = oldest.getCreatedAt().plus(maxWait).isBefore(Instant.now());
+            if (ids.size() < minRequests && !waitedLongEnough) return;
+
+            submit(ids);
+        } catch (RuntimeException ex) {
+            log.warn("Submitting queued PASS 1 requests failed", ex);
+        }
+    }
+
+    private void submit(List<Long> ids) {
+        Instant now = Instant.now();
+        LlmBatchEntity batch = batches.save(LlmBatchEntity.builder()
+                .provider(provider.name())
+                .status(LlmBatchStatus.PREPARING)
+                .requestCount(0)
+                .createdAt(now)
+                .build());
+
+        if (requests.claim(batch.getId(), ids, now) == 0) {
+            batches.delete(batch);
+            return;
+        }
+        List<LlmBatchRequestEntity> claimed = requests.findByBatchId(batch.getId());
+        batch.setRequestCount(claimed.size());
+
+        try {
+            List<String> lines = new ArrayList<>(claimed.size());
+            for (LlmBatchRequestEntity r : claimed) lines.add(inputLine(r));
+            batch.setProviderBatchId(provider.submit(lines));
+            batch.setStatus(LlmBatchStatus.SUBMITTED);
+            batch.setSubmittedAt(Instant.now());
+            log.info("Submitted LLM batch {} ({}) with {} PASS 1 request(s)", batch.getId(), batch.getProviderBatchId(), claimed.size());
+        } catch (Exception ex) {
+            // nothing reached the provider: the requests go out with the next batch
+            requests.requeue(batch.getId(), Instant.now());
+            batch.setStatus(LlmBatchStatus.FAILED);
+            batch.setError(truncate("Submit failed: " + ex.getMessage()));
+            log.warn("Could not submit LLM batch {}; {} request(s) requeued", batch.getId(), claimed.size(), ex);
+        }
+        batches.save(batch);
+    }
+
+    // OpenAI batch input line for one chat completion, with the same system rules and cache key as the live call
+    private String inputLine(LlmBatchRequestEntity r) throws Exception {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("model", model)
+                .put("temperature", temperature)
+                .put("max_tokens", maxTokens)
+                .put("prompt_cache_key", "dealhub-" + r.getPrefixHash());
+        body.putArray("messages")
+                .add(objectMapper.createObjectNode().put("role", "system").put("content", LlmFacilityAgreementExtractor.systemRules()))
+                .add(objectMapper.createObjectNode().put("role", "user").put("content", r.getPrompt()));
+
+        ObjectNode line = objectMapper.createObjectNode()
+                .put("custom_id", r.getCustomId())
+                .put("method", "POST")
+                .put("url", "/v1/chat/completions");
+        line.set("body", body);
+        return objectMapper.writeValueAsString(line);
+    }
+
+    @Scheduled(fixedDelayString = "${dealhub.extraction.batch.poll-interval-ms:60000}")
+    public void pollOpen() {
+        if (!enabled) return;
+        try {
+            for (LlmBatchEntity batch : batches.findByStatusIn(OPEN)) {
+                Instant now = Instant.now();
+                if (batches.claimPoll(batch.getId(), now, now.minus(pollInterval.dividedBy(2))) == 0) continue;
+                poll(batch, now);
+            }
+            requests.deleteFinishedBefore(Instant.now().minus(retainFinished));
+        } catch (RuntimeException ex) {
+            log.warn("Polling LLM batches failed", ex);
+        }
+    }
+
+    private void poll(LlmBatchEntity batch, Instant now) {
+        if (batch.getStatus() == LlmBatchStatus.PREPARING) {
+            if (batch.getCreatedAt().plus(PREPARE_TIMEOUT).isBefore(now)) {
+                requests.requeue(batch.getId(), now);
+                batch.setStatus(LlmBatchStatus.FAILED);
+                batch.setError("Never accepted by the provider; requests requeued");
+                batches.save(batch);
+            }
+            return;
+        }
+
+        LlmBatchProvider.Poll poll;
+        try {
+            poll = provider.poll(batch.getProviderBatchId());
+        } catch (Exception ex) {
+            log.warn("Could not poll LLM batch {} ({})", batch.getId(), batch.getProviderBatchId(), ex);
+            return;
+        }
+        if (poll.status().isOpen()) {
+            if (poll.status() != batch.getStatus()) {
+                batch.setStatus(poll.status());
+                batches.save(batch);
+            }
+            return;
+        }
+        fanIn(batch, poll);
+    }
+
+    private void fanIn(LlmBatchEntity batch, LlmBatchProvider.Poll poll) {
+        Map<String, String> answers = new HashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        for (String line : poll.outputLines()) {
+            try {
+                JsonNode out = objectMapper.readTree(line);
+                String customId = out.path("custom_id").asText();
+                JsonNode response = out.path("response");
+                JsonNode error = out.path("error");
+                boolean hasError = !error.isMissingNode() && !error.isNull();
+                if (hasError || response.path("status_code").asInt() != 200) {
+                    errors.put(customId, error.path("message").asText("HTTP " + response.path("status_code").asInt()));
+                    continue;
+                }
+                answers.put(customId, response.path("body").path("choices").path(0).path("message").path("content").asText(""));
+            } catch (Exception ex) {
+                log.warn("Unreadable line in output of LLM batch {}", batch.getId(), ex);
+            }
+        }
+
+        int ok = 0;
+        int failed = 0;
+        Instant now = Instant.now();
+        Set<String> touchedJobs = new LinkedHashSet<>();
+        for (LlmBatchRequestEntity r : requests.findByBatchId(batch.getId())) {
+            if (r.getStatus() != LlmBatchRequestStatus.SUBMITTED) continue;
+            touchedJobs.add(r.getJobKey());
+
+            String answer = answers.get(r.getCustomId());
+            if (answer != null) {
+                try {
+                    JsonNode extracted = extractor.pass1Result(answer, r.getChunkIndex() + 1);
+                    checkpoints.save(r.getJobKey(), PipelineStage.PASS1_CHUNK, r.getChunkIndex(), r.getInputHash(), extracted);
+                    r.setStatus(LlmBatchRequestStatus.DONE);
+                    r.setPrompt("");
+                    ok++;
+                } catch (Exception ex) {
+                    r.setStatus(LlmBatchRequestStatus.FAILED);
+                    r.setError(truncate("Unparseable answer: " + ex.getMessage()));
+                    failed++;
+                }
+            } else {
+                r.setStatus(LlmBatchRequestStatus.FAILED);
+                r.setError(truncate(errors.getOrDefault(r.getCustomId(), "No answer (batch " + poll.status() + ")")));
+                failed++;
+            }
+            r.setUpdatedAt(now);
+            requests.save(r);
+        }
+        answered.increment(ok);
+        unanswered.increment(failed);
+
+        batch.setStatus(poll.status());
+        batch.setSucceeded(ok);
+        batch.setFailed(failed);
+        batch.setError(truncate(poll.error()));
+        batch.setCompletedAt(now);
+        batches.save(batch);
+        log.info("LLM batch {} {}: {} answered, {} failed", batch.getId(), poll.status(), ok, failed);
+
+        touchedJobs.forEach(this::resumeIfReady);
+    }
+
+    private void resumeIfReady(String jobKey) {
+        if (requests.countByJobKeyAndStatusIn(jobKey, IN_FLIGHT) > 0) return;
+        ExtractionJobEntity job = jobs.findByJobKey(jobKey).orElse(null);
+        // cancelled, or already resumed by a retry
+        if (job == null || job.getStatus() != ExtractionStatus.PENDING) return;
+        router.dispatch(job, null);
+    }
+
+    private static String truncate(String s) {
+        return s == null || s.length() <= 512 ? s : s.substring(0, 512);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.LlmBatchStatus;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where batched PASS 1 requests go. Input and output use the OpenAI batch JSONL format: one
+ * {@code {"custom_id", "method", "url", "body"}} line per request in, one
+ * {@code {"custom_id", "response": {"status_code", "body"}, "error"}} line per answer out.
+ */
+public interface LlmBatchProvider {
+
+    /** Short name stored with each batch ("file", "openai"). */
+    String name();
+
+    /** Submits the JSONL input; returns the provider's batch id. */
+    String submit(List<String> jsonlLines) throws IOException;
+
+    /** Current state; output lines are set once the batch is finished (possibly partially). */
+    Poll poll(String providerBatchId) throws IOException;
+
+    record Poll(LlmBatchStatus status, List<String> outputLines, String error) {}
+}
@@ -0,0 +1,91 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionPriority;
+import com.dealhub.extraction.model.LlmBatchRequestEntity;
+import com.dealhub.extraction.model.LlmBatchRequestStatus;
+import com.dealhub.extraction.repository.LlmBatchRequestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Offline PASS 1 for the bulk lane: instead of calling the model, a bulk job queues its chunk prompts here
+ * and parks until {@link LlmBatchCoordinator} has the provider batch results in its checkpoints. Jobs of the
+ * other lanes never come here.
+ */
+@Service
+public class LlmBatchQueue {
+
+    private final LlmBatchRequestRepository requests;
+    private final boolean enabled;
+    private final Counter queued;
+
+    public LlmBatchQueue(
+            LlmBatchRequestRepository requests,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.batch.enabled:false}") boolean enabled
+    ) {
+        this.requests = requests;
+        this.enabled = enabled;
+        this.queued = Counter.builder("extraction.llm.batch.requests").tag("outcome", "queued").register(meterRegistry);
+    }
+
+    public boolean appliesTo(ExtractionPriority priority) {
+        return enabled && priority == ExtractionPriority.BULK;
+    }
+
+    public record Request(String jobKey, int chunkIndex, String inputHash, String prefixHash, String prompt) {
+        String customId() {
+            return LlmBatchQueue.customId(jobKey, chunkIndex, inputHash);
+        }
+    }
+
+    static String customId(String jobKey, int chunkIndex, String inputHash) {
+        return jobKey + ":" + chunkIndex + ":" + inputHash.substring(0, 16);
+    }
+
+    /** Prompts of the job the provider could not answer; the job makes those calls itself. */
+    public Set<String> failedCustomIds(String jobKey) {
+        return requests.findByJobKeyAndStatus(jobKey, LlmBatchRequestStatus.FAILED).stream()
+                .map(LlmBatchRequestEntity::getCustomId)
+                .collect(Collectors.toSet());
+    }
+
+    /** Queues the prompts; ones already queued or sent (a resumed job asking again) are not duplicated. */
+    public void enqueue(List<Request> batch) {
+        Set<String> present = requests.findByCustomIdIn(batch.stream().map(Request::customId).toList()).stream()
+                .map(LlmBatchRequestEntity::getCustomId)
+                .collect(Collectors.toSet());
+
+        Instant now = Instant.now();
+        List<LlmBatchRequestEntity> rows = new ArrayList<>();
+        for (Request r : batch) {
+            if (present.contains(r.customId())) continue;
+            rows.add(LlmBatchRequestEntity.builder()
+                    .customId(r.customId())
+                    .jobKey(r.jobKey())
+                    .chunkIndex(r.chunkIndex())
+                    .inputHash(r.inputHash())
+                    .prefixHash(r.prefixHash())
+                    .prompt(r.prompt())
+                    .status(LlmBatchRequestStatus.QUEUED)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        requests.saveAll(rows);
+        queued.increment(rows.size());
+    }
+
+    /** Drops the job's prompts that have not been submitted yet (job cancelled). */
+    public void discard(String jobKey) {
+        if (enabled) requests.deleteByJobKeyAndStatus(jobKey, LlmBatchRequestStatus.QUEUED);
+    }
+}
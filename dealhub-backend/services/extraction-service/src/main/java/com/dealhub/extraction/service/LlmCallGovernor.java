@@ -0,0 +1,110 @@
+package com.dealhub.extraction.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent LLM calls for the whole instance (provider rate limit / quota) and records
+ * their latency, which is the signal {@link AdaptiveConcurrencyLimit} sizes the worker pool on.
+ */
+@Component
+public class LlmCallGovernor {
+
+    private final ResizableSemaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completedCalls = new AtomicLong();
+    private final AtomicLong totalCallNanos = new AtomicLong();
+    private final Timer callTimer;
+    private final Timer waitTimer;
+    private volatile int maxConcurrentCalls;
+
+    public LlmCallGovernor(
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.llm.max-concurrent-calls:8}") int maxConcurrentCalls
+    ) {
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.permits = new ResizableSemaphore(this.maxConcurrentCalls);
+
+        this.callTimer = Timer.builder("extraction.llm.call")
+                .description("LLM call latency, excluding time waiting for a permit")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("extraction.llm.permit.wait")
+                .description("Time waiting for an LLM call permit")
+                .register(meterRegistry);
+        Gauge.builder("extraction.llm.in-flight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("extraction.llm.max-concurrent-calls", this, LlmCallGovernor::maxConcurrentCalls)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call once a permit is free. Blocks interruptibly, so a cancelled job stops waiting.
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        long waitStart = System.nanoTime();
+        permits.acquire();
+        long start = System.nanoTime();
+        waitTimer.record(start - waitStart, TimeUnit.NANOSECONDS);
+
+        inFlight.incrementAndGet();
+        try {
+            return call.call();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            inFlight.decrementAndGet();
+            permits.release();
+
+            callTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            totalCallNanos.addAndGet(elapsed);
+            completedCalls.incrementAndGet();
+        }
+    }
+
+    public int maxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long completedCalls() {
+        return completedCalls.get();
+    }
+
+    public long totalCallNanos() {
+        return totalCallNanos.get();
+    }
+
+    /**
+     * Changes the cap at runtime. Lowering it does not interrupt running calls; new calls wait until
+     * enough of them finish.
+     */
+    public synchronized void resize(int newMax) {
+        int target = Math.max(1, newMax);
+        int delta = target - maxConcurrentCalls;
+        if (delta > 0) permits.release(delta);
+        else if (delta < 0) permits.reducePermits(-delta);
+        maxConcurrentCalls = target;
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.dealhub.extraction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record/replay of LLM calls ("cassettes"), as a ChatClient advisor on every endpoint of {@link LlmEndpointRouter}.
+ *
+ * RECORD lets each call through and writes the request messages, the answer, its token usage and its latency to
+ * dir/&lt;key&gt;.json, where the key is the SHA-256 of the request messages. REPLAY never calls a model: it answers
+ * from the cassette of the same key after sleeping the recorded latency (times latency-scale), and fails the call
+ * when there is none, i.e. when a prompt changed. A prompt sent n times in one run replays its n-th recording.
+ * Cassette files carry a format version and the extractor's PROMPT_VERSION.
+ */
+@Component
+public class LlmCassettes implements CallAdvisor {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmCassettes.class);
+
+    public static final int FORMAT = 1;
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    public record Cassette(int format, String key, String promptVersion, List<Interaction> interactions) {}
+
+    public record Interaction(List<RecordedMessage> request, RecordedResponse response, long latencyMs, String recordedAt) {}
+
+    public record RecordedMessage(String type, String text) {}
+
+    public record RecordedResponse(String text, String finishReason, String model, Integer promptTokens, Integer completionTokens) {}
+
+    private final ObjectMapper objectMapper;
+    private final Mode mode;
+    private final Path dir;
+    private final double latencyScale;
+    // REPLAY: loaded cassettes and how often each was served; RECORD: keys written by this run
+    private final Map<String, Cassette> loaded = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> served = new ConcurrentHashMap<>();
+    private final Set<String> recorded = ConcurrentHashMap.newKeySet();
+
+    public LlmCassettes(
+            ObjectMapper objectMapper,
+            @Value("${dealhub.extraction.llm.cassette.mode:off}") String mode,
+            @Value("${dealhub.extraction.llm.cassette.dir:llm-cassettes}") String dir,
+            @Value("${dealhub.extraction.llm.cassette.latency-scale:1.0}") double latencyScale
+    ) {
+        this.objectMapper = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.dir = Path.of(dir);
+        this.latencyScale = Math.max(0, latencyScale);
+        if (this.mode != Mode.OFF) {
+            log.warn("LLM cassettes: {} in {}", this.mode, this.dir.toAbsolutePath());
+        }
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    @Override
+    public String getName() {
+        return "llm-cassettes";
+    }
+
+    // innermost, just before the model call itself (which is LOWEST_PRECEDENCE): sees the prompt as sent
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        List<RecordedMessage> messages = messages(request.prompt());
+        String key = key(messages);
+
+        if (mode == Mode.REPLAY) {
+            return ChatClientResponse.builder()
+                    .chatResponse(replay(key))
+                    .context(request.context())
+                    .build();
+        }
+
+        long start = System.nanoTime();
+        ChatClientResponse response = chain.nextCall(request);
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (mode == Mode.RECORD) {
+            record(key, new Interaction(messages, recorded(response.chatResponse()), latencyMs, Instant.now().toString()));
+        }
+        return response;
+    }
+
+    static String key(List<RecordedMessage> messages) {
+        List<String> parts = new ArrayList<>(messages.size() * 2);
+        for (RecordedMessage m : messages) {
+            parts.add(m.type());
+            parts.add(m.text());
+        }
+        return ExtractionCheckpointService.hash(parts);
+    }
+
+    private static List<RecordedMessage> messages(Prompt prompt) {
+        List<RecordedMessage> out = new ArrayList<>();
+        for (Message m : prompt.getInstructions()) {
+            out.add(new RecordedMessage(m.getMessageType().name(), m.getText() == null ? "" : m.getText()));
+        }
+        return out;
+    }
+
+    private ChatResponse replay(String key) {
+        Cassette cassette = loaded.computeIfAbsent(key, this::load);
+        int n = served.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        Interaction interaction = cassette.interactions().get(Math.min(n, cassette.interactions().size() - 1));
+
+        long sleepMs = Math.round(interaction.latencyMs() * latencyScale);
+        if (sleepMs > 0) {
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while replaying LLM cassette " + key, e);
+            }
+        }
+        return chatResponse(interaction.response());
+    }
+
+    private Cassette load(String key) {
+        Path file = dir.resolve(key + ".json");
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No LLM cassette for prompt " + key + " in " + dir.toAbsolutePath()
+                    + "; the prompt changed since recording, record again");
+        }
+        try {
+            Cassette cassette = objectMapper.readValue(file.toFile(), Cassette.class);
+            if (cassette.format() != FORMAT || cassette.interactions() == null || cassette.interactions().isEmpty()) {
+                throw new IllegalStateException("Unsupported or empty LLM cassette " + file);
+            }
+            return cassette;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable LLM cassette " + file, e);
+        }
+    }
+
+    // the first recording of a key in this run replaces the file; later ones of the same key are appended
+    private void record(String key, Interaction interaction) {
+        synchronized (recorded) {
+            try {
+                Files.createDirectories(dir);
+                Path file = dir.resolve(key + ".json");
+                List<Interaction> interactions = new ArrayList<>();
+                if (!recorded.add(key) && Files.exists(file)) {
+                    interactions.addAll(objectMapper.readValue(file.toFile(), Cassette.class).interactions());
+                }
+                interactions.add(interaction);
+
+                Path tmp = dir.resolve(key + ".json.tmp");
+                objectMapper.writeValue(tmp.toFile(),
+                        new Cassette(FORMAT, key, LlmFacilityAgreementExtractor.PROMPT_VERSION, interactions));
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // recording is a side channel; the extraction itself goes on
+                log.warn("Could not record LLM cassette {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static RecordedResponse recorded(ChatResponse response) {
+        if (response == null || response.getResult() == null) return new RecordedResponse("", null, null, null, null);
+        String text = response.getResult().getOutput() == null ? "" : response.getResult().getOutput().getText();
+        String finishReason = response.getResult().getMetadata() == null ? null : response.getResult().getMetadata().getFinishReason();
+        Usage usage = response.getMetadata() == null ? null : response.getMetadata().getUsage();
+        return new RecordedResponse(
+                text,
+                finishReason,
+                response.getMetadata() == null ? null : response.getMetadata().getModel(),
+                usage == null ? null : usage.getPromptTokens(),
+                usage == null ? null : usage.getCompletionTokens()
+        );
+    }
+
+    private static ChatResponse chatResponse(RecordedResponse recorded) {
+        Generation generation = new Generation(
+                new AssistantMessage(recorded.text() == null ? "" : recorded.text()),
+                ChatGenerationMetadata.builder().finishReason(recorded.finishReason()).build());
+        ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder()
+                .usage(new DefaultUsage(recorded.promptTokens(), recorded.completionTokens()));
+        if (recorded.model() != null) metadata.model(recorded.model());
+        return new ChatResponse(List.of(generation), metadata.build());
+    }
+}
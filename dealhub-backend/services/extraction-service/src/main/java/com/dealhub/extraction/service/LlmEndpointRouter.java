@@ -0,0 +1,283 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.exception.ExtractionCancelledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.env.Environment;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Spreads LLM calls over several OpenAI-compatible endpoints (accounts, keys, deployments), listed in
+ * dealhub.extraction.llm.endpoints with their settings under dealhub.extraction.llm.endpoint.&lt;name&gt;.*.
+ * Without a list there is one endpoint, the spring.ai.openai one.
+ *
+ * Each call goes to the healthy endpoint with the fewest outstanding requests relative to its weight
+ * (ties broken at random). An endpoint that fails eject-after-failures calls in a row is ejected for
+ * eject-duration, doubling for each consecutive ejection up to max-eject-duration; the last healthy endpoint
+ * is never ejected. A call that fails on one endpoint is tried once more on another. Only failures that say
+ * something about the endpoint count (transport errors, 429, 5xx); a request the provider rejects (400, 401,
+ * 413, context length) would fail anywhere, so it is rethrown without failover and ejects nothing.
+ * With dealhub.extraction.llm.cassette.mode set, every endpoint records or replays through {@link LlmCassettes}.
+ */
+@Component
+public class LlmEndpointRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmEndpointRouter.class);
+
+    private static final Pattern STATUS_PREFIX = Pattern.compile("(\\d{3}) - ");
+
+    private final List<Endpoint> endpoints;
+    private final int ejectAfterFailures;
+    private final Duration ejectDuration;
+    private final Duration maxEjectDuration;
+
+    final class Endpoint {
+        final String name;
+        final int weight;
+        final ChatClient client;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final Timer success;
+        final Timer failure;
+        final Counter ejections;
+        // guarded by this
+        int consecutiveFailures;
+        int consecutiveEjections;
+        volatile long ejectedUntilNanos;
+
+        Endpoint(String name, int weight, ChatClient client, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.weight = Math.max(1, weight);
+            this.client = client;
+            this.success = Timer.builder("extraction.llm.endpoint.latency").tag("endpoint", name).tag("outcome", "success")
+                    .register(meterRegistry);
+            this.failure = Timer.builder("extraction.llm.endpoint.latency").tag("endpoint", name).tag("outcome", "error")
+                    .register(meterRegistry);
+            this.ejections = Counter.builder("extraction.llm.endpoint.ejections").tag("endpoint", name).register(meterRegistry);
+            Gauge.builder("extraction.llm.endpoint.outstanding", outstanding, AtomicInteger::get).tag("endpoint", name)
+                    .register(meterRegistry);
+            Gauge.builder("extraction.llm.endpoint.healthy", this, e -> e.isHealthy(System.nanoTime()) ? 1 : 0).tag("endpoint", name)
+                    .register(meterRegistry);
+        }
+
+        boolean isHealthy(long now) {
+            return now - ejectedUntilNanos >= 0;
+        }
+
+        double score() {
+            return (outstanding.get() + 1.0) / weight;
+        }
+    }
+
+    public LlmEndpointRouter(
+            ChatClient.Builder defaultClientBuilder,
+            ObjectProvider<RestClient.Builder> restClientBuilder,
+            Environment env,
+            MeterRegistry meterRegistry,
+            LlmCassettes cassettes,
+            @Value("${dealhub.extraction.llm.endpoints:}") String endpointNames,
+            @Value("${dealhub.extraction.llm.eject-after-failures:3}") int ejectAfterFailures,
+            @Value("${dealhub.extraction.llm.eject-duration:PT30S}") Duration ejectDuration,
+            @Value("${dealhub.extraction.llm.max-eject-duration:PT5M}") Duration maxEjectDuration
+    ) {
+        this.ejectAfterFailures = Math.max(1, ejectAfterFailures);
+        this.ejectDuration = ejectDuration;
+        this.maxEjectDuration = maxEjectDuration;
+
+        List<String> names = Arrays.stream(endpointNames.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        List<Endpoint> list = new ArrayList<>();
+        if (names.isEmpty()) {
+            ChatClient.Builder builder = defaultClientBuilder.clone();
+            if (cassettes.isEnabled()) builder.defaultAdvisors(cassettes);
+            list.add(new Endpoint("default", 1, builder.build(), meterRegistry));
+        }
+        for (String name : names) {
+            list.add(new Endpoint(name, env.getProperty(key(name, "weight"), Integer.class, 1),
+                    client(name, env, restClientBuilder.getIfAvailable(RestClient::builder), cassettes), meterRegistry));
+        }
+        this.endpoints = List.copyOf(list);
+        log.info("LLM endpoints: {}", endpoints.stream().map(e -> e.name + " (weight " + e.weight + ")").toList());
+    }
+
+    private static String key(String endpoint, String property) {
+        return "dealhub.extraction.llm.endpoint." + endpoint + "." + property;
+    }
+
+    // unset settings fall back to spring.ai.openai.*
+    private static ChatClient client(String name, Environment env, RestClient.Builder restClientBuilder, LlmCassettes cassettes) {
+        String baseUrl = env.getProperty(key(name, "base-url"), env.getProperty("spring.ai.openai.base-url", "https://api.openai.com"));
+        String apiKey = env.getProperty(key(name, "api-key"), env.getProperty("spring.ai.openai.api-key", ""));
+        OpenAiApi.Builder api = OpenAiApi.builder()
+                .baseUrl(baseUrl)
+                .apiKey(apiKey)
+                .restClientBuilder(restClientBuilder);
+        String completionsPath = env.getProperty(key(name, "completions-path"));
+        if (completionsPath != null) api.completionsPath(completionsPath);
+
+        OpenAiChatOptions options = OpenAiChatOptions.builder()
+                .model(env.getProperty(key(name, "model"), env.getProperty("spring.ai.openai.chat.options.model", "gpt-4o-mini")))
+                .temperature(env.getProperty("spring.ai.openai.chat.options.temperature", Double.class, 0.0))
+                .topP(env.getProperty("spring.ai.openai.chat.options.top-p", Double.class, 1.0))
+                .maxTokens(env.getProperty("spring.ai.openai.chat.options.max-tokens", Integer.class, 3000))
+                .build();
+
+        // failover to another endpoint replaces most of the provider-level retrying
+        RetryTemplate retry = RetryTemplate.builder()
+                .maxAttempts(Math.max(1, env.getProperty("dealhub.extraction.llm.endpoint-attempts", Integer.class, 2)))
+                .retryOn(TransientAiException.class)
+                .retryOn(ResourceAccessException.class)
+                .exponentialBackoff(Duration.ofMillis(500), 2, Duration.ofSeconds(5))
+                .build();
+
+        OpenAiChatModel model = OpenAiChatModel.builder()
+                .openAiApi(api.build())
+                .defaultOptions(options)
+                .retryTemplate(retry)
+                .build();
+        ChatClient.Builder builder = ChatClient.builder(model);
+        if (cassettes.isEnabled()) builder.defaultAdvisors(cassettes);
+        return builder.build();
+    }
+
+    /**
+     * Runs the request on the best endpoint, and once more on another one if it fails there.
+     */
+    public <T> T call(Function<ChatClient, T> request) {
+        Endpoint first = pick(null);
+        try {
+            return callOn(first, request);
+        } catch (RuntimeException ex) {
+            if (!isEndpointFailure(ex)) throw ex;
+            Endpoint second = pick(first);
+            if (second == null) throw ex;
+            log.debug("LLM call failed on endpoint {}; retrying on {}", first.name, second.name, ex);
+            return callOn(second, request);
+        }
+    }
+
+    private <T> T callOn(Endpoint endpoint, Function<ChatClient, T> request) {
+        long start = System.nanoTime();
+        endpoint.outstanding.incrementAndGet();
+        try {
+            T result = request.apply(endpoint.client);
+            endpoint.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            succeeded(endpoint);
+            return result;
+        } catch (RuntimeException ex) {
+            if (isEndpointFailure(ex)) {
+                endpoint.failure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                failed(endpoint, ex);
+            }
+            throw ex;
+        } finally {
+            endpoint.outstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Healthy endpoint with the lowest weighted outstanding count; when all are ejected, the one whose
+     * ejection ends first. Null when {@code exclude} is the only endpoint.
+     */
+    Endpoint pick(Endpoint exclude) {
+        long now = System.nanoTime();
+        Endpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        int ties = 0;
+        for (Endpoint e : endpoints) {
+            if (e == exclude || !e.isHealthy(now)) continue;
+            double score = e.score();
+            if (score < bestScore) {
+                best = e;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                best = e;
+            }
+        }
+        if (best != null) return best;
+
+        for (Endpoint e : endpoints) {
+            if (e == exclude) continue;
+            if (best == null || e.ejectedUntilNanos - best.ejectedUntilNanos < 0) best = e;
+        }
+        return best;
+    }
+
+    private void succeeded(Endpoint endpoint) {
+        synchronized (endpoint) {
+            endpoint.consecutiveFailures = 0;
+            endpoint.consecutiveEjections = 0;
+        }
+    }
+
+    private void failed(Endpoint endpoint, RuntimeException ex) {
+        long now = System.nanoTime();
+        synchronized (endpoint) {
+            endpoint.consecutiveFailures++;
+            if (endpoint.consecutiveFailures < ejectAfterFailures || !endpoint.isHealthy(now)) return;
+            if (endpoints.stream().noneMatch(e -> e != endpoint && e.isHealthy(now))) return;
+
+            long nanos = Math.min(maxEjectDuration.toNanos(), ejectDuration.toNanos() << Math.min(endpoint.consecutiveEjections, 20));
+            endpoint.consecutiveEjections++;
+            endpoint.consecutiveFailures = 0;
+            endpoint.ejectedUntilNanos = now + nanos;
+            endpoint.ejections.increment();
+            log.warn("LLM endpoint {} ejected for {} ms after {} consecutive failures: {}",
+                    endpoint.name, TimeUnit.NANOSECONDS.toMillis(nanos), ejectAfterFailures, ex.toString());
+        }
+    }
+
+    // a cancelled job or a rejected request says nothing about the endpoint
+    private static boolean isEndpointFailure(RuntimeException ex) {
+        if (ex instanceof ExtractionCancelledException || ex instanceof CancellationException
+                || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof TransientAiException || t instanceof ResourceAccessException || t instanceof IOException) {
+                return true;
+            }
+            if (t instanceof RestClientResponseException response) {
+                return isEndpointStatus(response.getStatusCode().value());
+            }
+            if (t instanceof NonTransientAiException) {
+                // Spring AI reports every 4xx, 429 included, as "<status> - <body>"
+                Matcher status = STATUS_PREFIX.matcher(String.valueOf(t.getMessage()));
+                return status.lookingAt() && isEndpointStatus(Integer.parseInt(status.group(1)));
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEndpointStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+}
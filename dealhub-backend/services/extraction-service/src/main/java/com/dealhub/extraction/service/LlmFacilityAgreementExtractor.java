@@ -1,19 +1,56 @@
 package com.dealhub.extraction.service;
 
+import com.dealhub.extraction.exception.AwaitingBatchException;
+import com.dealhub.extraction.model.PipelineStage;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.springframework.ai.chat.client.ChatClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 @Component
 public class LlmFacilityAgreementExtractor {
 
-    private final ChatClient chatClient;
+    private static final Logger log = LoggerFactory.getLogger(LlmFacilityAgreementExtractor.class);
+
+    private final LlmEndpointRouter endpoints;
     private final ObjectMapper objectMapper;
+    private final ExtractionCheckpointService checkpoints;
+    private final ThreadPoolTaskExecutor llmCallExecutor;
+    private final LlmCallGovernor llmGovernor;
+    private final BoilerplateIndex boilerplate;
+    private final LlmUsageMetrics usageMetrics;
+    private final SchemaSectionPrompts sectionPrompts;
+    private final LlmBatchQueue batchQueue;
+    private final int mergeMaxPromptTokens;
+    private final int mergeMaxFanIn;
+    private final int maxContinuations;
+    private final Counter continued;
+    private final Counter repairedCount;
+    private final Counter amendmentChunksExtracted;
+    private final Counter amendmentChunksSkipped;
+
+    // set on a parsed object that had to be cut back to its last complete element
+    static final String TRUNCATED = "_truncated";
     private static final String SYSTEM_RULES_GPT4O_MINI = """
 SYSTEM ROLE OVERRIDE:
 You are a deterministic legal data extraction engine.
@@ -52,70 +89,55 @@ SCHEMA:
 - No extra keys, no renamed keys.
 """;
 
-    private static final String PASS1_TEMPLATE = """
-You are extracting data for a Facility Agreement.
-
-OUTPUT RULES (NON-NEGOTIABLE):
-- Output VALID JSON ONLY
-- No prose, no markdown
-- Use ONLY the DOCUMENT CHUNK text
-- Every extracted value MUST include {value,citation,evidence}
+    // Prompts are laid out static part first: system rules, then a prefix that only depends on the schema
+    // (for PASS 1: on the schema sections selected, see SchemaSectionPrompts), then the variable input.
+    // Every PASS 1 call of a schema thus shares a byte-identical leading part that the provider's prompt
+    // cache can reuse. Bump PROMPT_VERSION whenever a prefix changes.
+    static final String PROMPT_VERSION = "3";
 
+    private static final String PASS1_INPUT = """
 Chunk index: %d
 
 DOCUMENT CHUNK:
 <<<CHUNK_START
 %s
 CHUNK_END>>>
+""";
 
-TARGET SCHEMA:
-%s
-
-MANDATORY EXTRACTION RULES:
-
-1) PLACEHOLDER OVERRIDE
-If a date appears as "__ July 2024" or "[●]" AND an explicit date exists later in THIS chunk,
-extract the explicit date and IGNORE the placeholder.
-
-2) FACILITY (REQUIRED IF "Total Commitments" EXISTS)
-If "Total Commitments" appears in this chunk, you MUST extract:
-- facilities[0].amount
-- facilities[0].currency (example: "Sterling" only if explicitly present)
-- facilities[0].facilityType (example: "multicurrency term loan facility" only if explicitly present)
+    // in front of the section-scoped PASS 1 prefix for AMENDMENT jobs
+    private static final String AMENDMENT_HEAD = """
+The DOCUMENT CHUNK is from an amendment (or amendment and restatement) of an existing Facility Agreement.
+Extract ONLY terms this text sets or changes. Do not extract terms it refers to as unchanged.
+Where a table (for example the Margin) is amended, extract the whole table as it reads after the amendment.
 
-3) PRICING MARGIN TABLE (MANDATORY)
-If the word "Margin" appears with a table, you MUST extract EVERY row into pricing.margin[].
-Do NOT summarize. Do NOT omit rows.
+""";
 
-For EACH margin row extract:
-- period (1,2,3,...)
-- timeRange.from
-- timeRange.to
-- sterlingMargin (exact text as written)
+    // follow-up when an answer stopped at max-tokens
+    private static final String CONTINUE_PROMPT = """
+Your previous answer was cut off by the output limit.
+Continue EXACTLY where it stopped: output only the remaining characters of the JSON, starting with the
+very next character. Do not repeat anything, do not restart the object, no prose, no markdown.
+""";
 
-TIME RANGE NORMALIZATION (MANDATORY):
-- First row: from = "0 months"
-- Next rows: from = ">3 months", ">6 months", ">9 months", etc
-- "to" is the upper bound in months, written like "3 months", "6 months", "9 months", "12 months"
+    // Short yes/no asked instead of PASS 1 for chunks that look like known boilerplate (TRIAGE mode)
+    private static final String TRIAGE_PREFIX = """
+Does the DOCUMENT CHUNK at the end state any concrete deal term of a Facility Agreement:
+party, agent or lender names, amounts, currencies, dates, margins, fees, facility types or commitments?
+Definitions and standard clauses that do not state such a term do not count.
 
-4) LENDERS
-If lender commitment AND total commitments exist in this chunk:
-- sharePercentage MUST be calculated
-- value format: "Calculated: XX.XX percent"
-- evidence MUST include lender commitment quote AND total commitments quote in a single evidence string
+Return JSON ONLY: {"extractable": true} or {"extractable": false}
 
-5) NULL IS NOT ALLOWED FOR SUPPORTED FIELDS
-If a schema field is supported by this chunk, you MUST populate it.
-Only use null if the concept is completely absent in this chunk.
+""";
 
-OUTPUT:
-- Return ONE JSON object
-- Include ONLY keys from TARGET SCHEMA
-- If nothing is extractable, return {}
+    private static final String TRIAGE_INPUT = """
+DOCUMENT CHUNK:
+<<<CHUNK_START
+%s
+CHUNK_END>>>
 """;
 
     // PASS 2 merge prompt template (gpt-4o-mini hardened)
-    private static final String MERGE_TEMPLATE = """
+    private static final String MERGE_PREFIX = """
 You are merging extracted legal data into ONE FINAL JSON object.
 
 OUTPUT RULES (NON-NEGOTIABLE):
@@ -127,12 +149,6 @@ OUTPUT RULES (NON-NEGOTIABLE):
 TARGET SCHEMA:
 %s
 
-GLOBAL TOTAL COMMITMENTS (may be empty):
-%s
-
-PER-CHUNK EXTRACTS:
-%s
-
 MERGE RULES (STRICT):
 1) Never replace populated values with null
 2) Explicit dates override placeholders
@@ -149,56 +165,228 @@ If a field has no supported evidence across all chunks, set it to null (do NOT w
 
 OUTPUT:
 - Return ONE JSON object only
+
+""";
+
+    private static final String MERGE_INPUT = """
+GLOBAL TOTAL COMMITMENTS (may be empty):
+%s
+
+PER-CHUNK EXTRACTS:
+%s
+""";
+
+    // Targeted re-ask for a single leaf whose evidence failed verbatim verification
+    private static final String REASK_PREFIX = """
+A field was extracted from a Facility Agreement, but its evidence is NOT a verbatim quote of the document.
+
+TASK:
+Re-extract ONLY the FIELD given below from the PAGE TEXT given below.
+
+OUTPUT RULES:
+- Return JSON ONLY
+- Return either {} OR {"value":"...","citation":"...","evidence":"..."}
+- evidence MUST be copied character for character from PAGE TEXT (max 25 words)
+- If PAGE TEXT does not support the field, return {}
+
 """;
 
-    public LlmFacilityAgreementExtractor(ChatClient.Builder chatClientBuilder, ObjectMapper objectMapper) {
-        this.chatClient = chatClientBuilder.build();
+    private static final String REASK_INPUT = """
+FIELD:
+%s
+
+PREVIOUS EXTRACTION (rejected):
+%s
+
+PAGE TEXT (pages %d-%d):
+<<<PAGES_START
+%s
+PAGES_END>>>
+""";
+
+    private static final String TOTALS_PREFIX = """
+Find "Total Commitments" amount if explicitly stated anywhere in the provided text.
+
+OUTPUT RULES:
+- Return JSON ONLY
+- Return either {} OR:
+  {"totalCommitments": {"value":"...","citation":"...","evidence":"..."}}
+
+EVIDENCE:
+- evidence must be verbatim quote (max 25 words)
+- do NOT guess
+
+""";
+
+    /**
+     * Static leading part of a prompt. The hash covers the version, the system rules and the prefix text,
+     * so it changes exactly when the cacheable part does.
+     */
+    record PromptPrefix(String kind, String text, String hash) {}
+
+    record Prompt(PromptPrefix prefix, String input) {
+        String userText() {
+            return prefix.text() + input;
+        }
+    }
+
+    private final Map<String, PromptPrefix> prefixes = new ConcurrentHashMap<>();
+
+    private PromptPrefix prefix(String kind, String text) {
+        return prefixes.computeIfAbsent(kind + ":" + text, k -> {
+            String hash = ExtractionCheckpointService.hash(List.of(PROMPT_VERSION, SYSTEM_RULES_GPT4O_MINI, text)).substring(0, 12);
+            log.info("Prompt prefix {} v{} = {} (~{} tokens with system rules)", kind, PROMPT_VERSION, hash,
+                    estimateTokens(SYSTEM_RULES_GPT4O_MINI) + estimateTokens(text));
+            return new PromptPrefix(kind, text, hash);
+        });
+    }
+
+    private Prompt pass1Prompt(String schema, int chunkNo, String chunk) {
+        return new Prompt(prefix("pass1", sectionPrompts.pass1Prefix(schema, chunk)), PASS1_INPUT.formatted(chunkNo, chunk));
+    }
+
+    private Prompt mergePrompt(String schema, String totalsJson, String extractsJson) {
+        return new Prompt(prefix("merge", MERGE_PREFIX.formatted(schema)), MERGE_INPUT.formatted(totalsJson, extractsJson));
+    }
+
+    public LlmFacilityAgreementExtractor(
+            LlmEndpointRouter endpoints,
+            ObjectMapper objectMapper,
+            ExtractionCheckpointService checkpoints,
+            @Qualifier("llmCallExecutor") ThreadPoolTaskExecutor llmCallExecutor,
+            LlmCallGovernor llmGovernor,
+            BoilerplateIndex boilerplate,
+            LlmUsageMetrics usageMetrics,
+            SchemaSectionPrompts sectionPrompts,
+            LlmBatchQueue batchQueue,
+            @Value("${dealhub.extraction.merge.max-prompt-tokens:24000}") int mergeMaxPromptTokens,
+            @Value("${dealhub.extraction.merge.max-fan-in:8}") int mergeMaxFanIn,
+            @Value("${dealhub.extraction.llm.max-continuations:2}") int maxContinuations,
+            MeterRegistry meterRegistry
+    ) {
+        this.endpoints = endpoints;
         this.objectMapper = objectMapper;
+        this.checkpoints = checkpoints;
+        this.llmCallExecutor = llmCallExecutor;
+        this.llmGovernor = llmGovernor;
+        this.boilerplate = boilerplate;
+        this.usageMetrics = usageMetrics;
+        this.sectionPrompts = sectionPrompts;
+        this.batchQueue = batchQueue;
+        this.mergeMaxPromptTokens = mergeMaxPromptTokens;
+        this.mergeMaxFanIn = Math.max(2, mergeMaxFanIn);
+        this.maxContinuations = Math.max(0, maxContinuations);
+        this.continued = Counter.builder("extraction.llm.truncated").tag("outcome", "continued").register(meterRegistry);
+        this.repairedCount = Counter.builder("extraction.llm.truncated").tag("outcome", "repaired").register(meterRegistry);
+        this.amendmentChunksExtracted = Counter.builder("extraction.amendment.chunks").tag("outcome", "extracted").register(meterRegistry);
+        this.amendmentChunksSkipped = Counter.builder("extraction.amendment.chunks").tag("outcome", "skipped").register(meterRegistry);
+        // hash (and log) every PASS 1 prefix up front
+        sectionPrompts.allPrefixes().forEach(text -> prefix("pass1", text));
     }
 
-    public JsonNode extract(String schema, long documentId, long agreementId, List<String> chunks) throws Exception {
+    /**
+     * @param offline queue PASS 1 prompts for a provider batch instead of calling the model (bulk lane); the
+     *                call then ends with {@link AwaitingBatchException} until every chunk has its checkpoint
+     */
+    public JsonNode extract(ExtractionJobHandle job, String schema, long documentId, long agreementId, List<String> chunks,
+                            boolean offline) throws Exception {
 
-        // ====== PASS 1: per-chunk structured extraction ======
+        // ====== PASS 1: per-chunk structured extraction (checkpointed per chunk) ======
         ArrayNode chunkExtractions = objectMapper.createArrayNode();
+        String schemaKey = BoilerplateIndex.schemaKey(schema);
+        List<LlmBatchQueue.Request> batched = new ArrayList<>();
+        Set<String> batchFailed = offline ? batchQueue.failedCustomIds(job.jobKey()) : Set.of();
 
         for (int i = 0; i < chunks.size(); i++) {
+            job.throwIfCancelled();
+
             String chunk = chunks.get(i);
+            Prompt prompt = pass1Prompt(schema, i + 1, chunk);
+            String inputHash = ExtractionCheckpointService.hash(List.of(prompt.prefix().hash(), chunk));
 
-            String userPrompt = PASS1_TEMPLATE.formatted(i + 1, chunk, schema);
+            JsonNode cached = checkpoints.load(job.jobKey(), PipelineStage.PASS1_CHUNK, i, inputHash).orElse(null);
+            if (cached != null) {
+                chunkExtractions.add(cached);
+                continue;
+            }
 
-            String raw = chatClient.prompt()
-                    .system(SYSTEM_RULES_GPT4O_MINI)
-                    .user(userPrompt)
-                    .call()
-                    .content();
+            long fingerprint = boilerplate.isEnabled() ? SimHash.fingerprint(chunk) : 0L;
+            BoilerplateIndex.Verdict verdict = boilerplate.classify(schemaKey, fingerprint);
 
-            JsonNode one = safeParseJson(raw);
+            if (offline && verdict != BoilerplateIndex.Verdict.SKIP
+                    && !batchFailed.contains(LlmBatchQueue.customId(job.jobKey(), i, inputHash))) {
+                // triage is a latency shortcut; offline the chunk simply goes into the batch
+                batched.add(new LlmBatchQueue.Request(job.jobKey(), i, inputHash, prompt.prefix().hash(), prompt.userText()));
+                continue;
+            }
 
-            if (one != null && one.isObject()) {
-                ((ObjectNode) one).put("_chunkIndex", i + 1);
+            JsonNode extracted;
+            if (verdict == BoilerplateIndex.Verdict.SKIP
+                    || (verdict == BoilerplateIndex.Verdict.TRIAGE && !triage(job, chunk))) {
+                // known boilerplate: same result PASS 1 would most likely have produced
+                extracted = objectMapper.createObjectNode().put("_chunkIndex", i + 1);
+            } else {
+                extracted = pass1Result(call(job, prompt), i + 1);
+                boilerplate.record(schemaKey, fingerprint, extracted, documentId);
             }
+            checkpoints.save(job.jobKey(), PipelineStage.PASS1_CHUNK, i, inputHash, extracted);
+            chunkExtractions.add(extracted);
+        }
 
-            chunkExtractions.add(one == null ? objectMapper.createObjectNode() : one);
+        if (!batched.isEmpty()) {
+            batchQueue.enqueue(batched);
+            throw new AwaitingBatchException(job.jobKey(), batched.size());
         }
 
         // ====== PASS 1.5: Extract Total Commitments globally (used for % calc in merge) ======
-        ObjectNode totals = extractTotalCommitmentsFromAllChunks(chunks);
+        String totalsHash = ExtractionCheckpointService.hash(chunks);
+        ObjectNode totals = (ObjectNode) checkpoints
+                .load(job.jobKey(), PipelineStage.PASS1_5_TOTALS, ExtractionCheckpointService.DOCUMENT_LEVEL, totalsHash)
+                .filter(JsonNode::isObject)
+                .orElse(null);
+        if (totals == null) {
+            job.throwIfCancelled();
+            totals = extractTotalCommitmentsFromAllChunks(job, chunks);
+            checkpoints.save(job.jobKey(), PipelineStage.PASS1_5_TOTALS, ExtractionCheckpointService.DOCUMENT_LEVEL, totalsHash, totals);
+        }
 
         // ====== PASS 2: merge to final schema EXACTLY ======
-        String mergePrompt = MERGE_TEMPLATE.formatted(schema, totals.toString(), chunkExtractions.toString());
+        // extracts that do not fit one prompt are first merged in groups, level by level
+        List<JsonNode> extracts = new ArrayList<>();
+        chunkExtractions.forEach(extracts::add);
+        String totalsJson = totals.toString();
+        for (int level = 0; extracts.size() > 1 && !fitsMergeBudget(schema, totalsJson, extracts); level++) {
+            List<List<JsonNode>> groups = packMergeGroups(schema, totalsJson, extracts);
+            if (groups.size() == extracts.size()) break; // no two neighbouring extracts fit together
+            log.info("Job {}: merge level {} combines {} extracts in {} groups", job.jobKey(), level, extracts.size(), groups.size());
+            extracts = mergeGroups(job, schema, totalsJson, groups, level);
+        }
 
-        String mergedRaw = chatClient.prompt()
-                .system(SYSTEM_RULES_GPT4O_MINI)
-                .user(mergePrompt)
-                .call()
-                .content();
+        ArrayNode mergeInput = objectMapper.createArrayNode();
+        extracts.forEach(mergeInput::add);
+        Prompt mergePrompt = mergePrompt(schema, totalsJson, mergeInput.toString());
+        String mergeHash = ExtractionCheckpointService.hash(mergePrompt.userText());
+
+        JsonNode merged = checkpoints
+                .load(job.jobKey(), PipelineStage.PASS2_MERGE, ExtractionCheckpointService.DOCUMENT_LEVEL, mergeHash)
+                .orElse(null);
+
+        if (merged == null) {
+            job.throwIfCancelled();
+            String mergedRaw = call(job, mergePrompt);
 
-        JsonNode merged = safeParseJson(mergedRaw);
-        if (merged == null || !merged.isObject()) {
-            throw new IllegalStateException("LLM merge step did not return a JSON object.");
+            merged = safeParseJson(mergedRaw);
+            if (merged == null || !merged.isObject()) {
+                throw new IllegalStateException("LLM merge step did not return a JSON object.");
+            }
+            checkpoints.save(job.jobKey(), PipelineStage.PASS2_MERGE, ExtractionCheckpointService.DOCUMENT_LEVEL, mergeHash, merged);
         }
 
         ObjectNode mergedObj = (ObjectNode) merged;
+        if (mergedObj.remove(TRUNCATED) != null) {
+            mergedObj.withObjectProperty("validationAndGaps").withArrayProperty("notes")
+                    .add("Merge output was cut off by the model's output limit; fields after the cut may be missing.");
+        }
 
         // schema-safe identifiers
         if (mergedObj.has("documentId")) mergedObj.put("documentId", documentId);
@@ -210,37 +398,269 @@ OUTPUT:
         return mergedObj;
     }
 
-    private ObjectNode extractTotalCommitmentsFromAllChunks(List<String> chunks) throws Exception {
+    /**
+     * AMENDMENT mode: PASS 1 only, on the chunks that touch a schema section and with only those sections in
+     * the prompt. There is no totals pass and no merge call; the extracts are combined locally and applied to
+     * the base version with {@link AmendmentDelta}. Carries {@link #TRUNCATED} when an answer was cut off.
+     */
+    public ObjectNode extractAmendment(ExtractionJobHandle job, List<String> chunks) throws Exception {
+        List<JsonNode> extracts = new ArrayList<>();
+        boolean truncated = false;
+
+        for (int i = 0; i < chunks.size(); i++) {
+            job.throwIfCancelled();
+
+            String chunk = chunks.get(i);
+            String scoped = sectionPrompts.scopedPrefix(chunk);
+            if (scoped == null) {
+                // nothing in it an amendment could change
+                amendmentChunksSkipped.increment();
+                continue;
+            }
+            Prompt prompt = new Prompt(prefix("amend", AMENDMENT_HEAD + scoped), PASS1_INPUT.formatted(i + 1, chunk));
+            String inputHash = ExtractionCheckpointService.hash(List.of(prompt.prefix().hash(), chunk));
+
+            JsonNode extracted = checkpoints.load(job.jobKey(), PipelineStage.PASS1_CHUNK, i, inputHash).orElse(null);
+            if (extracted == null) {
+                extracted = pass1Result(call(job, prompt), i + 1);
+                checkpoints.save(job.jobKey(), PipelineStage.PASS1_CHUNK, i, inputHash, extracted);
+            }
+            amendmentChunksExtracted.increment();
+            truncated |= extracted.has(TRUNCATED);
+            extracts.add(extracted);
+        }
+
+        log.info("Job {}: amendment extracted from {} of {} chunks", job.jobKey(), extracts.size(), chunks.size());
+        ObjectNode amendment = AmendmentDelta.combine(extracts);
+        amendment.remove(TRUNCATED);
+        if (truncated) amendment.put(TRUNCATED, true);
+        return amendment;
+    }
+
+    /** Checkpoint form of a PASS 1 answer, whether it came from a live call or a provider batch. */
+    public JsonNode pass1Result(String raw, int chunkNo) throws Exception {
+        JsonNode one = safeParseJson(raw);
+        if (one != null && one.isObject()) {
+            ((ObjectNode) one).put("_chunkIndex", chunkNo);
+        }
+        return one == null ? objectMapper.createObjectNode() : one;
+    }
+
+    static String systemRules() {
+        return SYSTEM_RULES_GPT4O_MINI;
+    }
+
+    // rough token count of JSON/English text (about 3.5 characters per token)
+    static int estimateTokens(String text) {
+        return (int) Math.ceil(text.length() / 3.5);
+    }
+
+    private int mergeOverheadTokens(String schema, String totalsJson) {
+        return estimateTokens(MERGE_PREFIX) + estimateTokens(MERGE_INPUT) + estimateTokens(schema)
+                + estimateTokens(totalsJson) + estimateTokens(SYSTEM_RULES_GPT4O_MINI);
+    }
+
+    private boolean fitsMergeBudget(String schema, String totalsJson, List<JsonNode> extracts) {
+        int tokens = mergeOverheadTokens(schema, totalsJson);
+        for (JsonNode e : extracts) tokens += estimateTokens(e.toString());
+        return tokens <= mergeMaxPromptTokens;
+    }
+
+    /**
+     * Packs neighbouring extracts into groups whose merge prompt stays within the budget, at most
+     * max-fan-in per group. An extract that fits no group with a neighbour is a group of its own.
+     */
+    private List<List<JsonNode>> packMergeGroups(String schema, String totalsJson, List<JsonNode> extracts) {
+        int available = mergeMaxPromptTokens - mergeOverheadTokens(schema, totalsJson);
+        List<List<JsonNode>> groups = new ArrayList<>();
+        List<JsonNode> current = new ArrayList<>();
+        int used = 0;
+        for (JsonNode e : extracts) {
+            int t = estimateTokens(e.toString()) + 1;
+            if (!current.isEmpty() && (used + t > available || current.size() >= mergeMaxFanIn)) {
+                groups.add(current);
+                current = new ArrayList<>();
+                used = 0;
+            }
+            current.add(e);
+            used += t;
+        }
+        if (!current.isEmpty()) groups.add(current);
+        return groups;
+    }
+
+    // merges the groups of one level concurrently, with no more calls in flight than the governor has permits
+    // so a large document cannot flood llmCallExecutor; single-extract groups pass through unchanged
+    private List<JsonNode> mergeGroups(ExtractionJobHandle job, String schema, String totalsJson,
+                                       List<List<JsonNode>> groups, int level) throws Exception {
+        List<JsonNode> results = new ArrayList<>(groups.size());
+        List<Prompt> prompts = new ArrayList<>(groups.size());
+        List<Future<String>> calls = new ArrayList<>(groups.size());
+        int window = Math.max(1, llmGovernor.maxConcurrentCalls());
+
+        try {
+            for (int g = 0; g < groups.size(); g++) {
+                List<JsonNode> group = groups.get(g);
+                ArrayNode input = objectMapper.createArrayNode();
+                group.forEach(input::add);
+                Prompt prompt = mergePrompt(schema, totalsJson, input.toString());
+                prompts.add(prompt);
+
+                JsonNode cached = group.size() == 1
+                        ? group.get(0)
+                        : checkpoints.load(job.jobKey(), PipelineStage.PASS2_GROUP, groupIndex(level, g),
+                                ExtractionCheckpointService.hash(prompt.userText())).orElse(null);
+                results.add(cached);
+                calls.add(null);
+            }
+
+            int next = 0;
+            int inFlight = 0;
+            for (int g = 0; g < groups.size(); g++) {
+                for (; next < groups.size() && inFlight < window; next++) {
+                    if (results.get(next) != null) continue;
+                    calls.set(next, startCall(job, prompts.get(next)));
+                    inFlight++;
+                }
+                Future<String> call = calls.get(g);
+                if (call == null) continue;
+                inFlight--;
+
+                JsonNode merged = safeParseJson(job.await(call));
+                if (merged == null || !merged.isObject()) {
+                    throw new IllegalStateException("LLM group merge (level " + level + ", group " + (g + 1)
+                            + ") did not return a JSON object.");
+                }
+                checkpoints.save(job.jobKey(), PipelineStage.PASS2_GROUP, groupIndex(level, g),
+                        ExtractionCheckpointService.hash(prompts.get(g).userText()), merged);
+                results.set(g, merged);
+            }
+            return results;
+        } finally {
+            // on failure or cancel, do not leave sibling calls running
+            for (Future<String> call : calls) {
+                if (call != null && !call.isDone()) call.cancel(true);
+                if (call != null) job.untrack(call);
+            }
+        }
+    }
+
+    private static int groupIndex(int level, int group) {
+        return level * 10_000 + group;
+    }
+
+    /**
+     * Re-asks the model for one field using only the given page text. Returns null when nothing is extractable.
+     */
+    public JsonNode reaskField(ExtractionJobHandle job, String fieldPointer, JsonNode previous, int fromPage, int toPage, String pageText) throws Exception {
+        Prompt prompt = new Prompt(prefix("reask", REASK_PREFIX), REASK_INPUT.formatted(fieldPointer,
+                previous == null ? "{}" : previous.toString(), fromPage, toPage, pageText));
+
+        String raw = call(job, prompt);
+
+        JsonNode node = safeParseJson(raw);
+        if (node == null || !node.isObject() || !node.hasNonNull("evidence")) return null;
+        return node;
+    }
+
+    private boolean triage(ExtractionJobHandle job, String chunk) throws Exception {
+        JsonNode node = safeParseJson(call(job, new Prompt(prefix("triage", TRIAGE_PREFIX), TRIAGE_INPUT.formatted(chunk))));
+        // anything but a clear "no" runs the full extraction
+        boolean extractable = node == null || !node.has("extractable") || node.path("extractable").asBoolean(true);
+        boilerplate.triageOutcome(extractable);
+        return extractable;
+    }
+
+    private ObjectNode extractTotalCommitmentsFromAllChunks(ExtractionJobHandle job, List<String> chunks) throws Exception {
         StringBuilder all = new StringBuilder();
         for (int i = 0; i < chunks.size(); i++) {
             all.append("\n\n[CHUNK ").append(i + 1).append("]\n").append(chunks.get(i));
         }
 
-        String prompt = """
-Find "Total Commitments" amount if explicitly stated anywhere in the provided text.
+        Prompt prompt = new Prompt(prefix("totals", TOTALS_PREFIX), "DOCUMENT:\n" + all + "\n");
 
-OUTPUT RULES:
-- Return JSON ONLY
-- Return either {} OR:
-  {"totalCommitments": {"value":"...","citation":"...","evidence":"..."}}
+        String raw = call(job, prompt);
 
-EVIDENCE:
-- evidence must be verbatim quote (max 25 words)
-- do NOT guess
+        JsonNode node = safeParseJson(raw);
+        if (node != null && node.isObject()) return (ObjectNode) node;
+        return objectMapper.createObjectNode();
+    }
 
-DOCUMENT:
-%s
-""".formatted(all.toString());
+    // runs the call on the LLM pool so a cancel can abandon it without waiting for the provider
+    private String call(ExtractionJobHandle job, Prompt prompt) throws Exception {
+        return job.await(startCall(job, prompt));
+    }
+
+    // starts a call tracked by the job, so cancelling the job cancels it even before anyone awaits it
+    private Future<String> startCall(ExtractionJobHandle job, Prompt prompt) {
+        job.throwIfCancelled();
+        Future<String> future = llmCallExecutor.submit(() -> complete(prompt));
+        job.track(future);
+        return future;
+    }
 
-        String raw = chatClient.prompt()
+    /**
+     * One answer, continued while the model stops at max-tokens: each follow-up replays the conversation
+     * with the partial answer and asks for the rest only, so nothing that was already generated is paid
+     * for again as output.
+     */
+    private String complete(Prompt prompt) throws Exception {
+        String userPrompt = prompt.userText();
+        // routes calls sharing a prefix to the same provider cache shard
+        OpenAiChatOptions cacheRouting = OpenAiChatOptions.builder()
+                .promptCacheKey("dealhub-" + prompt.prefix().hash())
+                .build();
+
+        ChatResponse response = llmGovernor.call(() -> endpoints.call(client -> client.prompt()
+                .options(cacheRouting)
                 .system(SYSTEM_RULES_GPT4O_MINI)
-                .user(prompt)
+                .user(userPrompt)
                 .call()
-                .content();
+                .chatResponse()));
+        usageMetrics.record(prompt.prefix().kind(), prompt.prefix().hash(), response);
+        String text = content(response);
+
+        for (int n = 0; n < maxContinuations && stoppedAtLength(response); n++) {
+            String soFar = text;
+            response = llmGovernor.call(() -> endpoints.call(client -> client.prompt()
+                    .options(cacheRouting)
+                    .system(SYSTEM_RULES_GPT4O_MINI)
+                    .messages(new UserMessage(userPrompt), new AssistantMessage(soFar), new UserMessage(CONTINUE_PROMPT))
+                    .call()
+                    .chatResponse()));
+            usageMetrics.record(prompt.prefix().kind(), prompt.prefix().hash(), response);
+            text = soFar + stripOverlap(soFar, stripFences(content(response)));
+            continued.increment();
+        }
+        return text;
+    }
 
-        JsonNode node = safeParseJson(raw);
-        if (node != null && node.isObject()) return (ObjectNode) node;
-        return objectMapper.createObjectNode();
+    private static String content(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) return "";
+        String text = response.getResult().getOutput().getText();
+        return text == null ? "" : text;
+    }
+
+    private static boolean stoppedAtLength(ChatResponse response) {
+        if (response == null || response.getResult() == null) return false;
+        String reason = response.getResult().getMetadata().getFinishReason();
+        return reason != null && reason.equalsIgnoreCase("length");
+    }
+
+    // only when fences are there: leading whitespace may be part of a string value that was cut off
+    private static String stripFences(String s) {
+        if (s.stripLeading().startsWith("```")) s = s.replaceFirst("^\\s*```[a-zA-Z]*\\s*", "");
+        if (s.stripTrailing().endsWith("```")) s = s.replaceFirst("\\s*```\\s*$", "");
+        return s;
+    }
+
+    // models sometimes restart the continuation with the last few characters they already wrote
+    private static String stripOverlap(String soFar, String continuation) {
+        int max = Math.min(200, Math.min(soFar.length(), continuation.length()));
+        for (int len = max; len >= 8; len--) {
+            if (soFar.endsWith(continuation.substring(0, len))) return continuation.substring(len);
+        }
+        return continuation;
     }
 
     private JsonNode safeParseJson(String raw) throws Exception {
@@ -266,8 +686,21 @@ DOCUMENT:
         int objEnd = s.lastIndexOf('}');
         int arrEnd = s.lastIndexOf(']');
         int end = Math.max(objEnd, arrEnd);
-        if (end >= 0 && end + 1 < s.length()) s = s.substring(0, end + 1).trim();
-
-        return objectMapper.readTree(s);
+        String trimmed = end >= 0 && end + 1 < s.length() ? s.substring(0, end + 1).trim() : s;
+
+        try {
+            return objectMapper.readTree(trimmed);
+        } catch (JsonProcessingException e) {
+            // cut off mid-object even after continuations: keep every element that was complete
+            JsonRepair.Result repaired = JsonRepair.repair(s);
+            if (repaired.json() == null) throw e;
+            JsonNode node = objectMapper.readTree(repaired.json());
+            if (repaired.truncated()) {
+                JsonRepair.pruneEmptyElements(node);
+                if (node instanceof ObjectNode obj) obj.put(TRUNCATED, true);
+            }
+            repairedCount.increment();
+            return node;
+        }
     }
 }
@@ -0,0 +1,52 @@
+package com.dealhub.extraction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token usage per prompt kind and prompt prefix, as reported by the provider:
+ * extraction.llm.tokens{kind, prefix, type=input|cached_input|output}.
+ *
+ * cached_input / input is the share of prompt tokens served from the provider's prompt cache; compare it
+ * across prefix hashes to see what a prompt layout change did.
+ */
+@Component
+public class LlmUsageMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public LlmUsageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String kind, String prefixHash, ChatResponse response) {
+        if (response == null || response.getMetadata() == null) return;
+        Usage usage = response.getMetadata().getUsage();
+        if (usage == null) return;
+
+        add(kind, prefixHash, "input", usage.getPromptTokens());
+        add(kind, prefixHash, "output", usage.getCompletionTokens());
+        add(kind, prefixHash, "cached_input", cachedTokens(usage));
+    }
+
+    private static Integer cachedTokens(Usage usage) {
+        if (usage.getNativeUsage() instanceof OpenAiApi.Usage openAi && openAi.promptTokensDetails() != null) {
+            return openAi.promptTokensDetails().cachedTokens();
+        }
+        return null;
+    }
+
+    private void add(String kind, String prefixHash, String type, Integer tokens) {
+        if (tokens == null || tokens <= 0) return;
+        Counter.builder("extraction.llm.tokens")
+                .tag("kind", kind)
+                .tag("prefix", prefixHash)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(tokens);
+    }
+}
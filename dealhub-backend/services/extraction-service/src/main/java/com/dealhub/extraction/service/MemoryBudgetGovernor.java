@@ -0,0 +1,118 @@
+package com.dealhub.extraction.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Admits jobs against a global heap budget so that several large PDFs cannot be parsed at the same time.
+ *
+ * A job reserves its estimate before parsing and waits (interruptibly, so cancel still works) while the
+ * budget is taken. After parsing the PDFBox document is gone and the reservation shrinks to what the
+ * text, chunks and evidence index need. A job larger than the whole budget runs on its own.
+ */
+@Component
+public class MemoryBudgetGovernor {
+
+    // PDFBox keeps the raw file plus its parsed object graph in heap
+    private static final int IN_MEMORY_PDF_FACTOR = 3;
+    // scratch-file mode keeps only the parsed objects of the page being stripped
+    private static final long SCRATCH_MODE_OVERHEAD = 16L * 1024 * 1024;
+    // page text (UTF-16) + chunks + evidence index (chars and suffix array) + JSON nodes, per page
+    private static final long BYTES_PER_PAGE = 3_000L * 2 * 3 + 3_000L * 6 + 8_000L;
+
+    private final long budgetBytes;
+    private final long scratchFileThresholdBytes;
+
+    // guarded by "this"
+    private long reservedBytes;
+
+    public MemoryBudgetGovernor(
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.memory.budget:0}") DataSize budget,
+            @Value("${dealhub.extraction.memory.budget-fraction:0.5}") double budgetFraction,
+            @Value("${dealhub.extraction.pdf.scratch-file-threshold:20MB}") DataSize scratchFileThreshold
+    ) {
+        this.budgetBytes = budget.toBytes() > 0
+                ? budget.toBytes()
+                : (long) (Runtime.getRuntime().maxMemory() * budgetFraction);
+        this.scratchFileThresholdBytes = scratchFileThreshold.toBytes();
+
+        Gauge.builder("extraction.memory.reserved", this, MemoryBudgetGovernor::reservedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("extraction.memory.budget", this, g -> g.budgetBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /** Whether PDFBox should buffer this file on disk instead of in heap. */
+    public boolean useScratchFile(long fileBytes) {
+        return fileBytes >= scratchFileThresholdBytes;
+    }
+
+    /** Heap needed while the PDF is open and being stripped. */
+    public long estimateParse(long fileBytes, Integer pageHint) {
+        long pdf = useScratchFile(fileBytes) ? SCRATCH_MODE_OVERHEAD : fileBytes * IN_MEMORY_PDF_FACTOR;
+        // without a page hint assume the densest case the file size allows (~50 KB per page)
+        int pages = pageHint != null && pageHint > 0 ? pageHint : (int) Math.max(1, fileBytes / 50_000);
+        return pdf + estimateText(pages);
+    }
+
+    /** Heap needed after parsing, for the rest of the pipeline. */
+    public long estimateText(int pages) {
+        return Math.max(1, pages) * BYTES_PER_PAGE;
+    }
+
+    /**
+     * Blocks until the bytes fit into the budget (or nothing else is reserved).
+     */
+    public Reservation reserve(long bytes) throws InterruptedException {
+        long amount = Math.max(0, bytes);
+        synchronized (this) {
+            while (reservedBytes > 0 && reservedBytes + amount > budgetBytes) {
+                wait();
+            }
+            reservedBytes += amount;
+        }
+        return new Reservation(amount);
+    }
+
+    public synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    public long budgetBytes() {
+        return budgetBytes;
+    }
+
+    private synchronized void giveBack(long bytes) {
+        if (bytes <= 0) return;
+        reservedBytes -= bytes;
+        notifyAll();
+    }
+
+    /** A job's share of the budget. */
+    public final class Reservation {
+        private long bytes;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        /** Lowers the reservation; never grows it, since that could deadlock against waiting jobs. */
+        public synchronized void shrinkTo(long newBytes) {
+            long target = Math.max(0, newBytes);
+            if (target >= bytes) return;
+            giveBack(bytes - target);
+            bytes = target;
+        }
+
+        public synchronized void release() {
+            giveBack(bytes);
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.LlmBatchStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpenAI Batch API: the JSONL is uploaded as a file with purpose "batch", then a batch is created over it
+ * for /v1/chat/completions with a 24h completion window. Polling maps the provider's states onto
+ * {@link LlmBatchStatus} and downloads the output file once there is one.
+ */
+public class OpenAiLlmBatchProvider implements LlmBatchProvider {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final WebClient client;
+
+    public OpenAiLlmBatchProvider(WebClient.Builder builder, String baseUrl, String apiKey, int maxInMemorySizeMb) {
+        this.client = builder.clone()
+                .baseUrl(baseUrl)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                // output files of large batches
+                .codecs(cfg -> cfg.defaultCodecs().maxInMemorySize(maxInMemorySizeMb * 1024 * 1024))
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "openai";
+    }
+
+    @Override
+    public String submit(List<String> jsonlLines) throws IOException {
+        byte[] jsonl = (String.join("\n", jsonlLines) + "\n").getBytes(StandardCharsets.UTF_8);
+        MultipartBodyBuilder form = new MultipartBodyBuilder();
+        form.part("purpose", "batch");
+        form.part("file", new ByteArrayResource(jsonl) {
+            @Override
+            public String getFilename() {
+                return "dealhub-pass1.jsonl";
+            }
+        }).contentType(MediaType.APPLICATION_OCTET_STREAM);
+
+        JsonNode file = client.post()
+                .uri("/v1/files")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(form.build()))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block(TIMEOUT);
+        if (file == null || !file.hasNonNull("id")) throw new IOException("File upload returned no id");
+
+        JsonNode batch = client.post()
+                .uri("/v1/batches")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of(
+                        "input_file_id", file.get("id").asText(),
+                        "endpoint", "/v1/chat/completions",
+                        "completion_window", "24h"))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block(TIMEOUT);
+        if (batch == null || !batch.hasNonNull("id")) throw new IOException("Batch creation returned no id");
+        return batch.get("id").asText();
+    }
+
+    @Override
+    public Poll poll(String providerBatchId) throws IOException {
+        JsonNode batch = client.get()
+                .uri("/v1/batches/{id}", providerBatchId)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block(TIMEOUT);
+        if (batch == null) throw new IOException("Empty batch status for " + providerBatchId);
+
+        LlmBatchStatus status = switch (batch.path("status").asText()) {
+            case "completed" -> LlmBatchStatus.COMPLETED;
+            case "failed" -> LlmBatchStatus.FAILED;
+            case "expired" -> LlmBatchStatus.EXPIRED;
+            case "cancelled" -> LlmBatchStatus.CANCELLED;
+            case "validating" -> LlmBatchStatus.SUBMITTED;
+            // in_progress, finalizing, cancelling
+            default -> LlmBatchStatus.IN_PROGRESS;
+        };
+        if (status.isOpen()) return new Poll(status, List.of(), null);
+
+        // expired and cancelled batches still return what finished
+        List<String> lines = batch.hasNonNull("output_file_id") ? content(batch.get("output_file_id").asText()) : List.of();
+        String error = batch.path("errors").path("data").path(0).path("message").asText(null);
+        return new Poll(status, lines, error);
+    }
+
+    private List<String> content(String fileId) {
+        String body = client.get()
+                .uri("/v1/files/{id}/content", fileId)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(TIMEOUT);
+        return body == null ? List.of() : body.lines().filter(l -> !l.isBlank()).toList();
+    }
+}
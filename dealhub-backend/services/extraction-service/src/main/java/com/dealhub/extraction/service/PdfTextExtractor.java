@@ -1,21 +1,91 @@
 package com.dealhub.extraction.service;
 
+import com.dealhub.common.pdf.PdfPageScanner;
+import com.dealhub.common.pdf.PdfPageText;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 @Component
 public class PdfTextExtractor {
 
-    public String extractText(Path pdfPath) throws IOException {
-        try (PDDocument doc = PDDocument.load(pdfPath.toFile())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setSortByPosition(true);
-            String text = stripper.getText(doc);
-            return text == null ? "" : text.trim();
+    private static final long MIN_SCRATCH_BYTES = 64L * 1024 * 1024;
+    private static final long SCRATCH_PER_FILE_BYTE = 4;
+
+    private final MemoryBudgetGovernor memoryGovernor;
+    private final TempFileManager tempFiles;
+    private final PdfPageScanner pageScanner;
+
+    // same thresholds as document-service's text layer (app.text-layer.scan.*), or the two disagree on pages
+    public PdfTextExtractor(
+            MemoryBudgetGovernor memoryGovernor,
+            TempFileManager tempFiles,
+            @Value("${dealhub.extraction.scan.min-glyphs:20}") int minGlyphs,
+            @Value("${dealhub.extraction.scan.min-image-coverage:0.5}") double minImageCoverage
+    ) {
+        this.memoryGovernor = memoryGovernor;
+        this.tempFiles = tempFiles;
+        this.pageScanner = new PdfPageScanner(minGlyphs, minImageCoverage);
+    }
+
+    /**
+     * @param pages one entry per PDF page (index 0 = page 1); "" for pages without text
+     * @param nonSearchablePages 1-based numbers of scanned pages
+     */
+    public record PdfText(List<String> pages, List<Integer> nonSearchablePages) {}
+
+    /**
+     * Pre-scans the pages and strips text only from those that have any. A document without a single text
+     * page fails here, before any stripping.
+     */
+    public PdfText extract(Path pdfPath) throws IOException, InterruptedException {
+        long fileBytes = Files.size(pdfPath);
+        if (!memoryGovernor.useScratchFile(fileBytes)) {
+            return extract(pdfPath, MemoryUsageSetting.setupMainMemoryOnly());
+        }
+
+        // large files are buffered in scratch files in the managed temp directory instead of on the heap; their
+        // space is reserved for the whole parse so that concurrent parses cannot overrun the quota together
+        TempFileManager.Scratch scratch = tempFiles.reserveScratch(scratchBytesFor(fileBytes));
+        try {
+            return extract(pdfPath, MemoryUsageSetting.setupTempFileOnly(scratch.bytes())
+                    .setTempDir(tempFiles.directory().toFile()));
+        } finally {
+            scratch.release();
+        }
+    }
+
+    private PdfText extract(Path pdfPath, MemoryUsageSetting memory) throws IOException {
+        try (PDDocument doc = PDDocument.load(pdfPath.toFile(), memory)) {
+            PdfPageScanner.Scan scan = pageScanner.scan(doc);
+            if (!scan.hasAnyText()) {
+                throw noTextLayer(scan.pageCount(), scan.nonSearchablePages().size());
+            }
+            return new PdfText(PdfPageText.strip(doc, scan), scan.nonSearchablePages());
+        }
+    }
+
+    public static IllegalStateException noTextLayer(int pageCount, int scannedPages) {
+        return scannedPages > 0
+                ? new IllegalStateException("PDF has no text layer: " + scannedPages + " of " + pageCount
+                        + " page(s) are scanned images and the rest are blank; OCR is required.")
+                : new IllegalStateException("PDF text extraction is empty (" + pageCount + " blank page(s)).");
+    }
+
+    // decoded streams are usually a few times the file; PDFBox fails the parse when it needs more than this.
+    // The downloaded PDF itself counts against the same quota.
+    private long scratchBytesFor(long fileBytes) {
+        long available = tempFiles.quotaBytes() - fileBytes;
+        if (available < MIN_SCRATCH_BYTES) {
+            throw new IllegalStateException("Temp disk quota of " + tempFiles.quotaBytes() + " bytes leaves less than the "
+                    + MIN_SCRATCH_BYTES + " bytes of scratch space a parse needs next to a " + fileBytes + " byte PDF");
         }
+        return Math.min(Math.max(MIN_SCRATCH_BYTES, fileBytes * SCRATCH_PER_FILE_BYTE), available);
     }
 }
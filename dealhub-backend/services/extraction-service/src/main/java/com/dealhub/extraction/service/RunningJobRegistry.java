@@ -0,0 +1,40 @@
+package com.dealhub.extraction.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jobs currently executing on this instance, so a cancel request can reach their pipeline stage.
+ */
+@Component
+public class RunningJobRegistry {
+
+    private final Map<String, ExtractionJobHandle> running = new ConcurrentHashMap<>();
+
+    public ExtractionJobHandle register(String jobKey) {
+        ExtractionJobHandle handle = new ExtractionJobHandle(jobKey);
+        running.put(jobKey, handle);
+        return handle;
+    }
+
+    public void unregister(ExtractionJobHandle handle) {
+        running.remove(handle.jobKey(), handle);
+    }
+
+    public Set<String> jobKeys() {
+        return Set.copyOf(running.keySet());
+    }
+
+    /**
+     * @return true when the job was running here and has been signalled
+     */
+    public boolean cancel(String jobKey) {
+        ExtractionJobHandle handle = running.get(jobKey);
+        if (handle == null) return false;
+        handle.cancel();
+        return true;
+    }
+}
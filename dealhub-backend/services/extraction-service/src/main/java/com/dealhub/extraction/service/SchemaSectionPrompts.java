@@ -0,0 +1,193 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.service.FacilityAgreementSchema.Section;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PASS 1 prompt prefixes scoped to the schema sections a chunk can contribute to.
+ *
+ * A chunk is scored per section by keyword hits, with hits in heading-like lines (short, upper case or
+ * numbered) counting extra; the prompt then carries only the schema subtrees and rules of the sections that
+ * reach min-score. A chunk that reaches it for no section gets the full schema, so nothing is lost on text
+ * the keywords do not know. The prefix of every combination of sections is built once at startup and is
+ * byte-identical on every use, which keeps the provider's prompt cache effective per combination.
+ */
+@Component
+public class SchemaSectionPrompts {
+
+    private static final String HEAD = """
+You are extracting data for a Facility Agreement.
+
+OUTPUT RULES (NON-NEGOTIABLE):
+- Output VALID JSON ONLY
+- No prose, no markdown
+- Use ONLY the DOCUMENT CHUNK text given at the end
+- Every extracted value MUST include {value,citation,evidence}
+
+TARGET SCHEMA:
+%s
+
+MANDATORY EXTRACTION RULES:
+
+""";
+
+    private static final String TAIL = """
+OUTPUT:
+- Return ONE JSON object
+- Include ONLY keys from TARGET SCHEMA
+- If nothing is extractable, return {}
+
+""";
+
+    private static final int HEADING_WEIGHT = 3;
+    private static final int MAX_HITS_PER_KEYWORD = 5;
+
+    private final boolean enabled;
+    private final int minScore;
+    private final String fullSchema = FacilityAgreementSchema.jsonSchema();
+    private final String fullPrefix;
+    // index = bit mask of Section ordinals
+    private final String[] sectionPrefixes;
+    private final Map<Section, Counter> selected = new EnumMap<>(Section.class);
+    private final Counter fullSchemaUsed;
+
+    public SchemaSectionPrompts(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.sections.enabled:true}") boolean enabled,
+            @Value("${dealhub.extraction.sections.min-score:3}") int minScore
+    ) throws JsonProcessingException {
+        this.enabled = enabled;
+        this.minScore = minScore;
+        this.fullPrefix = render(fullSchema, List.of(Section.values()));
+
+        JsonNode schema = objectMapper.readTree(fullSchema);
+        Section[] sections = Section.values();
+        this.sectionPrefixes = new String[1 << sections.length];
+        for (int mask = 1; mask < sectionPrefixes.length; mask++) {
+            ObjectNode subset = objectMapper.createObjectNode();
+            List<Section> included = new ArrayList<>();
+            for (Section section : sections) {
+                if ((mask & (1 << section.ordinal())) == 0) continue;
+                subset.set(section.key(), schema.get(section.key()));
+                included.add(section);
+            }
+            sectionPrefixes[mask] = render(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(subset), included);
+        }
+
+        for (Section section : sections) {
+            selected.put(section, Counter.builder("extraction.pass1.sections")
+                    .tag("section", section.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.fullSchemaUsed = Counter.builder("extraction.pass1.sections").tag("section", "all").register(meterRegistry);
+    }
+
+    /** Every prefix this catalog can return for the facility agreement schema. */
+    public Collection<String> allPrefixes() {
+        List<String> all = new ArrayList<>();
+        all.add(fullPrefix);
+        for (int mask = 1; mask < sectionPrefixes.length; mask++) all.add(sectionPrefixes[mask]);
+        return all;
+    }
+
+    /** PASS 1 prefix for the chunk: scoped to its sections, or the full schema. */
+    public String pass1Prefix(String schema, String chunk) {
+        if (!fullSchema.equals(schema)) {
+            // another profile's schema: no sections known, everything goes in
+            return render(schema, List.of(Section.values()));
+        }
+        if (!enabled) return fullPrefix;
+
+        int mask = classify(chunk);
+        if (mask == 0) {
+            fullSchemaUsed.increment();
+            return fullPrefix;
+        }
+        countSelected(mask);
+        return sectionPrefixes[mask];
+    }
+
+    /**
+     * Prefix scoped to the chunk's sections, or null when it matches none. For amendments, where text that
+     * touches no section has nothing to change; applies whether or not scoping is enabled for PASS 1.
+     */
+    public String scopedPrefix(String chunk) {
+        int mask = classify(chunk);
+        if (mask == 0) return null;
+        countSelected(mask);
+        return sectionPrefixes[mask];
+    }
+
+    private void countSelected(int mask) {
+        for (Section section : Section.values()) {
+            if ((mask & (1 << section.ordinal())) != 0) selected.get(section).increment();
+        }
+    }
+
+    int classify(String chunk) {
+        String text = chunk.toLowerCase(Locale.ROOT);
+        List<String> headings = headings(chunk);
+
+        int mask = 0;
+        for (Section section : Section.values()) {
+            int score = 0;
+            for (String keyword : section.keywords()) {
+                score += Math.min(MAX_HITS_PER_KEYWORD, occurrences(text, keyword));
+                for (String heading : headings) {
+                    if (heading.contains(keyword)) score += HEADING_WEIGHT;
+                }
+            }
+            if (score >= minScore) mask |= 1 << section.ordinal();
+        }
+        return mask;
+    }
+
+    // short lines in capitals or starting with a clause number, e.g. "9. INTEREST PERIODS", "Schedule 4"
+    private static List<String> headings(String chunk) {
+        List<String> out = new ArrayList<>();
+        for (String line : chunk.split("\n")) {
+            String l = line.strip();
+            if (l.isEmpty() || l.length() > 80) continue;
+            boolean numbered = l.matches("^(\\d+(\\.\\d+)*\\.?|clause \\d+|schedule \\d+|part [ivx]+)\\b.*")
+                    || l.toLowerCase(Locale.ROOT).matches("^(clause|schedule|part)\\s+\\w+.*");
+            boolean capitals = l.chars().anyMatch(Character::isLetter) && l.equals(l.toUpperCase(Locale.ROOT));
+            if (numbered || capitals) out.add(l.toLowerCase(Locale.ROOT));
+        }
+        return out;
+    }
+
+    private static int occurrences(String text, String keyword) {
+        int n = 0;
+        for (int i = text.indexOf(keyword); i >= 0 && n < MAX_HITS_PER_KEYWORD; i = text.indexOf(keyword, i + keyword.length())) {
+            n++;
+        }
+        return n;
+    }
+
+    private static String render(String schema, List<Section> sections) {
+        StringBuilder sb = new StringBuilder(HEAD.formatted(schema));
+        int n = 1;
+        for (Section section : sections) {
+            if (section.rule() == null) continue;
+            sb.append(n++).append(") ").append(section.rule()).append('\n');
+        }
+        sb.append(n).append(") ").append(FacilityAgreementSchema.GENERAL_RULE).append('\n');
+        sb.append(TAIL);
+        return sb.toString();
+    }
+}
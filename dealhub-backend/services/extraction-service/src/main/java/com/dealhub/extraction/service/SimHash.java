@@ -0,0 +1,70 @@
+package com.dealhub.extraction.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 64-bit SimHash over word 3-shingles. Texts that differ only in a few words (party names, a clause
+ * number) get fingerprints a few bits apart; unrelated texts differ in about 32 bits.
+ */
+public final class SimHash {
+
+    private static final int SHINGLE = 3;
+
+    private SimHash() {}
+
+    public static long fingerprint(String text) {
+        List<String> tokens = tokens(text);
+        if (tokens.isEmpty()) return 0L;
+
+        int[] weights = new int[64];
+        int shingles = Math.max(1, tokens.size() - SHINGLE + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < shingles; i++) {
+            sb.setLength(0);
+            for (int j = i; j < Math.min(i + SHINGLE, tokens.size()); j++) {
+                sb.append(tokens.get(j)).append(' ');
+            }
+            long h = hash(sb);
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((h >>> bit) & 1L) == 1L ? 1 : -1;
+            }
+        }
+
+        long fp = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) fp |= 1L << bit;
+        }
+        return fp;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    // letters only, lower case: numbering, amounts and punctuation do not make clauses different
+    private static List<String> tokens(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        for (String t : text.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+            if (t.length() > 1) out.add(t);
+        }
+        return out;
+    }
+
+    // FNV-1a, then a murmur3 finalizer so that every bit depends on every input character
+    private static long hash(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,118 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.exception.ExtractionCancelledException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stage of the extraction pipeline: a fixed pool fed by a bounded queue.
+ *
+ * A full queue blocks the submitter instead of rejecting, so back-pressure reaches the previous stage.
+ * Tasks are tracked on the job handle, so cancelling a job cancels (and interrupts) its current stage.
+ * Metrics, tagged with the stage name: extraction.stage.queued / active (gauges), extraction.stage.wait
+ * (time in queue) and extraction.stage.service (time executing).
+ */
+public class StageExecutor {
+
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private final Timer waitTimer;
+    private final Timer serviceTimer;
+
+    public StageExecutor(String name, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.pool = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("stage-" + name + "-"),
+                (task, executor) -> {
+                    if (executor.isShutdown()) throw new RejectedExecutionException("Stage " + name + " is shut down");
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for stage " + name, e);
+                    }
+                }
+        );
+        this.pool.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("extraction.stage.queued", pool, p -> p.getQueue().size())
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("extraction.stage.active", pool, ThreadPoolExecutor::getActiveCount)
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("extraction.stage.wait")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.serviceTimer = Timer.builder("extraction.stage.service")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Runs the task on this stage on behalf of the job. The returned future fails with
+     * {@link ExtractionCancelledException} when the job is cancelled before or while the task runs.
+     */
+    public <T> CompletableFuture<T> submit(ExtractionJobHandle job, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+
+        FutureTask<T> stageTask = new FutureTask<>(() -> {
+            long start = System.nanoTime();
+            waitTimer.record(start - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                job.throwIfCancelled();
+                return task.call();
+            } finally {
+                serviceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }) {
+            @Override
+            protected void done() {
+                job.untrack(this);
+                try {
+                    result.complete(get());
+                } catch (CancellationException e) {
+                    result.completeExceptionally(new ExtractionCancelledException(job.jobKey()));
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+
+        job.track(stageTask);
+        try {
+            pool.execute(stageTask);
+        } catch (RejectedExecutionException e) {
+            job.untrack(stageTask);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,242 @@
+package com.dealhub.extraction.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Owns the directory downloaded PDFs (and PDFBox scratch files) are written to.
+ *
+ * Files count against a disk quota for as long as they exist; a job that needs a file while the quota
+ * is used up waits for other jobs to release theirs. The expected size of a file is reserved before it
+ * is written (unknown-size-reservation when the size is not known), so concurrent writers cannot overrun
+ * the quota together; commit settles the reservation to the real size. Files left behind by a crashed
+ * process are removed on startup.
+ */
+@Component
+public class TempFileManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TempFileManager.class);
+
+    private final Path dir;
+    private final long quotaBytes;
+    private final Duration waitForSpace;
+    private final Duration janitorMinAge;
+    private final long unknownSizeReservation;
+
+    private final Map<Path, Long> tracked = new ConcurrentHashMap<>();
+    // guarded by "this"
+    private long usedBytes;
+
+    public TempFileManager(
+            MeterRegistry meterRegistry,
+            @Value("${dealhub.extraction.temp.dir:${java.io.tmpdir}/dealhub-extraction}") Path dir,
+            @Value("${dealhub.extraction.temp.quota:2GB}") DataSize quota,
+            @Value("${dealhub.extraction.temp.wait-for-space:PT5M}") Duration waitForSpace,
+            @Value("${dealhub.extraction.temp.janitor-min-age:PT1H}") Duration janitorMinAge,
+            @Value("${dealhub.extraction.temp.unknown-size-reservation:64MB}") DataSize unknownSizeReservation
+    ) {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.quotaBytes = quota.toBytes();
+        this.waitForSpace = waitForSpace;
+        this.janitorMinAge = janitorMinAge;
+        this.unknownSizeReservation = Math.max(1, Math.min(unknownSizeReservation.toBytes(), quotaBytes));
+
+        Gauge.builder("extraction.temp.used", this, TempFileManager::usedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("extraction.temp.quota", this, m -> m.quotaBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Path directory() {
+        return dir;
+    }
+
+    public long quotaBytes() {
+        return quotaBytes;
+    }
+
+    /**
+     * Removes files older than janitor-min-age: nothing this process creates lives that long, so they
+     * are leftovers from a previous run (the age check keeps a second instance's files safe).
+     */
+    @PostConstruct
+    void janitor() throws IOException {
+        Files.createDirectories(dir);
+        Instant cutoff = Instant.now().minus(janitorMinAge);
+        int removed = 0;
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                try {
+                    FileTime modified = Files.getLastModifiedTime(p);
+                    if (Files.isRegularFile(p) && modified.toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(p);
+                        removed++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not remove stale temp file {}", p, e);
+                }
+            }
+        }
+        if (removed > 0) log.info("Removed {} stale temp file(s) from {}", removed, dir);
+    }
+
+    /**
+     * Creates an empty file in the managed directory once the quota has room for its expected size
+     * ({@code expectedBytes <= 0}: not known), waiting up to wait-for-space. The space stays reserved until
+     * {@link #commit} or {@link #release}.
+     */
+    public Path create(String prefix, String suffix, long expectedBytes) throws InterruptedException {
+        long reserved = expectedBytes > 0 ? expectedBytes : unknownSizeReservation;
+        checkFits(reserved);
+        synchronized (this) {
+            awaitSpace(reserved);
+            usedBytes += reserved;
+        }
+        try {
+            Path file = Files.createTempFile(dir, prefix, suffix);
+            tracked.put(file, reserved);
+            return file;
+        } catch (IOException e) {
+            synchronized (this) {
+                usedBytes -= reserved;
+                notifyAll();
+            }
+            throw new UncheckedIOException("Failed creating temp file in " + dir, e);
+        }
+    }
+
+    /**
+     * Changes the file's reservation once its size is known (e.g. from Content-Length), waiting for space
+     * when it grows.
+     */
+    public synchronized void reserve(Path file, long bytes) throws InterruptedException {
+        checkFits(bytes);
+        Long current = tracked.get(file);
+        if (current == null) throw new IllegalStateException("Not a managed temp file: " + file);
+        long delta = bytes - current;
+        if (delta > 0) awaitSpace(delta);
+        settle(file, current, bytes);
+    }
+
+    /**
+     * Settles the file's reservation to its current size (call after writing it). Fails and deletes the file
+     * if it alone does not fit the quota.
+     */
+    public synchronized void commit(Path file) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (size > quotaBytes) {
+            release(file);
+            throw new IllegalStateException("File of " + size + " bytes exceeds the temp disk quota of " + quotaBytes + " bytes");
+        }
+
+        Long previous = tracked.get(file);
+        settle(file, previous == null ? 0 : previous, size);
+    }
+
+    // guarded by "this"
+    private void settle(Path file, long previous, long size) {
+        tracked.put(file, size);
+        usedBytes += size - previous;
+        if (size < previous) notifyAll();
+    }
+
+    private void checkFits(long bytes) {
+        if (bytes > quotaBytes) {
+            throw new IllegalStateException("File of " + bytes + " bytes exceeds the temp disk quota of " + quotaBytes + " bytes");
+        }
+    }
+
+    /** Deletes the file and gives its space back. */
+    public void release(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", file, e);
+        }
+        synchronized (this) {
+            Long size = tracked.remove(file);
+            if (size != null) {
+                usedBytes -= size;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reserves space for scratch files that are not tracked individually (PDFBox temp buffers), waiting up
+     * to wait-for-space; the space counts against the quota until the scratch is released.
+     */
+    public Scratch reserveScratch(long bytes) throws InterruptedException {
+        long amount = Math.max(0, bytes);
+        checkFits(amount);
+        synchronized (this) {
+            awaitSpace(amount);
+            usedBytes += amount;
+        }
+        return new Scratch(amount);
+    }
+
+    /** Scratch space held by one parse. */
+    public final class Scratch {
+        private long bytes;
+
+        private Scratch(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public synchronized long bytes() {
+            return bytes;
+        }
+
+        public synchronized void release() {
+            if (bytes == 0) return;
+            synchronized (TempFileManager.this) {
+                usedBytes -= bytes;
+                TempFileManager.this.notifyAll();
+            }
+            bytes = 0;
+        }
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private synchronized void awaitSpace(long bytes) throws InterruptedException {
+        long deadline = System.nanoTime() + waitForSpace.toNanos();
+        while (usedBytes + bytes > quotaBytes) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                throw new IllegalStateException("Temp disk quota exhausted (" + usedBytes + "/" + quotaBytes + " bytes)");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.dealhub.extraction.service;
+
+import com.dealhub.extraction.model.ExtractionProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the FULL extraction of every document under src/test/resources/llm-regression/documents against its
+ * recorded LLM cassettes and compares call count, input/output tokens and wall time with baseline.json.
+ * See src/test/resources/llm-regression/README.md for recording and updating the baseline.
+ */
+class ExtractionLatencyRegressionTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ExtractionLatencyRegressionTest.class);
+
+    private static final Path ROOT = Path.of("src/test/resources/llm-regression");
+    private static final Path REPORT = Path.of("target/llm-regression/report.json");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    record DocumentRun(String document, int chunks, long calls, long inputTokens, long outputTokens, long wallMs) {}
+
+    @Test
+    void extractionStaysWithinBaseline() throws Exception {
+        List<Path> documents = documents();
+        assumeTrue(!documents.isEmpty(), "no regression documents");
+
+        LlmCassettes.Mode mode = LlmCassettes.Mode.valueOf(
+                System.getProperty("llm.regression.mode", "replay").trim().toUpperCase(Locale.ROOT));
+        double latencyScale = Double.parseDouble(System.getProperty("llm.regression.latency-scale", "1.0"));
+
+        List<DocumentRun> runs = new ArrayList<>();
+        for (Path document : documents) {
+            runs.add(run(document, mode, latencyScale));
+        }
+
+        Files.createDirectories(REPORT.getParent());
+        objectMapper.writeValue(REPORT.toFile(), runs);
+        runs.forEach(r -> log.info("[REGRESSION] {}: {} chunks, {} calls, {} input / {} output tokens, {} ms",
+                r.document(), r.chunks(), r.calls(), r.inputTokens(), r.outputTokens(), r.wallMs()));
+
+        Path baselineFile = ROOT.resolve("baseline.json");
+        if (Boolean.getBoolean("llm.regression.update-baseline")) {
+            writeBaseline(baselineFile, runs);
+            return;
+        }
+        if (mode == LlmCassettes.Mode.RECORD) return; // fresh cassettes: replay them to update the baseline
+
+        JsonNode baseline = Files.exists(baselineFile) ? objectMapper.readTree(baselineFile.toFile()) : objectMapper.createObjectNode();
+        double tokenTolerance = Double.parseDouble(System.getProperty("llm.regression.token-tolerance", "0.02"));
+        double timeTolerance = Double.parseDouble(System.getProperty("llm.regression.time-tolerance", "0.25"));
+
+        List<String> regressions = new ArrayList<>();
+        for (DocumentRun run : runs) {
+            JsonNode expected = baseline.path("documents").path(run.document());
+            if (expected.isMissingNode()) {
+                regressions.add(run.document() + ": not in baseline.json (run with -Dllm.regression.update-baseline=true)");
+                continue;
+            }
+            check(regressions, run.document(), "calls", run.calls(), expected.path("calls").asLong(), 0);
+            check(regressions, run.document(), "input tokens", run.inputTokens(), expected.path("inputTokens").asLong(), tokenTolerance);
+            check(regressions, run.document(), "output tokens", run.outputTokens(), expected.path("outputTokens").asLong(), tokenTolerance);
+            // recorded latencies are only replayed as recorded at scale 1
+            if (latencyScale == 1.0) {
+                check(regressions, run.document(), "wall ms", run.wallMs(), expected.path("wallMs").asLong(), timeTolerance);
+            }
+        }
+        assertTrue(regressions.isEmpty(), "Extraction regressed against baseline.json:\n" + String.join("\n", regressions));
+    }
+
+    private static void check(List<String> regressions, String document, String what, long actual, long expected, double tolerance) {
+        if (actual > expected * (1 + tolerance)) {
+            regressions.add("%s: %s %d > baseline %d (+%.0f%% allowed)".formatted(document, what, actual, expected, tolerance * 100));
+        }
+    }
+
+    private DocumentRun run(Path document, LlmCassettes.Mode mode, double latencyScale) throws Exception {
+        String name = document.getFileName().toString().replaceFirst("\\.txt$", "");
+        List<String> chunks = new TextChunker().chunk(Files.readString(document), 12_000);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LlmCassettes cassettes = new LlmCassettes(objectMapper, mode.name(),
+                ROOT.resolve("cassettes").resolve(name).toString(), latencyScale);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RestClient.Builder> restClients = mock(ObjectProvider.class);
+        LlmEndpointRouter router = new LlmEndpointRouter(ChatClient.builder(model(mode)), restClients, new StandardEnvironment(),
+                registry, cassettes, "", 3, Duration.ofSeconds(30), Duration.ofMinutes(5));
+        LlmCallGovernor governor = new LlmCallGovernor(registry, 8);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setThreadNamePrefix("llm-regression-");
+        executor.initialize();
+        try {
+            // nothing cached, no boilerplate shortcuts, no batches: every call the document needs is made
+            LlmFacilityAgreementExtractor extractor = new LlmFacilityAgreementExtractor(
+                    router, objectMapper, mock(ExtractionCheckpointService.class), executor, governor,
+                    mock(BoilerplateIndex.class), new LlmUsageMetrics(registry),
+                    new SchemaSectionPrompts(objectMapper, registry, true, 3), mock(LlmBatchQueue.class),
+                    24_000, 8, 2, registry);
+
+            long start = System.nanoTime();
+            extractor.extract(new ExtractionJobHandle("regression-" + name),
+                    new ExtractionSchemaResolver().schemaFor(ExtractionProfile.FACILITY_AGREEMENT), 0L, 0L, chunks, false);
+            long wallMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            return new DocumentRun(name, chunks.size(), governor.completedCalls(),
+                    tokens(registry, "input"), tokens(registry, "output"), wallMs);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // REPLAY never reaches the model; RECORD talks to the endpoint given by llm.regression.* system properties
+    private static ChatModel model(LlmCassettes.Mode mode) {
+        if (mode != LlmCassettes.Mode.RECORD) {
+            ChatModel model = mock(ChatModel.class);
+            when(model.call(any(Prompt.class))).thenThrow(new IllegalStateException("LLM called outside RECORD mode"));
+            return model;
+        }
+        OpenAiApi api = OpenAiApi.builder()
+                .baseUrl(System.getProperty("llm.regression.base-url", "https://api.openai.com"))
+                .apiKey(System.getProperty("llm.regression.api-key", System.getenv().getOrDefault("OPENAI_API_KEY", "")))
+                .build();
+        return OpenAiChatModel.builder()
+                .openAiApi(api)
+                .defaultOptions(OpenAiChatOptions.builder()
+                        .model(System.getProperty("llm.regression.model", "gpt-4o-mini"))
+                        .temperature(0.0)
+                        .topP(1.0)
+                        .maxTokens(3000)
+                        .build())
+                // a retried call would be recorded with the retry's latency
+                .retryTemplate(RetryTemplate.builder().maxAttempts(1).build())
+                .build();
+    }
+
+    private static long tokens(MeterRegistry registry, String type) {
+        return Math.round(registry.find("extraction.llm.tokens").tag("type", type).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum());
+    }
+
+    private void writeBaseline(Path file, List<DocumentRun> runs) throws Exception {
+        ObjectNode baseline = objectMapper.createObjectNode();
+        baseline.put("format", 1);
+        baseline.put("promptVersion", LlmFacilityAgreementExtractor.PROMPT_VERSION);
+        ObjectNode documents = baseline.putObject("documents");
+        for (DocumentRun run : runs) {
+            documents.putObject(run.document())
+                    .put("chunks", run.chunks())
+                    .put("calls", run.calls())
+                    .put("inputTokens", run.inputTokens())
+                    .put("outputTokens", run.outputTokens())
+                    .put("wallMs", run.wallMs());
+        }
+        objectMapper.writeValue(file.toFile(), baseline);
+        log.info("[REGRESSION] baseline written to {}", file.toAbsolutePath());
+    }
+
+    private static List<Path> documents() throws Exception {
+        Path dir = ROOT.resolve("documents");
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".txt")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.dealhub.extraction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link LlmEndpointRouter} against two local OpenAI-compatible stub endpoints: how calls are spread,
+ * failover when an endpoint answers 429 or 5xx (but not 4xx), and ejection of a failing endpoint until its
+ * cooldown ends.
+ */
+class LlmEndpointRouterTest {
+
+    private final List<StubEndpoint> stubs = new ArrayList<>();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private StubEndpoint a;
+    private StubEndpoint b;
+
+    @BeforeEach
+    void startStubs() throws IOException {
+        a = stub("a");
+        b = stub("b");
+    }
+
+    @AfterEach
+    void stopStubs() {
+        stubs.forEach(s -> s.server.stop(0));
+    }
+
+    @Test
+    void spreadsSequentialCallsOverEqualEndpoints() {
+        LlmEndpointRouter router = router(Map.of(), Duration.ofSeconds(30));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ask(router).startsWith("ok from "));
+        }
+
+        assertEquals(100, a.calls.get() + b.calls.get());
+        assertTrue(a.calls.get() >= 25 && b.calls.get() >= 25,
+                "ties should be broken at random: a=" + a.calls + ", b=" + b.calls);
+    }
+
+    @Test
+    void favoursTheHeavierEndpointUnderLoad() throws Exception {
+        a.latencyMs = 20;
+        b.latencyMs = 20;
+        LlmEndpointRouter router = router(Map.of("a", 3), Duration.ofSeconds(30));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 160; i++) calls.add(pool.submit(() -> ask(router)));
+            for (Future<String> call : calls) call.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(160, a.calls.get() + b.calls.get());
+        assertTrue(b.calls.get() > 0, "the lighter endpoint should still get calls");
+        assertTrue(a.calls.get() > 2 * b.calls.get(), "weight 3 vs 1: a=" + a.calls + ", b=" + b.calls);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {429, 500, 503})
+    void failsOverWhenAnEndpointErrors(int status) {
+        b.status = status;
+        LlmEndpointRouter router = router(Map.of(), Duration.ofSeconds(30));
+
+        for (int i = 0; i < 40; i++) {
+            assertEquals("ok from a", ask(router));
+        }
+
+        assertEquals(40, a.calls.get());
+        // ejected after three failures in a row, then left alone for the cooldown
+        assertTrue(b.calls.get() <= 3, "b should be ejected, got " + b.calls + " calls");
+        assertEquals(1.0, ejections("b"));
+        assertEquals(0.0, healthy("b"));
+        assertEquals(1.0, healthy("a"));
+    }
+
+    @Test
+    void ejectedEndpointRecoversAfterCooldown() throws Exception {
+        b.status = 503;
+        LlmEndpointRouter router = router(Map.of(), Duration.ofSeconds(2));
+
+        while (ejections("b") == 0) ask(router);
+        int failedCalls = b.calls.get();
+
+        b.status = 200;
+        for (int i = 0; i < 10; i++) assertEquals("ok from a", ask(router));
+        assertEquals(failedCalls, b.calls.get(), "no calls to b while it cools down");
+
+        Thread.sleep(2_200);
+        assertEquals(1.0, healthy("b"));
+        for (int i = 0; i < 100; i++) ask(router);
+        assertTrue(b.calls.get() - failedCalls >= 25, "b should take its share again, got " + (b.calls.get() - failedCalls));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {400, 401, 413})
+    void rejectedRequestNeitherFailsOverNorEjects(int status) {
+        a.status = status;
+        b.status = status;
+        LlmEndpointRouter router = router(Map.of(), Duration.ofSeconds(30));
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(RuntimeException.class, () -> ask(router));
+        }
+
+        // one attempt per call, on whichever endpoint was picked
+        assertEquals(10, a.calls.get() + b.calls.get());
+        assertEquals(0.0, ejections("a") + ejections("b"));
+        assertEquals(2.0, healthy("a") + healthy("b"));
+    }
+
+    @Test
+    void neverEjectsTheLastHealthyEndpoint() {
+        a.status = 503;
+        b.status = 503;
+        LlmEndpointRouter router = router(Map.of(), Duration.ofSeconds(30));
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(RuntimeException.class, () -> ask(router));
+        }
+
+        assertEquals(1.0, ejections("a") + ejections("b"));
+        assertEquals(1.0, healthy("a") + healthy("b"));
+    }
+
+    private static String ask(LlmEndpointRouter router) {
+        return router.call(client -> client.prompt().user("ping").call().content());
+    }
+
+    private double ejections(String endpoint) {
+        return registry.get("extraction.llm.endpoint.ejections").tag("endpoint", endpoint).counter().count();
+    }
+
+    private double healthy(String endpoint) {
+        return registry.get("extraction.llm.endpoint.healthy").tag("endpoint", endpoint).gauge().value();
+    }
+
+    private LlmEndpointRouter router(Map<String, Integer> weights, Duration ejectDuration) {
+        Map<String, Object> properties = new HashMap<>();
+        for (StubEndpoint s : stubs) {
+            properties.put("dealhub.extraction.llm.endpoint." + s.name + ".base-url",
+                    "http://localhost:" + s.server.getAddress().getPort());
+            properties.put("dealhub.extraction.llm.endpoint." + s.name + ".api-key", "test-" + s.name);
+            properties.put("dealhub.extraction.llm.endpoint." + s.name + ".weight", weights.getOrDefault(s.name, 1));
+        }
+        // no provider-level retries, so every failure reaches the router
+        properties.put("dealhub.extraction.llm.endpoint-attempts", 1);
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("stubs", properties));
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RestClient.Builder> restClients = mock(ObjectProvider.class);
+        when(restClients.getIfAvailable(any())).thenAnswer(invocation -> RestClient.builder());
+
+        return new LlmEndpointRouter(ChatClient.builder(mock(ChatModel.class)), restClients, env, registry,
+                new LlmCassettes(new ObjectMapper(), "off", "target/llm-cassettes", 1.0),
+                "a,b", 3, ejectDuration, ejectDuration.multipliedBy(10));
+    }
+
+    private StubEndpoint stub(String name) throws IOException {
+        StubEndpoint stub = new StubEndpoint(name, HttpServer.create(new InetSocketAddress("localhost", 0), 0));
+        stub.server.createContext("/", stub::handle);
+        stub.server.setExecutor(Executors.newCachedThreadPool());
+        stub.server.start();
+        stubs.add(stub);
+        return stub;
+    }
+
+    // answers every chat completion with "ok from <name>", or with the configured error status
+    private static final class StubEndpoint {
+        final String name;
+        final HttpServer server;
+        final AtomicInteger calls = new AtomicInteger();
+        volatile int status = 200;
+        volatile long latencyMs;
+
+        StubEndpoint(String name, HttpServer server) {
+            this.name = name;
+            this.server = server;
+        }
+
+        void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                calls.incrementAndGet();
+                if (latencyMs > 0) Thread.sleep(latencyMs);
+
+                int code = status;
+                String body = code == 200
+                        ? """
+                        {"id":"chatcmpl-%s","object":"chat.completion","created":0,"model":"stub",
+                         "choices":[{"index":0,"message":{"role":"assistant","content":"ok from %s"},"finish_reason":"stop"}],
+                         "usage":{"prompt_tokens":1,"completion_tokens":3,"total_tokens":4}}
+                        """.formatted(name, name)
+                        : "{\"error\":{\"message\":\"stub " + name + " says " + code + "\",\"type\":\"stub\"}}";
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(code, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
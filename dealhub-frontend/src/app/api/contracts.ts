@@ -67,6 +67,8 @@ export interface StartExtractionRequest {
   documentType?: string;
 
   extractionProfile?: string;
+  priority?: "INTERACTIVE" | "NORMAL" | "BULK";
+  estimatedPages?: number;
 }
 
 export type ExtractionStatus =
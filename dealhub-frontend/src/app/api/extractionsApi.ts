@@ -41,7 +41,20 @@ export async function getExtraction(
 }
 
 /**
- * Poll until terminal status or timeout.
+ * Status-only view of a job (no resultJson). The server answers with an ETag,
+ * so repeated polls are revalidated by the browser and come back as 304s.
+ */
+export async function getExtractionStatus(
+  jobKey: string
+): Promise<ExtractionResponse> {
+  return httpJson<ExtractionResponse>(
+    "GET",
+    `/extractions/${encodeURIComponent(jobKey)}?fields=status`
+  );
+}
+
+/**
+ * Poll the status projection until terminal status or timeout, then load the full job once.
  */
 export async function pollExtraction(
   jobKey: string,
@@ -67,13 +80,14 @@ export async function pollExtraction(
   while (true) {
     if (opts.signal?.aborted) throw new DOMException("Aborted", "AbortError");
 
-    const job = await getExtraction(jobKey);
+    const job = await getExtractionStatus(jobKey);
     const status = String(job.status ?? "").toUpperCase();
 
     const doneStatuses = new Set(["COMPLETED", "DONE", "SUCCESS", "SUCCEEDED"]);
-    const failedStatuses = new Set(["FAILED", "ERROR"]);
+    const failedStatuses = new Set(["FAILED", "ERROR", "CANCELLED"]);
 
-    if (doneStatuses.has(status) || failedStatuses.has(status)) return job;
+    if (doneStatuses.has(status)) return getExtraction(jobKey);
+    if (failedStatuses.has(status)) return job;
 
     if (Date.now() - startedAt > timeoutMs) {
       throw new Error(
@@ -228,6 +228,8 @@ export function ExtractPage() {
         documentId: newDocumentId,
         agreementId: newAgreementId,
         extractionProfile: "FACILITY_AGREEMENT",
+        // a user is waiting on this screen
+        priority: "INTERACTIVE",
       });
 
       setJobKey(started.jobKey);